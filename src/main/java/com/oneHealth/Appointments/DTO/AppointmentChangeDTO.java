@@ -0,0 +1,90 @@
+package com.oneHealth.Appointments.DTO;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Data Transfer Object (DTO) class representing one committed appointment
+ * change as pushed to subscribers of the change streams: what happened, to
+ * which appointment of which doctor and patient, its status afterwards and
+ * the dates it touched.
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentChangeDTO {
+
+    private String change;
+    private long appointmentId;
+    private long doctorId;
+    private long patientId;
+    private String status;
+    private Set<LocalDate> dates;
+
+    public AppointmentChangeDTO() {
+        // Default constructor required for deserialization by Jackson or other serialization frameworks.
+    }
+
+    public AppointmentChangeDTO(String change, long appointmentId, long doctorId, long patientId, String status,
+            Set<LocalDate> dates) {
+        this.change = change;
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+        this.status = status;
+        this.dates = dates;
+    }
+
+    public String getChange() {
+        return change;
+    }
+
+    public void setChange(String change) {
+        this.change = change;
+    }
+
+    public long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Set<LocalDate> getDates() {
+        return dates;
+    }
+
+    public void setDates(Set<LocalDate> dates) {
+        this.dates = dates;
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentChangeDTO [change=" + change + ", appointmentId=" + appointmentId + ", doctorId="
+                + doctorId + ", patientId=" + patientId + ", status=" + status + ", dates=" + dates + "]";
+    }
+}
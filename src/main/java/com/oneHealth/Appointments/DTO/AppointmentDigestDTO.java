@@ -0,0 +1,89 @@
+package com.oneHealth.Appointments.DTO;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) class representing a summary of several
+ * appointments for one doctor, sent to the email service as a single message.
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentDigestDTO {
+
+    private long doctorId;
+    private String doctor_name;
+    private String doctor_email;
+    private Timestamp windowStart; // Creation time of the oldest appointment notification in the digest.
+    private Timestamp windowEnd; // Creation time of the newest appointment notification in the digest.
+    private List<AppointmentDTO> appointments;
+
+    public AppointmentDigestDTO() {
+        // Default constructor required for deserialization by Jackson or other serialization frameworks.
+    }
+
+    public AppointmentDigestDTO(long doctorId, String doctor_name, String doctor_email, Timestamp windowStart,
+            Timestamp windowEnd, List<AppointmentDTO> appointments) {
+        this.doctorId = doctorId;
+        this.doctor_name = doctor_name;
+        this.doctor_email = doctor_email;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.appointments = appointments;
+    }
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getDoctor_name() {
+        return doctor_name;
+    }
+
+    public void setDoctor_name(String doctor_name) {
+        this.doctor_name = doctor_name;
+    }
+
+    public String getDoctor_email() {
+        return doctor_email;
+    }
+
+    public void setDoctor_email(String doctor_email) {
+        this.doctor_email = doctor_email;
+    }
+
+    public Timestamp getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(Timestamp windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public Timestamp getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(Timestamp windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public List<AppointmentDTO> getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(List<AppointmentDTO> appointments) {
+        this.appointments = appointments;
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentDigestDTO [doctorId=" + doctorId + ", doctor_name=" + doctor_name + ", doctor_email="
+                + doctor_email + ", windowStart=" + windowStart + ", windowEnd=" + windowEnd + ", appointments="
+                + appointments + "]";
+    }
+}
@@ -0,0 +1,48 @@
+package com.oneHealth.Appointments.DTO;
+
+import java.util.List;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+/**
+ * Data Transfer Object (DTO) class representing one page of an appointment
+ * listing. The next page is requested with nextCursor, which is null on the
+ * last page.
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentPageDTO {
+
+    private List<Appointment> appointments;
+    private String nextCursor;
+
+    public AppointmentPageDTO() {
+        // Default constructor required for deserialization by Jackson or other serialization frameworks.
+    }
+
+    public AppointmentPageDTO(List<Appointment> appointments, String nextCursor) {
+        this.appointments = appointments;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Appointment> getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(List<Appointment> appointments) {
+        this.appointments = appointments;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentPageDTO [appointments=" + appointments.size() + ", nextCursor=" + nextCursor + "]";
+    }
+}
@@ -0,0 +1,69 @@
+package com.oneHealth.Appointments.DTO;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) class representing several appointments of one
+ * patient booked together, e.g. the sessions of a treatment plan, sent to the
+ * email service as a single message. Each appointment carries its doctor's
+ * details, so the doctors can be notified from the same message.
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentPlanDTO {
+
+    private long patientId;
+    private String patient_name;
+    private String patient_email;
+    private List<AppointmentDTO> appointments;
+
+    public AppointmentPlanDTO() {
+        // Default constructor required for deserialization by Jackson or other serialization frameworks.
+    }
+
+    public AppointmentPlanDTO(long patientId, String patient_name, String patient_email,
+            List<AppointmentDTO> appointments) {
+        this.patientId = patientId;
+        this.patient_name = patient_name;
+        this.patient_email = patient_email;
+        this.appointments = appointments;
+    }
+
+    public long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getPatient_name() {
+        return patient_name;
+    }
+
+    public void setPatient_name(String patient_name) {
+        this.patient_name = patient_name;
+    }
+
+    public String getPatient_email() {
+        return patient_email;
+    }
+
+    public void setPatient_email(String patient_email) {
+        this.patient_email = patient_email;
+    }
+
+    public List<AppointmentDTO> getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(List<AppointmentDTO> appointments) {
+        this.appointments = appointments;
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentPlanDTO [patientId=" + patientId + ", patient_name=" + patient_name + ", patient_email="
+                + patient_email + ", appointments=" + appointments + "]";
+    }
+}
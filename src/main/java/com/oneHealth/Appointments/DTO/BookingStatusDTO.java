@@ -0,0 +1,54 @@
+package com.oneHealth.Appointments.DTO;
+
+/**
+ * Data Transfer Object (DTO) class representing the progress of a booking
+ * accepted asynchronously. The slot is reserved as soon as the booking is
+ * accepted; the status tells whether the profiles were loaded and the
+ * notification queued yet.
+ * @author Anup
+ * @version 1.0
+ */
+public class BookingStatusDTO {
+
+    /** The slot is reserved; profile enrichment and notification are still to come. */
+    public static final String PROCESSING = "PROCESSING";
+    /** The booking is complete and its notification queued for delivery. */
+    public static final String CONFIRMED = "CONFIRMED";
+    /** The booking stands, but its notification could not be prepared or delivered. */
+    public static final String NOTIFICATION_FAILED = "NOTIFICATION_FAILED";
+    /** The patient or doctor does not exist; the appointment was removed and its slot freed. */
+    public static final String REJECTED = "REJECTED";
+
+    private long appointmentId;
+    private String status;
+
+    public BookingStatusDTO() {
+        // Default constructor required for deserialization by Jackson or other serialization frameworks.
+    }
+
+    public BookingStatusDTO(long appointmentId, String status) {
+        this.appointmentId = appointmentId;
+        this.status = status;
+    }
+
+    public long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingStatusDTO [appointmentId=" + appointmentId + ", status=" + status + "]";
+    }
+}
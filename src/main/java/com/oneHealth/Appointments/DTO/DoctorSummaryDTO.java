@@ -0,0 +1,68 @@
+package com.oneHealth.Appointments.DTO;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) class representing a doctor's dashboard: the
+ * number of appointments per status today, upcoming (after today) and
+ * overall. Statuses without appointments are left out.
+ * @author Anup
+ * @version 1.0
+ */
+public class DoctorSummaryDTO {
+
+    private long doctorId;
+    private Map<String, Long> today;
+    private Map<String, Long> upcoming;
+    private Map<String, Long> total;
+
+    public DoctorSummaryDTO() {
+        // Default constructor required for deserialization by Jackson or other serialization frameworks.
+    }
+
+    public DoctorSummaryDTO(long doctorId, Map<String, Long> today, Map<String, Long> upcoming,
+            Map<String, Long> total) {
+        this.doctorId = doctorId;
+        this.today = today;
+        this.upcoming = upcoming;
+        this.total = total;
+    }
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public Map<String, Long> getToday() {
+        return today;
+    }
+
+    public void setToday(Map<String, Long> today) {
+        this.today = today;
+    }
+
+    public Map<String, Long> getUpcoming() {
+        return upcoming;
+    }
+
+    public void setUpcoming(Map<String, Long> upcoming) {
+        this.upcoming = upcoming;
+    }
+
+    public Map<String, Long> getTotal() {
+        return total;
+    }
+
+    public void setTotal(Map<String, Long> total) {
+        this.total = total;
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorSummaryDTO [doctorId=" + doctorId + ", today=" + today + ", upcoming=" + upcoming + ", total="
+                + total + "]";
+    }
+}
@@ -3,7 +3,9 @@ package com.oneHealth.Appointments;
 import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
@@ -12,11 +14,14 @@ import org.springframework.web.client.RestTemplate;
  * This is the main class for the OneHealthDoctorAppointmentApplication.
  * It is annotated with @SpringBootApplication, indicating that it's a Spring Boot application.
  * It's also annotated with @RestController, indicating that it's a RESTful controller.
+ * Scheduling is enabled for background jobs such as the notification outbox dispatcher.
+ * R2DBC is only used for reactive reads and is set up in ReactiveReadConfig, next to JPA, instead of replacing it.
  * 
  * @author Anup
  * @version 1.0
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 @RestController
 public class OneHealthDoctorAppointmentApplication {
 
@@ -0,0 +1,162 @@
+package com.oneHealth.Appointments.booking;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.oneHealth.Appointments.deadline.Deadline;
+import com.oneHealth.Appointments.exception.BookingLockTimeoutException;
+import com.oneHealth.Appointments.exception.DeadlineExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Serialises bookings of the same doctor on the same day within this node.
+ * <p>
+ * Locks are striped: (doctorId, date) is hashed onto a fixed, power-of-two
+ * sized array of fair {@link ReentrantLock}s, so memory stays bounded no matter
+ * how many doctor-days are booked, bookings for the same doctor-day always
+ * queue on the same lock, and bookings for other doctors almost always take a
+ * different one and proceed in parallel. The default of four stripes per core
+ * keeps accidental collisions rare. Waiting is bounded by
+ * {@code booking.lock.timeout}; a booking that cannot get its lock in time
+ * fails with {@link BookingLockTimeoutException} instead of piling up threads,
+ * or with {@link DeadlineExceededException} when the request's {@link Deadline}
+ * runs out first.
+ * <p>
+ * Metrics: the "booking.lock.wait" timer, and the "booking.lock.contended" and
+ * "booking.lock.timeouts" counters.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class BookingLockManager {
+	private static final Logger LOGGER = Logger.getLogger(BookingLockManager.class.getName());
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${booking.lock.stripes:0}")
+	private int configuredStripes;
+
+	@Value("${booking.lock.timeout:PT2S}")
+	private Duration timeout;
+
+	private ReentrantLock[] stripes;
+
+	private Timer waitTimer;
+
+	private Counter contended;
+
+	private Counter timeouts;
+
+	@PostConstruct
+	void init() {
+		int requested = configuredStripes > 0 ? configuredStripes : Runtime.getRuntime().availableProcessors() * 4;
+		int size = Integer.highestOneBit(Math.max(1, requested - 1)) << 1;
+		stripes = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			stripes[i] = new ReentrantLock(true);
+		}
+		waitTimer = Timer.builder("booking.lock.wait").register(meterRegistry);
+		contended = Counter.builder("booking.lock.contended").register(meterRegistry);
+		timeouts = Counter.builder("booking.lock.timeouts").register(meterRegistry);
+		LOGGER.info("Booking locks striped " + size + " ways, timeout " + timeout);
+	}
+
+	/**
+	 * Runs the action while holding the lock of the doctor-day.
+	 *
+	 * @param doctorId The doctor being booked.
+	 * @param date     The day being booked.
+	 * @param action   The work to serialise.
+	 * @return The result of the action.
+	 * @throws BookingLockTimeoutException If the lock could not be acquired in time.
+	 * @throws DeadlineExceededException   If the request deadline ran out first.
+	 * @throws Exception                   Whatever the action throws.
+	 */
+	public <T> T withLock(long doctorId, Date date, Callable<T> action) throws Exception {
+		ReentrantLock lock = stripes[stripe(new DoctorDay(doctorId, date.toLocalDate()))];
+		acquire(lock, "doctor " + doctorId + " on " + date);
+		try {
+			return action.call();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Runs the action while holding the locks of several doctor-days. The
+	 * stripes are always taken in ascending order, so two multi-day bookings can
+	 * never deadlock on each other.
+	 *
+	 * @param doctorDays The doctor-days being booked.
+	 * @param action     The work to serialise.
+	 * @return The result of the action.
+	 * @throws BookingLockTimeoutException If a lock could not be acquired in time.
+	 * @throws DeadlineExceededException   If the request deadline ran out first.
+	 * @throws Exception                   Whatever the action throws.
+	 */
+	public <T> T withLocks(Collection<DoctorDay> doctorDays, Callable<T> action) throws Exception {
+		int[] indexes = doctorDays.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+		Deque<ReentrantLock> held = new ArrayDeque<>(indexes.length);
+		try {
+			for (int index : indexes) {
+				acquire(stripes[index], doctorDays.size() + " doctor-days");
+				held.push(stripes[index]);
+			}
+			return action.call();
+		} finally {
+			while (!held.isEmpty()) {
+				held.pop().unlock();
+			}
+		}
+	}
+
+	private void acquire(ReentrantLock lock, String what)
+			throws BookingLockTimeoutException, DeadlineExceededException {
+		long start = System.nanoTime();
+		boolean acquired = lock.tryLock();
+		Duration wait = timeout;
+		if (!acquired) {
+			contended.increment();
+			wait = Deadline.within(timeout, Duration.ZERO);
+			try {
+				acquired = !wait.isNegative() && lock.tryLock(wait.toNanos(), TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new BookingLockTimeoutException("Interrupted while waiting for booking lock of " + what);
+			}
+		}
+		waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		if (!acquired) {
+			timeouts.increment();
+			LOGGER.warning("Timed out waiting for booking lock of " + what);
+			if (wait.compareTo(timeout) < 0) {
+				throw new DeadlineExceededException("Request deadline reached waiting for booking lock of " + what);
+			}
+			throw new BookingLockTimeoutException("Too many concurrent bookings for " + what + ", please retry");
+		}
+	}
+
+	int stripe(DoctorDay day) {
+		long h = day.doctorId() * 0x9E3779B97F4A7C15L + day.date().toEpochDay();
+		h ^= h >>> 32;
+		h ^= h >>> 16;
+		return (int) h & (stripes.length - 1);
+	}
+}
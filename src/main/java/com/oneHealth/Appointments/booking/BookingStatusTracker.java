@@ -0,0 +1,147 @@
+package com.oneHealth.Appointments.booking;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.oneHealth.Appointments.DTO.BookingStatusDTO;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.notification.NotificationOutboxService;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+import com.oneHealth.Appointments.routing.ReadRoute;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Reports the status of bookings accepted asynchronously, and lets clients
+ * long-poll for it.
+ * <p>
+ * The status is derived from the outbox rows of the booking's notification:
+ * PROCESSING while the row still awaits enrichment, REJECTED once the booking
+ * was dropped for an unknown profile, NOTIFICATION_FAILED once it failed,
+ * CONFIRMED otherwise. A client waiting on a booking still in
+ * progress gets a {@link DeferredResult}, so no request thread is held while
+ * it waits; it completes as soon as this node finishes the booking, or with
+ * the current status once the wait (at most {@code booking.status.max-wait})
+ * runs out. Bookings finished by another replica are therefore reported at
+ * the end of the wait at the latest.
+ * <p>
+ * The number of bookings being waited on is published as the
+ * "booking.status.waiting" gauge.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class BookingStatusTracker {
+
+	@Autowired
+	private AppointmentRepository appointmentRepo;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${booking.status.max-wait:PT30S}")
+	private Duration maxWait;
+
+	private final Map<Long, Set<DeferredResult<ResponseEntity<BookingStatusDTO>>>> waiters = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void init() {
+		meterRegistry.gauge("booking.status.waiting", waiters, Map::size);
+	}
+
+	/**
+	 * The current status of a booking, read from the primary: it is asked for
+	 * right after the booking was written.
+	 *
+	 * @param appointmentId The ID of the booked appointment.
+	 * @return The status, or empty if there is no such appointment.
+	 */
+	public Optional<BookingStatusDTO> status(long appointmentId) {
+		List<NotificationOutbox> rows = outboxRepo.findByAppointmentIdAndPath(appointmentId,
+				NotificationOutboxService.APPOINTMENT_EMAIL);
+		// A rejected booking's appointment is gone, its outbox row tells why
+		if (rows.stream().anyMatch(row -> NotificationOutbox.STATUS_REJECTED.equals(row.getStatus()))) {
+			return Optional.of(new BookingStatusDTO(appointmentId, BookingStatusDTO.REJECTED));
+		}
+		if (!ReadRoute.onPrimary(() -> appointmentRepo.existsById(appointmentId))) {
+			return Optional.empty();
+		}
+		String status = BookingStatusDTO.CONFIRMED;
+		if (rows.stream().anyMatch(row -> NotificationOutbox.STATUS_ENRICH.equals(row.getStatus()))) {
+			status = BookingStatusDTO.PROCESSING;
+		} else if (rows.stream().anyMatch(row -> NotificationOutbox.STATUS_FAILED.equals(row.getStatus()))) {
+			status = BookingStatusDTO.NOTIFICATION_FAILED;
+		}
+		return Optional.of(new BookingStatusDTO(appointmentId, status));
+	}
+
+	/**
+	 * Answers with the status of a booking once it is no longer PROCESSING, or
+	 * once the wait runs out.
+	 *
+	 * @param appointmentId The ID of the booked appointment.
+	 * @param wait          How long to wait at most; zero answers right away.
+	 * @return The pending response: 200 with the status, or 404.
+	 */
+	public DeferredResult<ResponseEntity<BookingStatusDTO>> await(long appointmentId, Duration wait) {
+		Duration timeout = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+		DeferredResult<ResponseEntity<BookingStatusDTO>> result = new DeferredResult<>(
+				Math.max(1, timeout.toMillis()));
+		Optional<BookingStatusDTO> current = status(appointmentId);
+		if (current.isEmpty() || !isProcessing(current.get()) || timeout.toMillis() <= 0) {
+			result.setResult(toResponse(current));
+			return result;
+		}
+
+		result.onTimeout(() -> result.setResult(toResponse(status(appointmentId))));
+		result.onCompletion(() -> waiters.computeIfPresent(appointmentId, (id, waiting) -> {
+			waiting.remove(result);
+			return waiting.isEmpty() ? null : waiting;
+		}));
+		waiters.computeIfAbsent(appointmentId, id -> ConcurrentHashMap.newKeySet()).add(result);
+
+		// The booking may have been finished while the waiter was registered
+		if (!isProcessing(status(appointmentId).orElse(null))) {
+			changed(appointmentId);
+		}
+		return result;
+	}
+
+	/**
+	 * Wakes up the clients waiting on a booking whose status has changed.
+	 *
+	 * @param appointmentId The ID of the booked appointment.
+	 */
+	public void changed(long appointmentId) {
+		Set<DeferredResult<ResponseEntity<BookingStatusDTO>>> waiting = waiters.remove(appointmentId);
+		if (waiting == null) {
+			return;
+		}
+		ResponseEntity<BookingStatusDTO> response = toResponse(status(appointmentId));
+		waiting.forEach(result -> result.setResult(response));
+	}
+
+	private static boolean isProcessing(BookingStatusDTO status) {
+		return status != null && BookingStatusDTO.PROCESSING.equals(status.getStatus());
+	}
+
+	private static ResponseEntity<BookingStatusDTO> toResponse(Optional<BookingStatusDTO> status) {
+		return status.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+	}
+}
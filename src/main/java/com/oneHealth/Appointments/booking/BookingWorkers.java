@@ -0,0 +1,86 @@
+package com.oneHealth.Appointments.booking;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.oneHealth.Appointments.notification.BookingEnricher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Finishes bookings accepted asynchronously: loads the profiles and queues the
+ * notification, off the request thread.
+ * <p>
+ * The pool has {@code booking.async.workers} threads and queues at most
+ * {@code booking.async.queue-capacity} bookings. A booking that does not fit,
+ * or is still queued at shutdown, is not lost: its notification is stored
+ * with status ENRICH and the {@link BookingEnricher} poll picks it up.
+ * <p>
+ * Metrics: the "booking.async" counter tagged with result=queued|deferred,
+ * and the "booking.async.queue" gauge.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class BookingWorkers {
+	private static final Logger LOGGER = Logger.getLogger(BookingWorkers.class.getName());
+
+	@Autowired
+	private BookingEnricher enricher;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${booking.async.workers:8}")
+	private int workers;
+
+	@Value("${booking.async.queue-capacity:1000}")
+	private int queueCapacity;
+
+	private ThreadPoolExecutor executor;
+
+	@PostConstruct
+	void init() {
+		executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("booking-worker-"));
+		executor.allowCoreThreadTimeOut(true);
+		meterRegistry.gauge("booking.async.queue", executor, pool -> pool.getQueue().size());
+	}
+
+	@PreDestroy
+	void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Hands an accepted booking to the workers.
+	 *
+	 * @param appointmentId The ID of the accepted appointment.
+	 */
+	public void complete(long appointmentId) {
+		try {
+			executor.execute(() -> enricher.enrichBooking(appointmentId));
+			count("queued");
+		} catch (RejectedExecutionException e) {
+			LOGGER.warning("Booking workers saturated, leaving appointment " + appointmentId
+					+ " to the enrichment poll");
+			count("deferred");
+		}
+	}
+
+	private void count(String result) {
+		Counter.builder("booking.async").tag("result", result).register(meterRegistry).increment();
+	}
+}
@@ -0,0 +1,13 @@
+package com.oneHealth.Appointments.booking;
+
+import java.time.LocalDate;
+
+/**
+ * One doctor on one day, the unit that slot occupancy and booking locks are
+ * kept per.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public record DoctorDay(long doctorId, LocalDate date) {
+}
@@ -0,0 +1,87 @@
+package com.oneHealth.Appointments.booking;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Slot occupancy of one doctor on one day, kept as a bitset with one bit per
+ * minute of the day (1440 bits, 23 longs). Reserving and releasing a minute are
+ * single compare-and-set operations, so concurrent bookings of the same minute
+ * can never both succeed.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class DoctorDaySlots {
+
+	public static final int MINUTES_PER_DAY = 24 * 60;
+
+	private final AtomicLongArray bits = new AtomicLongArray((MINUTES_PER_DAY + 63) / 64);
+
+	/**
+	 * Converts an appointment time to its minute of the day.
+	 */
+	public static int minuteOf(Time time) {
+		return time.toLocalTime().toSecondOfDay() / 60;
+	}
+
+	/**
+	 * Marks the minute as booked if it is free.
+	 *
+	 * @return true if this call booked the minute, false if it was already booked.
+	 */
+	public boolean tryReserve(int minute) {
+		int word = minute >>> 6;
+		long mask = 1L << (minute & 63);
+		while (true) {
+			long current = bits.get(word);
+			if ((current & mask) != 0) {
+				return false;
+			}
+			if (bits.compareAndSet(word, current, current | mask)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Marks the minute as booked whether or not it already was.
+	 */
+	public void markReserved(int minute) {
+		int word = minute >>> 6;
+		long mask = 1L << (minute & 63);
+		bits.getAndAccumulate(word, mask, (current, m) -> current | m);
+	}
+
+	/**
+	 * Marks the minute as free.
+	 */
+	public void release(int minute) {
+		int word = minute >>> 6;
+		long mask = ~(1L << (minute & 63));
+		bits.getAndAccumulate(word, mask, (current, m) -> current & m);
+	}
+
+	public boolean isReserved(int minute) {
+		return (bits.get(minute >>> 6) & (1L << (minute & 63))) != 0;
+	}
+
+	/**
+	 * Lists the booked minutes as appointment times, earliest first.
+	 */
+	public List<Time> reservedTimes() {
+		List<Time> times = new ArrayList<>();
+		for (int word = 0; word < bits.length(); word++) {
+			long value = bits.get(word);
+			while (value != 0) {
+				int minute = (word << 6) + Long.numberOfTrailingZeros(value);
+				times.add(Time.valueOf(LocalTime.ofSecondOfDay(minute * 60L)));
+				value &= value - 1;
+			}
+		}
+		return times;
+	}
+}
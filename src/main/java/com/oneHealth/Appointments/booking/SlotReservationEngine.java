@@ -0,0 +1,109 @@
+package com.oneHealth.Appointments.booking;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.oneHealth.Appointments.exception.DuplicateAppointmentException;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Answers slot conflict checks from memory.
+ * <p>
+ * The booked minutes of each doctor-day are loaded lazily from the database
+ * into a {@link DoctorDaySlots} bitset the first time the day is touched, and
+ * bookings reserve their minute with an atomic compare-and-set before anything
+ * is written. A loaded day is trusted for {@code slots.reload-after} and then
+ * reloaded, which bounds how long a booking made by another replica can go
+ * unseen here. The unique (doctorId, date, appointmentTime) constraint on the
+ * appointment table stays the final arbiter: when an insert loses against
+ * another replica the minute is simply marked as booked.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class SlotReservationEngine {
+	private static final Logger LOGGER = Logger.getLogger(SlotReservationEngine.class.getName());
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${slots.reload-after:PT1M}")
+	private Duration reloadAfter;
+
+	@Value("${slots.maximum-doctor-days:20000}")
+	private long maximumDoctorDays;
+
+	private LoadingCache<DoctorDay, DoctorDaySlots> days;
+
+	@PostConstruct
+	void init() {
+		days = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder().maximumSize(maximumDoctorDays)
+				.expireAfterWrite(reloadAfter).recordStats().build(this::load), "slotOccupancy");
+	}
+
+	/**
+	 * Reserves the slot for a booking.
+	 *
+	 * @throws DuplicateAppointmentException If the slot is already booked.
+	 */
+	public void reserve(long doctorId, Date date, Time time) throws DuplicateAppointmentException {
+		if (!days.get(new DoctorDay(doctorId, date.toLocalDate())).tryReserve(DoctorDaySlots.minuteOf(time))) {
+			throw new DuplicateAppointmentException("Duplicate appointment found");
+		}
+	}
+
+	/**
+	 * Frees a slot, e.g. after a failed booking, a cancellation or a reschedule.
+	 */
+	public void release(long doctorId, Date date, Time time) {
+		DoctorDaySlots slots = days.getIfPresent(new DoctorDay(doctorId, date.toLocalDate()));
+		if (slots != null) {
+			slots.release(DoctorDaySlots.minuteOf(time));
+		}
+	}
+
+	/**
+	 * Records a slot that is known to be booked in the database, e.g. after a
+	 * plan finds it taken through another replica.
+	 */
+	public void markBooked(long doctorId, Date date, Time time) {
+		DoctorDaySlots slots = days.getIfPresent(new DoctorDay(doctorId, date.toLocalDate()));
+		if (slots != null) {
+			slots.markReserved(DoctorDaySlots.minuteOf(time));
+		}
+	}
+
+	public boolean isBooked(long doctorId, Date date, Time time) {
+		return days.get(new DoctorDay(doctorId, date.toLocalDate())).isReserved(DoctorDaySlots.minuteOf(time));
+	}
+
+	private DoctorDaySlots load(DoctorDay key) {
+		DoctorDaySlots slots = new DoctorDaySlots();
+		List<Time> times = repo.findAppointmentTimesByDoctorIdAndDate(key.doctorId(), Date.valueOf(key.date()));
+		for (Time time : times) {
+			if (time != null) {
+				slots.markReserved(DoctorDaySlots.minuteOf(time));
+			}
+		}
+		LOGGER.fine("Loaded " + times.size() + " booked slots for " + key);
+		return slots;
+	}
+}
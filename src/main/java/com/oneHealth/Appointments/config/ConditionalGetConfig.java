@@ -0,0 +1,28 @@
+package com.oneHealth.Appointments.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.oneHealth.Appointments.schedule.ConditionalGetInterceptor;
+
+/**
+ * Registers the {@link ConditionalGetInterceptor} for the appointment API,
+ * except for the change streams.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Configuration
+public class ConditionalGetConfig implements WebMvcConfigurer {
+
+	@Autowired
+	private ConditionalGetInterceptor conditionalGets;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(conditionalGets).addPathPatterns("/api/doctors/appointment/**")
+				.excludePathPatterns("/api/doctors/appointment/events/**");
+	}
+}
@@ -0,0 +1,106 @@
+package com.oneHealth.Appointments.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Virtual-thread execution mode, enabled with {@code execution.mode=virtual}
+ * (Java 21 or later; the default, {@code platform}, keeps Tomcat's thread
+ * pool). Requests are then served on a new virtual thread each, so the
+ * blocking JPA calls and gateway lookups park cheaply instead of holding one
+ * of the {@code server.tomcat.threads.max} platform threads.
+ * <p>
+ * Safeguards:
+ * <ul>
+ * <li>The thread pool no longer limits how much work runs at once, so at most
+ * {@code execution.virtual.max-concurrent-requests} requests are served
+ * concurrently; others wait up to {@code execution.virtual.admission-timeout}
+ * and are then answered with 503, instead of all queueing on the JDBC
+ * connection pool. Rejections are counted by "execution.virtual.rejected".</li>
+ * <li>Pinned carrier threads are reported by the {@link PinnedThreadMonitor}.
+ * The booking path itself only uses {@code java.util.concurrent} locks, and
+ * the PostgreSQL driver (42.6+), HikariCP and Logback's appenders do not
+ * block inside {@code synchronized}.</li>
+ * </ul>
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+public class ExecutionModeConfig {
+	private static final Logger LOGGER = Logger.getLogger(ExecutionModeConfig.class.getName());
+
+	@Bean
+	TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+		// Not a bean of its own, so it does not replace the application task executor
+		ExecutorService executor = VirtualThreads.newExecutor("http-virtual-");
+		LOGGER.info("Serving requests on virtual threads");
+		return protocolHandler -> protocolHandler.setExecutor(executor);
+	}
+
+	@Bean(destroyMethod = "close")
+	PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+			@Value("${execution.virtual.pinned-threshold:PT0.02S}") Duration threshold) {
+		return new PinnedThreadMonitor(threshold, meterRegistry);
+	}
+
+	@Bean
+	FilterRegistrationBean<OncePerRequestFilter> admissionFilter(MeterRegistry meterRegistry,
+			@Value("${execution.virtual.max-concurrent-requests:1000}") int maxConcurrentRequests,
+			@Value("${execution.virtual.admission-timeout:PT1S}") Duration admissionTimeout) {
+		Semaphore permits = new Semaphore(maxConcurrentRequests, true);
+		Counter rejected = Counter.builder("execution.virtual.rejected").register(meterRegistry);
+		Gauge.builder("execution.virtual.active", permits, p -> maxConcurrentRequests - p.availablePermits())
+				.register(meterRegistry);
+
+		OncePerRequestFilter filter = new OncePerRequestFilter() {
+			@Override
+			protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+					FilterChain chain) throws ServletException, IOException {
+				boolean admitted;
+				try {
+					admitted = permits.tryAcquire(admissionTimeout.toNanos(), TimeUnit.NANOSECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					admitted = false;
+				}
+				if (!admitted) {
+					rejected.increment();
+					response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+					return;
+				}
+				try {
+					chain.doFilter(request, response);
+				} finally {
+					permits.release();
+				}
+			}
+		};
+		FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
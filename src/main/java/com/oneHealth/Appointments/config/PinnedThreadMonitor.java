@@ -0,0 +1,61 @@
+package com.oneHealth.Appointments.config;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Watches for virtual threads that stay pinned to their carrier thread, i.e.
+ * block inside a {@code synchronized} block or a native call, which takes a
+ * carrier away from all other virtual threads. Pins longer than the threshold
+ * are reported by the JVM's flight recorder; each one is counted by
+ * "threads.virtual.pinned" and logged with the top of its stack, so that a
+ * library that pins in the JDBC or logging path shows up in production
+ * before it starves the carriers.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class PinnedThreadMonitor implements AutoCloseable {
+	private static final Logger LOGGER = Logger.getLogger(PinnedThreadMonitor.class.getName());
+
+	private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	private final RecordingStream stream;
+
+	public PinnedThreadMonitor(Duration threshold, MeterRegistry meterRegistry) {
+		Counter pinned = Counter.builder("threads.virtual.pinned").register(meterRegistry);
+		stream = new RecordingStream();
+		stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+		stream.onEvent(PINNED_EVENT, event -> {
+			pinned.increment();
+			LOGGER.warning("Virtual thread pinned for " + event.getDuration().toMillis() + " ms at " + top(event));
+		});
+		stream.startAsync();
+		LOGGER.info("Reporting virtual threads pinned for longer than " + threshold);
+	}
+
+	private static String top(RecordedEvent event) {
+		if (event.getStackTrace() == null) {
+			return "unknown";
+		}
+		return event.getStackTrace().getFrames().stream().limit(8).map(PinnedThreadMonitor::frame)
+				.collect(Collectors.joining(" <- "));
+	}
+
+	private static String frame(RecordedFrame frame) {
+		return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+				+ frame.getLineNumber();
+	}
+
+	@Override
+	public void close() {
+		stream.close();
+	}
+}
@@ -0,0 +1,79 @@
+package com.oneHealth.Appointments.config;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The R2DBC connection pool behind the reactive read endpoints, opened on the
+ * same database as the JPA data source ({@code reactive.datasource.*}).
+ * <p>
+ * The pool (a ConnectionFactory) is deliberately not a bean: Spring Boot
+ * backs off its JDBC data source, and with it JPA, as soon as one exists. Only
+ * the {@link DatabaseClient} is a bean, and the JPA transaction manager stays
+ * the only one.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Configuration
+public class ReactiveReadConfig {
+	private static final Logger LOGGER = Logger.getLogger(ReactiveReadConfig.class.getName());
+
+	@Value("${reactive.datasource.url}")
+	private String url;
+
+	@Value("${reactive.datasource.username:}")
+	private String username;
+
+	@Value("${reactive.datasource.password:}")
+	private String password;
+
+	@Value("${reactive.datasource.pool.initial-size:5}")
+	private int initialSize;
+
+	@Value("${reactive.datasource.pool.max-size:20}")
+	private int maxSize;
+
+	@Value("${reactive.datasource.pool.max-idle-time:PT30M}")
+	private Duration maxIdleTime;
+
+	@Value("${reactive.datasource.pool.max-acquire-time:PT2S}")
+	private Duration maxAcquireTime;
+
+	private ConnectionPool pool;
+
+	@Bean
+	DatabaseClient reactiveDatabaseClient() {
+		ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+		if (!username.isEmpty()) {
+			options.option(ConnectionFactoryOptions.USER, username);
+		}
+		if (!password.isEmpty()) {
+			options.option(ConnectionFactoryOptions.PASSWORD, password);
+		}
+		ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+				.builder(ConnectionFactories.get(options.build())).name("reactive-reads").initialSize(initialSize)
+				.maxSize(maxSize).maxIdleTime(maxIdleTime).maxAcquireTime(maxAcquireTime).build();
+		LOGGER.info("Reactive read pool: " + initialSize + " to " + maxSize + " connections");
+		pool = new ConnectionPool(configuration);
+		return DatabaseClient.create(pool);
+	}
+
+	@PreDestroy
+	void close() {
+		if (pool != null) {
+			pool.dispose();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.oneHealth.Appointments.config;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.oneHealth.Appointments.routing.ReadWriteRoutingDataSource;
+import com.oneHealth.Appointments.routing.ReadYourWritesInterceptor;
+import com.oneHealth.Appointments.routing.ReplicaLagProbe;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Splits reads from writes once a read replica is configured
+ * ({@code replica.datasource.*}); without one the application keeps the
+ * single data source Spring Boot builds from {@code spring.datasource.*}.
+ * <p>
+ * The data source JPA, Flyway and the JDBC templates see routes read-only
+ * transactions to the replica pool and everything else to the primary pool
+ * ({@link ReadWriteRoutingDataSource}). Migrations and Hibernate's start-up
+ * checks run outside transactions and so always reach the primary. Both pools
+ * publish the "hikaricp.*" meters, tagged with pool=primary|replica.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty("replica.datasource.url")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+	private static final Logger LOGGER = Logger.getLogger(ReplicaRoutingConfig.class.getName());
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ReadYourWritesInterceptor readYourWrites;
+
+	@Value("${replica.datasource.url}")
+	private String url;
+
+	@Value("${replica.datasource.username:}")
+	private String username;
+
+	@Value("${replica.datasource.password:}")
+	private String password;
+
+	@Value("${replica.datasource.driver-class-name:}")
+	private String driverClassName;
+
+	@Value("${replica.datasource.maximum-pool-size:10}")
+	private int replicaPoolSize;
+
+	@Value("${replica.primary.maximum-pool-size:10}")
+	private int primaryPoolSize;
+
+	@Value("${replica.max-lag:PT2S}")
+	private Duration maxLag;
+
+	private HikariDataSource primaryPool;
+
+	private HikariDataSource replicaPool;
+
+	@Bean
+	ReplicaLagProbe replicaLagProbe(DataSourceProperties primaryProperties) {
+		primaryPool = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primaryPool.setPoolName("primary");
+		primaryPool.setMaximumPoolSize(primaryPoolSize);
+		primaryPool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+		DataSourceBuilder<HikariDataSource> replica = DataSourceBuilder.create().type(HikariDataSource.class).url(url)
+				.username(username).password(password);
+		if (!driverClassName.isEmpty()) {
+			replica.driverClassName(driverClassName);
+		}
+		replicaPool = replica.build();
+		replicaPool.setPoolName("replica");
+		replicaPool.setMaximumPoolSize(replicaPoolSize);
+		replicaPool.setReadOnly(true);
+		replicaPool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+		LOGGER.info("Read-only transactions go to the replica while it is at most " + maxLag + " behind");
+		return new ReplicaLagProbe(primaryPool, replicaPool, maxLag, meterRegistry);
+	}
+
+	@Bean
+	@Primary
+	DataSource dataSource(ReplicaLagProbe replicaLagProbe) {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryPool, replicaPool,
+				replicaLagProbe::replicaUsable, meterRegistry);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(readYourWrites).order(Ordered.HIGHEST_PRECEDENCE);
+	}
+
+	@PreDestroy
+	void close() {
+		if (replicaPool != null) {
+			replicaPool.close();
+		}
+		if (primaryPool != null) {
+			primaryPool.close();
+		}
+	}
+}
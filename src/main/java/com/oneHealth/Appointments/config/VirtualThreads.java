@@ -0,0 +1,53 @@
+package com.oneHealth.Appointments.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual-thread executors through reflection, so that the
+ * application still builds and runs on Java 17, where virtual threads do not
+ * exist, and only {@code execution.mode=virtual} requires Java 21.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Tells whether the running JVM supports virtual threads.
+	 */
+	public static boolean available() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates an executor that runs every task on a new virtual thread.
+	 *
+	 * @param namePrefix The prefix of the thread names, followed by a counter.
+	 * @return The executor.
+	 * @throws IllegalStateException If the JVM does not support virtual threads.
+	 */
+	public static ExecutorService newExecutor(String namePrefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+			ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) perTask.invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Virtual threads need Java 21 or later, running on Java "
+					+ Runtime.version().feature(), e);
+		}
+	}
+}
@@ -1,26 +1,48 @@
 package com.oneHealth.Appointments.controller;
 
+import java.net.URI;
 import java.sql.Date;
+import java.sql.SQLException;
 import java.sql.Time;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oneHealth.Appointments.DTO.BookingStatusDTO;
+import com.oneHealth.Appointments.DTO.DoctorSummaryDTO;
+import com.oneHealth.Appointments.booking.BookingStatusTracker;
 import com.oneHealth.Appointments.entity.Appointment;
 import com.oneHealth.Appointments.exception.AppointmentNotFoundException;
+import com.oneHealth.Appointments.exception.BookingLockTimeoutException;
+import com.oneHealth.Appointments.exception.DeadlineExceededException;
+import com.oneHealth.Appointments.exception.DuplicateAppointmentException;
+import com.oneHealth.Appointments.exception.GatewayUnavailableException;
 import com.oneHealth.Appointments.exception.DatabaseException;
 import com.oneHealth.Appointments.exception.RecordNotFoundException;
+import com.oneHealth.Appointments.idempotency.IdempotencyStore;
+import com.oneHealth.Appointments.repository.AppointmentFilter;
+import com.oneHealth.Appointments.repository.AppointmentWindow;
 import com.oneHealth.Appointments.service.AppointmentService;
+import com.oneHealth.Appointments.serviceImplementation.AppointmentExporter;
 import java.util.HashMap;
 
 /**
@@ -39,29 +61,168 @@ public class AppointmentController {
 	@Autowired
 	private AppointmentService service;
 
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookingStatusTracker bookingStatus;
+
+	@Autowired
+	private AppointmentExporter exporter;
+
+	@Value("${booking.mode:sync}")
+	private String bookingMode;
+
 	/**
-	 * Saves the details of a new appointment.
+	 * Saves the details of a new appointment. Clients may send an Idempotency-Key
+	 * header; a retry with the same key gets the original response back without
+	 * booking again.
+	 * <p>
+	 * In async booking mode ({@code booking.mode=async}), or when the client sends
+	 * {@code Prefer: respond-async}, only the slot is reserved and saved before
+	 * answering 202 Accepted; the Location header points to the booking status,
+	 * which turns CONFIRMED once the profiles are loaded and the notification is
+	 * queued.
+	 * <p>
+	 * A taken slot is answered with 409, an incomplete booking with 400 and an
+	 * unknown patient or doctor with 422; unexpected failures are 5xx and are
+	 * not replayed to retries.
 	 *
-	 * @param appointment The Appointment object containing the details to be saved.
+	 * @param appointment    The Appointment object containing the details to be saved.
+	 * @param idempotencyKey The optional Idempotency-Key header.
+	 * @param prefer         The optional Prefer header.
 	 * @return ResponseEntity<String> A response indicating the success of the
 	 *         operation.
 	 * @throws Exception
 	 */
 	@PostMapping("/saveappointment")
-	public ResponseEntity<String> saveAppointmentDetails(@RequestBody Appointment appointment) {
+	public ResponseEntity<String> saveAppointmentDetails(@RequestBody Appointment appointment,
+			@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+			@RequestHeader(value = "Prefer", required = false) String prefer) {
 		LOGGER.info("In Controller - Saving appointment details: " + appointment);
-		try {
-			service.saveDoctorAppointment(appointment);
-		} catch (Exception e) {
+		boolean async = "async".equalsIgnoreCase(bookingMode) || (prefer != null && prefer.contains("respond-async"));
+		return idempotencyStore.execute("saveappointment", idempotencyKey, toJson(appointment), () -> {
+			try {
+				if (async) {
+					// Only the slot is taken here; enrichment and notification follow in the background
+					Appointment accepted = service.acceptAppointment(appointment);
+					return ResponseEntity.accepted().location(bookingStatusUrl(accepted.getAppointment_id()))
+							.body("Appointment Accepted");
+				}
+				// One pass: profiles are loaded once and one notification reaches both parties
+				service.bookAppointment(appointment);
+			} catch (Exception e) {
+				return bookingFailed(e);
+			}
+
+			return new ResponseEntity<>("Appointment Saved Successfully", HttpStatus.CREATED);
+		});
+	}
+
+	/**
+	 * Retrieves the status of a booking: PROCESSING, CONFIRMED,
+	 * NOTIFICATION_FAILED or REJECTED (the patient or doctor does not exist, so
+	 * the booking was removed). With waitMs, a booking still PROCESSING is waited on
+	 * (long polling) until its status changes or the wait runs out, without
+	 * holding a request thread.
+	 *
+	 * @param appointmentId The ID of the booked appointment.
+	 * @param waitMs        How long to wait for a PROCESSING booking, in
+	 *                      milliseconds; 0 answers right away.
+	 * @return DeferredResult<ResponseEntity<BookingStatusDTO>> The status, or 404
+	 *         if there is no such appointment.
+	 */
+	@GetMapping("/booking-status/{appointmentId}")
+	public DeferredResult<ResponseEntity<BookingStatusDTO>> getBookingStatus(@PathVariable long appointmentId,
+			@RequestParam(value = "waitMs", defaultValue = "0") long waitMs) {
+		return bookingStatus.await(appointmentId, Duration.ofMillis(Math.max(0, waitMs)));
+	}
+
+	private URI bookingStatusUrl(long appointmentId) {
+		return ServletUriComponentsBuilder.fromCurrentContextPath()
+				.path("/api/doctors/appointment/booking-status/{appointmentId}").buildAndExpand(appointmentId).toUri();
+	}
+
+	/**
+	 * Saves several appointments of one patient together, e.g. the sessions of a
+	 * treatment plan. Either all of them are booked or none is. Clients may send
+	 * an Idempotency-Key header, as for single bookings.
+	 *
+	 * @param appointments   The appointments to be saved.
+	 * @param idempotencyKey The optional Idempotency-Key header.
+	 * @return ResponseEntity<String> A response indicating the success of the
+	 *         operation.
+	 */
+	@PostMapping("/saveappointments")
+	public ResponseEntity<String> saveAppointmentPlan(@RequestBody List<Appointment> appointments,
+			@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+		LOGGER.info("In Controller - Saving plan of " + appointments.size() + " appointments: " + appointments);
+		return idempotencyStore.execute("saveappointments", idempotencyKey, toJson(appointments), () -> {
+			try {
+				service.bookAppointments(appointments);
+			} catch (Exception e) {
+				return bookingFailed(e);
+			}
+
+			return new ResponseEntity<>("Appointments Saved Successfully", HttpStatus.CREATED);
+		});
+	}
+
+	/**
+	 * Maps a failed booking to its response. Only a taken slot is a conflict;
+	 * invalid bookings are 400 and bookings of unknown profiles 422. Anything
+	 * unexpected is a server error, which the {@link IdempotencyStore} does not
+	 * remember, so a retry with the same key runs again.
+	 */
+	private ResponseEntity<String> bookingFailed(Exception e) {
+		if (e instanceof DuplicateAppointmentException || isUniqueViolation(e)) {
 			return new ResponseEntity<>("Appointment Slot Already Booked", HttpStatus.CONFLICT);
 		}
-		try {
-			service.savePatientAppointment(appointment);
-		} catch (Exception e) {
-			return new ResponseEntity<>("Appointment Slot Already Booked", HttpStatus.CONFLICT);
+		if (e instanceof IllegalArgumentException) {
+			return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+		}
+		if (e instanceof RecordNotFoundException) {
+			return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+		if (e instanceof BookingLockTimeoutException) {
+			return new ResponseEntity<>("Too Many Concurrent Bookings, Please Retry", HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		if (e instanceof DeadlineExceededException) {
+			return new ResponseEntity<>("Request Deadline Exceeded", HttpStatus.GATEWAY_TIMEOUT);
+		}
+		if (e instanceof GatewayUnavailableException) {
+			return new ResponseEntity<>("Profile Service Unavailable, Please Retry", HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		LOGGER.log(Level.SEVERE, "In Controller - Booking failed", e);
+		return new ResponseEntity<>("An error occurred while processing your request.",
+				HttpStatus.INTERNAL_SERVER_ERROR);
+	}
+
+	/**
+	 * Whether the failure is a unique key violation (SQLSTATE 23505), i.e. the
+	 * slot was taken by an insert the service did not recognise as a duplicate.
+	 */
+	private static boolean isUniqueViolation(Exception e) {
+		if (!(e instanceof DataIntegrityViolationException)) {
+			return false;
+		}
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException sql && "23505".equals(sql.getSQLState())) {
+				return true;
+			}
 		}
+		return false;
+	}
 
-		return new ResponseEntity<>("Appointment Saved Successfully", HttpStatus.CREATED);
+	private String toJson(Object body) {
+		try {
+			return objectMapper.writeValueAsString(body);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Request body cannot be serialised: " + body, e);
+		}
 	}
 
 	
@@ -121,12 +282,20 @@ public class AppointmentController {
 
 
 	
+	/**
+	 * Retrieves the first appointments, at most {@code appointments.list.max-size}.
+	 * Superseded by {@code /appointments}, which pages through all of them; the
+	 * Link header points there.
+	 *
+	 * @return ResponseEntity<List<Appointment>> The appointments.
+	 */
 	@GetMapping("/getAllAppointments")
 	public ResponseEntity<List<Appointment>> getAllAppointments() {
 	    try {
-	        List<Appointment> appointmentList = service.getAllAppointments(); // Replace 'Appointment' with your actual appointment entity class
-	        LOGGER.info("In Controller - All Appointments Retrieved: " + appointmentList);
-	        return new ResponseEntity<>(appointmentList, HttpStatus.OK);
+	        List<Appointment> appointmentList = service.getAllAppointments();
+	        LOGGER.info("In Controller - All Appointments Retrieved: " + appointmentList.size());
+	        return ResponseEntity.ok().header("Link", "</api/doctors/appointment/appointments>; rel=\"successor-version\"")
+	                .body(appointmentList);
 	    } catch (DatabaseException ex) {
 	        // Handle DatabaseException here
 	    	LOGGER.info("Database error: " + ex.getMessage());
@@ -139,6 +308,94 @@ public class AppointmentController {
 	}
 
 
+	/**
+	 * Lists appointments one page at a time, in (date, time, ID) order, with
+	 * optional filters; appointments without a date or time come last. Pass the nextCursor of a page as cursor to get the next
+	 * one; it is null on the last page.
+	 *
+	 * @param doctorId  Only appointments with this doctor.
+	 * @param patientId Only appointments of this patient.
+	 * @param status    Only appointments with this status.
+	 * @param type      Only appointments of this type.
+	 * @param from      Only appointments on or after this date.
+	 * @param to        Only appointments on or before this date.
+	 * @param cursor    The nextCursor of the previous page.
+	 * @param limit     The page size, up to {@code appointments.page.max-size}.
+	 * @return ResponseEntity<?> The page, or 400 for a bad cursor or page size.
+	 */
+	@GetMapping("/appointments")
+	public ResponseEntity<?> getAppointments(@RequestParam(required = false) Long doctorId,
+			@RequestParam(required = false) Long patientId, @RequestParam(required = false) String status,
+			@RequestParam(required = false) String type,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+		try {
+			AppointmentFilter filter = new AppointmentFilter(doctorId, patientId, status, type, from, to);
+			return ResponseEntity.ok(service.getAppointmentPage(filter, cursor, limit));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Exports appointments as NDJSON, one JSON object per line in ID order, with
+	 * the same optional filters as {@code /appointments}. The rows are streamed
+	 * from the database as they are read; clients sending
+	 * {@code Accept-Encoding: gzip} get the stream gzip-compressed. A failure
+	 * mid-way cuts the stream short.
+	 *
+	 * @param doctorId       Only appointments with this doctor.
+	 * @param patientId      Only appointments of this patient.
+	 * @param status         Only appointments with this status.
+	 * @param type           Only appointments of this type.
+	 * @param from           Only appointments on or after this date.
+	 * @param to             Only appointments on or before this date.
+	 * @param acceptEncoding The optional Accept-Encoding header.
+	 * @return ResponseEntity<StreamingResponseBody> The export.
+	 */
+	@GetMapping(value = "/export", produces = "application/x-ndjson")
+	public ResponseEntity<StreamingResponseBody> exportAppointments(@RequestParam(required = false) Long doctorId,
+			@RequestParam(required = false) Long patientId, @RequestParam(required = false) String status,
+			@RequestParam(required = false) String type,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+		AppointmentFilter filter = new AppointmentFilter(doctorId, patientId, status, type, from, to);
+		boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+		LOGGER.info("In Controller - Exporting appointments: " + filter + (gzip ? " (gzip)" : ""));
+		StreamingResponseBody body = out -> {
+			if (gzip) {
+				GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024, true);
+				exporter.export(filter, compressed);
+				compressed.finish();
+			} else {
+				exporter.export(filter, out);
+			}
+		};
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().header("Vary", "Accept-Encoding");
+		if (gzip) {
+			response.header("Content-Encoding", "gzip");
+		}
+		return response.body(body);
+	}
+
+
+	/**
+	 * Retrieves everything a doctor's dashboard counts in one call: the number of
+	 * appointments per status today, upcoming and overall.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @return ResponseEntity<DoctorSummaryDTO> The counts per status.
+	 */
+	@GetMapping("/doctor/{doctorId}/summary")
+	public ResponseEntity<DoctorSummaryDTO> getDoctorSummary(@PathVariable long doctorId) {
+		LOGGER.info("In Controller - Retrieving dashboard summary for doctor ID: " + doctorId);
+		return ResponseEntity.ok(service.getDoctorSummary(doctorId));
+	}
+
+
 	/**
 	 * Retrieves a list of appointments for a specific doctor with the status
 	 * "Accepted".
@@ -328,6 +585,13 @@ public class AppointmentController {
 	        // Return a ResponseEntity with a custom error message and a 404 Not Found status
 	        return ResponseEntity.status(HttpStatus.NOT_FOUND)
 	                .body("Record not found.");
+	    } catch (DuplicateAppointmentException e) {
+	        LOGGER.info("New slot already booked while updating appointment date and time for ID: " + appointment_id);
+	        return new ResponseEntity<>("Appointment Slot Already Booked", HttpStatus.CONFLICT);
+	    } catch (BookingLockTimeoutException e) {
+	        return new ResponseEntity<>("Too Many Concurrent Bookings, Please Retry", HttpStatus.SERVICE_UNAVAILABLE);
+	    } catch (DeadlineExceededException e) {
+	        return new ResponseEntity<>("Request Deadline Exceeded", HttpStatus.GATEWAY_TIMEOUT);
 	    } catch (Exception e) {
 	        LOGGER.warning("An error occurred while updating appointment date and time for ID: " + appointment_id);
 	        
@@ -571,6 +835,13 @@ public class AppointmentController {
 	        // Return a ResponseEntity with a custom error message and a 404 Not Found status
 	        return ResponseEntity.status(HttpStatus.NOT_FOUND)
 	                .body("Record not found.");
+	    } catch (DuplicateAppointmentException e) {
+	        LOGGER.info("New slot already booked while updating appointment with ID: " + appointmentId);
+	        return new ResponseEntity<>("Appointment Slot Already Booked", HttpStatus.CONFLICT);
+	    } catch (BookingLockTimeoutException e) {
+	        return new ResponseEntity<>("Too Many Concurrent Bookings, Please Retry", HttpStatus.SERVICE_UNAVAILABLE);
+	    } catch (DeadlineExceededException e) {
+	        return new ResponseEntity<>("Request Deadline Exceeded", HttpStatus.GATEWAY_TIMEOUT);
 	    } catch (Exception e) {
 	        LOGGER.info("An error occurred while updating appointment with ID: " + appointmentId);
 	        
@@ -694,14 +965,12 @@ public class AppointmentController {
 
 
 	/**
-	 * Retrieves a list of upcoming appointments for a specific doctor with the
-	 * status "Accepted".
+	 * Retrieves today's and upcoming appointments of a specific patient with the
+	 * status "Accepted", earliest first, in one query.
 	 *
-	 * @param patientId The ID of the doctor for whom to retrieve the appointments.
+	 * @param patientId The ID of the patient for whom to retrieve the appointments.
 	 * @return ResponseEntity<List<Appointment>> A response containing a list of
 	 *         appointments.
-	 * @throws RecordNotFoundException If no appointments are found for the given
-	 *                                 doctor ID.
 	 */
 	@GetMapping("/upcoming-appointments/patient/{patientId}")
 	public ResponseEntity<List<Appointment>> getUpcomingAppointmentsByPatientIdAndStatus(@PathVariable long patientId) {
@@ -709,23 +978,16 @@ public class AppointmentController {
 	    String status = "Accepted";
 	    
 	    try {
-	        List<Appointment> upcomingAppointments = service.getUpcomingAppointmentsByPatientIdAndStatus(patientId, status);
-	        List<Appointment> todayappointments = service.getAppointmentsForTodayByPatientIdAndStatus(patientId, status);
-	        List<Appointment> FinalUpcoming = new ArrayList<>();
-	        FinalUpcoming.addAll(upcomingAppointments);
-	        FinalUpcoming.addAll(todayappointments);
+	        List<Appointment> upcomingAppointments = service
+	                .getAppointmentsInWindow(AppointmentWindow.ofPatient(patientId, status, LocalDate.now(), null));
 
-	        if (FinalUpcoming.isEmpty()) {
+	        if (upcomingAppointments.isEmpty()) {
 	            LOGGER.info("In Controller - No upcoming appointments found for patient ID: " + patientId + " with status 'Accepted'");
 	            return ResponseEntity.noContent().build();
 	        } else {
 	            LOGGER.info("In Controller - Upcoming appointments found for patient ID: " + patientId + " with status 'Accepted': " + upcomingAppointments);
-	            return ResponseEntity.ok(FinalUpcoming);
+	            return ResponseEntity.ok(upcomingAppointments);
 	        }
-	    } catch (RecordNotFoundException e) {
-	        // Handle the specific exception (RecordNotFoundException) appropriately
-	        LOGGER.info("Record not found: " + e.getMessage());
-	        return ResponseEntity.notFound().build(); // Return a 404 Not Found response or handle it based on your application's error handling strategy.
 	    } catch (Exception e) {
 	        // Handle other exceptions
 	        LOGGER.info("An error occurred: " + e.getMessage());
@@ -808,14 +1070,8 @@ public class AppointmentController {
 	@GetMapping("/appointment-times-for-slots")
 	public List<Time> getAppointmentTimes(@RequestParam("doctorId") long doctorId, @RequestParam("date") Date date) {
 	    try {
-	        // Assuming you have a method in your service to fetch appointment times
-	        List<Appointment> appointments = service.getAppointmentTimeForSlots(doctorId, date);
-
-	        // Extract appointment times from the list of appointments
-	        List<Time> appointmentTimes = appointments.stream().map(Appointment::getAppointmentTime)
-	                .collect(Collectors.toList());
-
-	        return appointmentTimes;
+	        // Only the times of the doctor's appointments are loaded
+	        return service.getBookedTimesForSlots(doctorId, date);
 	    } catch (Exception e) {
 	        // Handle the exception appropriately, you can log it or perform other error handling actions.
 	        e.printStackTrace(); // This is just an example, consider using a proper logging framework.
@@ -0,0 +1,72 @@
+package com.oneHealth.Appointments.controller;
+
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.oneHealth.Appointments.DTO.AppointmentChangeDTO;
+import com.oneHealth.Appointments.schedule.AppointmentChangeStream;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Server-Sent Event streams of the committed appointment changes of one
+ * doctor or one patient, for screens that would otherwise poll the listings
+ * of {@link AppointmentController}. Each event is named after the change
+ * (CREATED, STATUS_CHANGED, RESCHEDULED, UPDATED or DELETED) and carries an
+ * {@link AppointmentChangeDTO}. Clients resume after a disconnect with the
+ * {@code Last-Event-ID} header (or the {@code lastEventId} parameter); see
+ * {@link AppointmentChangeStream}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/doctors/appointment/events")
+public class AppointmentEventController {
+
+	private static final Logger LOGGER = Logger.getLogger(AppointmentEventController.class.getName());
+
+	@Autowired
+	private AppointmentChangeStream stream;
+
+	/**
+	 * Streams the appointment changes of a doctor.
+	 *
+	 * @param doctorId    The ID of the doctor.
+	 * @param lastEventId The ID of the last event received before reconnecting.
+	 * @return Flux<ServerSentEvent<AppointmentChangeDTO>> The changes, as they
+	 *         are committed.
+	 */
+	@GetMapping(value = "/doctor/{doctorId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<AppointmentChangeDTO>> streamDoctorChanges(@PathVariable long doctorId,
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+		LOGGER.info("In Event Controller - Subscribing to changes of doctor ID: " + doctorId);
+		return stream.doctor(doctorId, lastEventId != null ? lastEventId : lastEventIdParam);
+	}
+
+	/**
+	 * Streams the appointment changes of a patient.
+	 *
+	 * @param patientId   The ID of the patient.
+	 * @param lastEventId The ID of the last event received before reconnecting.
+	 * @return Flux<ServerSentEvent<AppointmentChangeDTO>> The changes, as they
+	 *         are committed.
+	 */
+	@GetMapping(value = "/patient/{patientId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<AppointmentChangeDTO>> streamPatientChanges(@PathVariable long patientId,
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+		LOGGER.info("In Event Controller - Subscribing to changes of patient ID: " + patientId);
+		return stream.patient(patientId, lastEventId != null ? lastEventId : lastEventIdParam);
+	}
+}
@@ -0,0 +1,131 @@
+package com.oneHealth.Appointments.controller;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.ReactiveAppointmentRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variants of the hot read endpoints of {@link AppointmentController}
+ * (doctor and patient status lists, today's and upcoming appointments, counts
+ * and booked slot times), served from {@link ReactiveAppointmentRepository}.
+ * The request thread is released while the query runs, and the response is
+ * written once the database answers, so dashboards polling these endpoints do
+ * not hold servlet threads or JDBC connections. Empty results are returned as
+ * empty lists.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/doctors/appointment/reactive")
+public class ReactiveAppointmentController {
+
+	private static final Logger LOGGER = Logger.getLogger(ReactiveAppointmentController.class.getName());
+
+	private static final String ACCEPTED = "Accepted";
+
+	@Autowired
+	private ReactiveAppointmentRepository repo;
+
+	/**
+	 * Retrieves the appointments of a doctor with the given status, e.g.
+	 * Accepted, NotAccepted, Completed or Rejected.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @param status   The status of the appointments.
+	 * @return Flux<Appointment> The appointments, by date and time.
+	 */
+	@GetMapping("/doctor/{doctorId}/{status}")
+	public Flux<Appointment> getAppointmentsByDoctorIdAndStatus(@PathVariable long doctorId,
+			@PathVariable String status) {
+		LOGGER.info("In Reactive Controller - Retrieving appointments for doctor ID: " + doctorId + " with status '"
+				+ status + "'");
+		return repo.findByDoctorIdAndStatus(doctorId, status);
+	}
+
+	/**
+	 * Retrieves the appointments of a patient with the given status.
+	 *
+	 * @param patientId The ID of the patient.
+	 * @param status    The status of the appointments.
+	 * @return Flux<Appointment> The appointments, by date and time.
+	 */
+	@GetMapping("/patient/{patientId}/{status}")
+	public Flux<Appointment> getAppointmentsByPatientIdAndStatus(@PathVariable long patientId,
+			@PathVariable String status) {
+		LOGGER.info("In Reactive Controller - Retrieving appointments for patient ID: " + patientId + " with status '"
+				+ status + "'");
+		return repo.findByPatientIdAndStatus(patientId, status);
+	}
+
+	/**
+	 * Retrieves today's accepted appointments of a doctor.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @return Flux<Appointment> Today's accepted appointments, by time.
+	 */
+	@GetMapping("/appointments-for-today/doctor/{doctorId}")
+	public Flux<Appointment> getAppointmentsForTodayByDoctorId(@PathVariable long doctorId) {
+		return repo.findByDateAndDoctorIdAndStatus(LocalDate.now(), doctorId, ACCEPTED);
+	}
+
+	/**
+	 * Retrieves the accepted appointments of a doctor after today.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @return Flux<Appointment> The upcoming accepted appointments, by date and
+	 *         time.
+	 */
+	@GetMapping("/upcoming-appointments/doctor/{doctorId}")
+	public Flux<Appointment> getUpcomingAppointmentsByDoctorId(@PathVariable long doctorId) {
+		return repo.findByDateAfterAndDoctorIdAndStatus(LocalDate.now(), doctorId, ACCEPTED);
+	}
+
+	/**
+	 * Retrieves the count of today's accepted appointments of a doctor.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @return Mono<Long> The count.
+	 */
+	@GetMapping("/count/{doctorId}")
+	public Mono<Long> getTodayAppointmentsCountByDoctorId(@PathVariable long doctorId) {
+		return repo.countByDateAndDoctorIdAndStatus(LocalDate.now(), doctorId, ACCEPTED);
+	}
+
+	/**
+	 * Retrieves the count of upcoming accepted appointments of a doctor.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @return Mono<Long> The count.
+	 */
+	@GetMapping("/count/upcoming/{doctorId}")
+	public Mono<Long> getCountOfUpcomingAppointmentsByDoctorId(@PathVariable long doctorId) {
+		return repo.countByDateAfterAndDoctorIdAndStatus(LocalDate.now(), doctorId, ACCEPTED);
+	}
+
+	/**
+	 * Retrieves the booked appointment times of a doctor on a date.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @param date     The date.
+	 * @return Flux<Time> The booked times, in order.
+	 */
+	@GetMapping("/appointment-times-for-slots")
+	public Flux<Time> getAppointmentTimes(@RequestParam("doctorId") long doctorId, @RequestParam("date") Date date) {
+		return repo.findAppointmentTimesByDoctorIdAndDate(doctorId, date.toLocalDate());
+	}
+}
@@ -0,0 +1,89 @@
+package com.oneHealth.Appointments.deadline;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.oneHealth.Appointments.exception.DeadlineExceededException;
+
+/**
+ * The point in time by which the current request must be answered. The
+ * {@link DeadlineFilter} starts one per incoming request and binds it to the
+ * request thread; the booking path checks it before each stage and bounds its
+ * gateway calls and lock waits by the time that is left. Code running without
+ * a deadline (scheduled jobs, tests calling services directly) is not
+ * limited.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public final class Deadline {
+
+	private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+	private final long deadlineNanos;
+
+	private Deadline(long deadlineNanos) {
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	/**
+	 * Binds a deadline of the given budget from now to the current thread.
+	 */
+	public static Deadline start(Duration budget) {
+		Deadline deadline = new Deadline(System.nanoTime() + budget.toNanos());
+		CURRENT.set(deadline);
+		return deadline;
+	}
+
+	/**
+	 * Unbinds the deadline of the current thread.
+	 */
+	public static void clear() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * The deadline of the current thread, if any.
+	 */
+	public static Optional<Deadline> current() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+
+	/**
+	 * The time left, negative once the deadline has passed.
+	 */
+	public Duration remaining() {
+		return Duration.ofNanos(deadlineNanos - System.nanoTime());
+	}
+
+	/**
+	 * Bounds a timeout by the time left to the current deadline.
+	 *
+	 * @param timeout The timeout that applies without a deadline.
+	 * @param reserve Time to keep back for the stages that follow.
+	 * @return The smaller of the timeout and the time left minus the reserve.
+	 */
+	public static Duration within(Duration timeout, Duration reserve) {
+		Deadline deadline = CURRENT.get();
+		if (deadline == null) {
+			return timeout;
+		}
+		Duration left = deadline.remaining().minus(reserve);
+		return left.compareTo(timeout) < 0 ? left : timeout;
+	}
+
+	/**
+	 * Fails fast when the current deadline leaves less than the reserve for the
+	 * stage about to start.
+	 *
+	 * @param stage   The stage about to start, for the error message.
+	 * @param reserve The least time the stage and those after it need.
+	 * @throws DeadlineExceededException If there is not enough time left.
+	 */
+	public static void check(String stage, Duration reserve) throws DeadlineExceededException {
+		Deadline deadline = CURRENT.get();
+		if (deadline != null && deadline.remaining().compareTo(reserve) < 0) {
+			throw new DeadlineExceededException("Request deadline reached before " + stage);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.oneHealth.Appointments.deadline;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Starts the {@link Deadline} of every incoming request. Callers that have
+ * their own deadline pass the time they are still willing to wait, in
+ * milliseconds, in the {@value #HEADER} header; other requests get
+ * {@code request.deadline.default-budget}. Budgets are capped at
+ * {@code request.deadline.max-budget}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+	private static final Logger LOGGER = Logger.getLogger(DeadlineFilter.class.getName());
+
+	public static final String HEADER = "X-Request-Budget-Ms";
+
+	@Value("${request.deadline.default-budget:PT5S}")
+	private Duration defaultBudget;
+
+	@Value("${request.deadline.max-budget:PT30S}")
+	private Duration maxBudget;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		Deadline.start(budget(request.getHeader(HEADER)));
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			Deadline.clear();
+		}
+	}
+
+	private Duration budget(String header) {
+		if (header == null || header.isBlank()) {
+			return defaultBudget;
+		}
+		try {
+			Duration budget = Duration.ofMillis(Long.parseLong(header.trim()));
+			return budget.compareTo(maxBudget) > 0 ? maxBudget : budget;
+		} catch (NumberFormatException e) {
+			LOGGER.warning("Ignoring malformed " + HEADER + " header: " + header);
+			return defaultBudget;
+		}
+	}
+}
@@ -3,23 +3,31 @@ package com.oneHealth.Appointments.entity;
 import java.sql.Time;
 import java.sql.Date;
 
+import com.oneHealth.Appointments.id.AppointmentId;
+
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 
 /**
  * Entity class representing an appointment.
  * This class is mapped to a database table to store appointment details.
+ * A doctor can only have one appointment per date and time; the unique constraint
+ * backs up the in-memory slot reservation across replicas. The schema, including
+ * the indexes behind the repository queries, is defined by the migrations in
+ * db/migration.
  * @author Anup
  * @version 1.0
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_appointment_doctor_date_time", columnNames = {
+		"doctorId", "date", "appointmentTime" }))
 public class Appointment 
 {
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@AppointmentId
 	private long appointment_id;
 	private long doctorId;
 	private long patientId;
@@ -0,0 +1,170 @@
+package com.oneHealth.Appointments.entity;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Entity class representing a notification waiting to be delivered to the
+ * email service. Rows are written in the same transaction as the appointment
+ * change they describe and are drained by the OutboxDispatcher.
+ * @author Anup
+ * @version 1.0
+ */
+@Entity
+public class NotificationOutbox
+{
+	public static final String STATUS_PENDING = "PENDING";
+	public static final String STATUS_SENT = "SENT";
+	public static final String STATUS_FAILED = "FAILED";
+	// Doctor-facing notifications held back until they are folded into a digest
+	public static final String STATUS_DIGEST = "DIGEST";
+	public static final String STATUS_DIGESTED = "DIGESTED";
+	// Notifications saved without profile details while the gateway was down
+	public static final String STATUS_ENRICH = "ENRICH";
+	public static final String STATUS_ENRICHED = "ENRICHED";
+	// Bookings dropped during enrichment because a profile does not exist
+	public static final String STATUS_REJECTED = "REJECTED";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.AUTO)
+	private long id;
+	private long appointmentId;
+	private String path;
+	@Column(columnDefinition = "TEXT")
+	private String payload;
+	private String status;
+	private int attempts;
+	private Timestamp createdAt;
+	private Timestamp nextAttemptAt;
+	private Timestamp sentAt;
+	@Column(length = 1000)
+	private String lastError;
+	// Doctor ID the row is grouped by while it waits for a digest
+	private Long digestKey;
+	// Gateway path to look the patient up by while the row waits for enrichment
+	private String profilePath;
+
+	// Default constructor for NotificationOutbox class.
+	public NotificationOutbox()
+	{
+
+	}
+
+	public NotificationOutbox(long appointmentId, String path, String payload, Timestamp createdAt) {
+		super();
+		this.appointmentId = appointmentId;
+		this.path = path;
+		this.payload = payload;
+		this.status = STATUS_PENDING;
+		this.createdAt = createdAt;
+		this.nextAttemptAt = createdAt;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public long getAppointmentId() {
+		return appointmentId;
+	}
+
+	public void setAppointmentId(long appointmentId) {
+		this.appointmentId = appointmentId;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Timestamp getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Timestamp createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public Timestamp getNextAttemptAt() {
+		return nextAttemptAt;
+	}
+
+	public void setNextAttemptAt(Timestamp nextAttemptAt) {
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	public Timestamp getSentAt() {
+		return sentAt;
+	}
+
+	public void setSentAt(Timestamp sentAt) {
+		this.sentAt = sentAt;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	public Long getDigestKey() {
+		return digestKey;
+	}
+
+	public void setDigestKey(Long digestKey) {
+		this.digestKey = digestKey;
+	}
+
+	public String getProfilePath() {
+		return profilePath;
+	}
+
+	public void setProfilePath(String profilePath) {
+		this.profilePath = profilePath;
+	}
+
+	@Override
+	public String toString() {
+		return "NotificationOutbox [id=" + id + ", appointmentId=" + appointmentId + ", path=" + path + ", status="
+				+ status + ", attempts=" + attempts + ", createdAt=" + createdAt + ", nextAttemptAt=" + nextAttemptAt
+				+ ", sentAt=" + sentAt + ", lastError=" + lastError + ", digestKey=" + digestKey + ", profilePath=" + profilePath + "]";
+	}
+}
@@ -0,0 +1,27 @@
+package com.oneHealth.Appointments.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception class for representing the scenario when a booking could not acquire the lock of its
+ * doctor and date in time, because too many bookings for the same doctor-day are queued ahead of it.
+ * This exception is annotated with @ResponseStatus, indicating that it will trigger a 503 SERVICE_UNAVAILABLE
+ * response when thrown, so the client can retry.
+ * @author Anup
+ * @version 1.0
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class BookingLockTimeoutException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor for creating a new instance of BookingLockTimeoutException with a custom error message.
+     *
+     * @param message The error message indicating the reason for the exception.
+     */
+    public BookingLockTimeoutException(String message) {
+        super(message);
+    }
+}
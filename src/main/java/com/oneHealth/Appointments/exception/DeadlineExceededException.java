@@ -0,0 +1,27 @@
+package com.oneHealth.Appointments.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception class for representing the scenario when a request has used up its deadline budget before its
+ * work was done, so it is abandoned instead of holding a thread for an answer the client no longer waits for.
+ * This exception is annotated with @ResponseStatus, indicating that it will trigger a 504 GATEWAY_TIMEOUT response
+ * when thrown.
+ * @author Anup
+ * @version 1.0
+ */
+@ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor for creating a new instance of DeadlineExceededException with a custom error message.
+     *
+     * @param message The error message indicating the reason for the exception.
+     */
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
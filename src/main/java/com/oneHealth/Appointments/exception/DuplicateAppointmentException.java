@@ -0,0 +1,26 @@
+package com.oneHealth.Appointments.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception class for representing the scenario when the requested appointment slot is already booked.
+ * This exception is annotated with @ResponseStatus, indicating that it will trigger a 409 CONFLICT response
+ * when thrown.
+ * @author Anup
+ * @version 1.0
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class DuplicateAppointmentException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor for creating a new instance of DuplicateAppointmentException with a custom error message.
+     *
+     * @param message The error message indicating the reason for the exception.
+     */
+    public DuplicateAppointmentException(String message) {
+        super(message);
+    }
+}
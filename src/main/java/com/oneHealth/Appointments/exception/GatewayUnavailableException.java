@@ -0,0 +1,28 @@
+package com.oneHealth.Appointments.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception class for representing the scenario when a service behind the API gateway cannot be reached:
+ * it timed out, failed, or its circuit breaker or bulkhead rejected the call.
+ * This exception is annotated with @ResponseStatus, indicating that it will trigger a 503 SERVICE_UNAVAILABLE
+ * response when thrown.
+ * @author Anup
+ * @version 1.0
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class GatewayUnavailableException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor for creating a new instance of GatewayUnavailableException with a custom error message.
+     *
+     * @param message The error message indicating the reason for the exception.
+     * @param cause   The failure of the gateway call.
+     */
+    public GatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
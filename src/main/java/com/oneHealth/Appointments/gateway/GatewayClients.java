@@ -0,0 +1,142 @@
+package com.oneHealth.Appointments.gateway;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * The HTTP clients used to call the downstream services behind the API
+ * gateway. Each downstream gets one {@link WebClient}, built once at startup
+ * with the gateway URL as base URL and its own Reactor Netty connection pool,
+ * so connections are kept alive and reused across requests instead of being
+ * opened per call, and a slow downstream cannot take the connections of the
+ * others. Per downstream ({@code gateway.<downstream>.*}, falling back to
+ * {@code gateway.default.*}):
+ * <ul>
+ * <li>{@code max-connections} and {@code pending-acquire-max-count} bound the
+ * pool and the requests queued for a connection, which wait at most
+ * {@code pending-acquire-timeout};</li>
+ * <li>idle connections are closed after {@code max-idle-time}, and every
+ * connection after {@code max-life-time}, so the pool follows gateway
+ * scale-outs and never reuses a connection the gateway already dropped;</li>
+ * <li>{@code connect-timeout} bounds opening a connection,
+ * {@code compression} asks for gzip responses and
+ * {@code max-in-memory-size} caps the buffered response body.</li>
+ * </ul>
+ * Every call is timed by "gateway.client.requests", tagged with the
+ * downstream, the route (the URI template), the method and the status, and
+ * published with a percentile histogram.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class GatewayClients {
+	private static final Logger LOGGER = Logger.getLogger(GatewayClients.class.getName());
+
+	// Set by WebClient when the URI is given as a template with variables
+	private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+	@Autowired
+	private WebClient.Builder builder;
+
+	@Autowired
+	private GatewaySettings settings;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${apiGatewayUrl}")
+	private String apiGatewayUrl;
+
+	private final Map<String, WebClient> clients = new HashMap<>();
+
+	private final Map<String, ConnectionProvider> pools = new HashMap<>();
+
+	@PostConstruct
+	void init() {
+		for (String downstream : GatewayResilience.DOWNSTREAMS) {
+			ConnectionProvider pool = ConnectionProvider.builder("gateway-" + downstream)
+					.maxConnections(settings.get(downstream, "max-connections", Integer.class, 50))
+					.pendingAcquireMaxCount(settings.get(downstream, "pending-acquire-max-count", Integer.class, 500))
+					.pendingAcquireTimeout(settings.get(downstream, "pending-acquire-timeout", Duration.class,
+							Duration.ofSeconds(1)))
+					.maxIdleTime(settings.get(downstream, "max-idle-time", Duration.class, Duration.ofSeconds(30)))
+					.maxLifeTime(settings.get(downstream, "max-life-time", Duration.class, Duration.ofMinutes(5)))
+					.evictInBackground(Duration.ofSeconds(30)).lifo().build();
+			Duration connectTimeout = settings.get(downstream, "connect-timeout", Duration.class,
+					Duration.ofSeconds(1));
+			HttpClient httpClient = HttpClient.create(pool).keepAlive(true)
+					.compress(settings.get(downstream, "compression", Boolean.class, true))
+					.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
+			int maxInMemorySize = (int) settings.get(downstream, "max-in-memory-size", DataSize.class,
+					DataSize.ofKilobytes(256)).toBytes();
+
+			// clone() keeps the shared builder bean untouched
+			clients.put(downstream, builder.clone().baseUrl(apiGatewayUrl)
+					.clientConnector(new ReactorClientHttpConnector(httpClient))
+					.codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemorySize))
+					.filter(timed(downstream)).build());
+			pools.put(downstream, pool);
+			LOGGER.info("Gateway client for " + downstream + ": " + pool.maxConnections() + " pooled connections");
+		}
+	}
+
+	@PreDestroy
+	void close() {
+		pools.values().forEach(ConnectionProvider::dispose);
+	}
+
+	/**
+	 * The client of a downstream service; URIs are relative to the gateway.
+	 *
+	 * @param downstream One of the {@link GatewayResilience} downstream names.
+	 * @return The shared client.
+	 */
+	public WebClient client(String downstream) {
+		WebClient client = clients.get(downstream);
+		if (client == null) {
+			throw new IllegalArgumentException("Unknown gateway downstream: " + downstream);
+		}
+		return client;
+	}
+
+	private ExchangeFilterFunction timed(String downstream) {
+		return (request, next) -> Mono.defer(() -> {
+			long start = System.nanoTime();
+			return next.exchange(request)
+					.doOnSuccess(response -> record(downstream, request, String.valueOf(response.statusCode().value()),
+							start))
+					.doOnError(e -> record(downstream, request, "IO_ERROR", start))
+					.doOnCancel(() -> record(downstream, request, "CANCELLED", start));
+		});
+	}
+
+	private void record(String downstream, ClientRequest request, String status, long start) {
+		String route = request.attribute(URI_TEMPLATE_ATTRIBUTE).map(String::valueOf)
+				.orElse(request.url().getPath());
+		Timer.builder("gateway.client.requests").tag("downstream", downstream).tag("route", route)
+				.tag("method", request.method().name()).tag("status", status).publishPercentileHistogram()
+				.register(meterRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+}
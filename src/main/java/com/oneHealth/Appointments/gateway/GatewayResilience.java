@@ -0,0 +1,159 @@
+package com.oneHealth.Appointments.gateway;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards every call to a downstream service behind the API gateway, so that a
+ * slow or failing downstream cannot tie up the request threads of this
+ * service. Each downstream gets its own
+ * <ul>
+ * <li>bulkhead, limiting the calls in flight to
+ * {@code gateway.<downstream>.max-concurrent-calls}; calls beyond that are
+ * rejected at once instead of queueing;</li>
+ * <li>call timeout, {@code gateway.<downstream>.timeout};</li>
+ * <li>circuit breaker, which opens once {@code failure-rate-threshold} percent
+ * of the last {@code sliding-window-size} calls failed or took longer than
+ * {@code slow-call-threshold}, rejects calls for {@code wait-in-open-state} and
+ * then lets a few trial calls through.</li>
+ * </ul>
+ * Every setting falls back to {@code gateway.default.*}. 4xx answers are the
+ * downstream working as intended and are not counted as failures.
+ * <p>
+ * Breaker state, call outcomes and bulkhead capacity are published as the
+ * "resilience4j.*" metrics; rejected calls are counted by "gateway.rejected"
+ * tagged with the downstream and reason=bulkhead|circuit_open.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class GatewayResilience {
+	private static final Logger LOGGER = Logger.getLogger(GatewayResilience.class.getName());
+
+	public static final String PATIENT_PROFILE = "patientProfile";
+	public static final String DOCTOR_PROFILE = "doctorProfile";
+	public static final String EMAIL_SERVICE = "emailService";
+
+	static final String[] DOWNSTREAMS = { PATIENT_PROFILE, DOCTOR_PROFILE, EMAIL_SERVICE };
+
+	@Autowired
+	private GatewaySettings settings;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final CircuitBreakerRegistry breakers = CircuitBreakerRegistry.ofDefaults();
+
+	private final BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+
+	private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void init() {
+		TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakers).bindTo(meterRegistry);
+		TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+		for (String downstream : DOWNSTREAMS) {
+			guard(downstream);
+		}
+	}
+
+	/**
+	 * Runs a call to a downstream behind its bulkhead, timeout and circuit
+	 * breaker.
+	 *
+	 * @param downstream The downstream being called.
+	 * @param call       The call.
+	 * @return The guarded call.
+	 */
+	public <T> Mono<T> protect(String downstream, Mono<T> call) {
+		Guard guard = guard(downstream);
+		return call.transformDeferred(BulkheadOperator.of(guard.bulkhead())).timeout(guard.timeout())
+				.transformDeferred(CircuitBreakerOperator.of(guard.breaker()));
+	}
+
+	/**
+	 * The current state of a downstream's circuit breaker.
+	 */
+	public CircuitBreaker.State state(String downstream) {
+		return guard(downstream).breaker().getState();
+	}
+
+	/**
+	 * Tells whether a failed call means the downstream is unavailable right now
+	 * (as opposed to, say, a 404), so a fallback should be used.
+	 */
+	public static boolean isUnavailable(Throwable e) {
+		return e instanceof CallNotPermittedException || e instanceof BulkheadFullException
+				|| e instanceof TimeoutException || e instanceof WebClientRequestException
+				|| (e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError());
+	}
+
+	private Guard guard(String downstream) {
+		return guards.computeIfAbsent(downstream, this::newGuard);
+	}
+
+	private Guard newGuard(String downstream) {
+		CircuitBreakerConfig breakerConfig = CircuitBreakerConfig.custom()
+				.failureRateThreshold(settings.get(downstream, "failure-rate-threshold", Float.class, 50f))
+				.slowCallRateThreshold(settings.get(downstream, "slow-call-rate-threshold", Float.class, 80f))
+				.slowCallDurationThreshold(settings.get(downstream, "slow-call-threshold", Duration.class,
+						Duration.ofSeconds(2)))
+				.slidingWindowSize(settings.get(downstream, "sliding-window-size", Integer.class, 20))
+				.minimumNumberOfCalls(settings.get(downstream, "minimum-number-of-calls", Integer.class, 10))
+				.waitDurationInOpenState(settings.get(downstream, "wait-in-open-state", Duration.class,
+						Duration.ofSeconds(30)))
+				.permittedNumberOfCallsInHalfOpenState(
+						settings.get(downstream, "permitted-calls-in-half-open-state", Integer.class, 3))
+				.recordException(e -> !(e instanceof BulkheadFullException)
+						&& !(e instanceof WebClientResponseException response
+								&& response.getStatusCode().is4xxClientError()))
+				.build();
+		BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+				.maxConcurrentCalls(settings.get(downstream, "max-concurrent-calls", Integer.class, 25))
+				.maxWaitDuration(Duration.ZERO).build();
+		Duration timeout = settings.get(downstream, "timeout", Duration.class, Duration.ofSeconds(2));
+
+		CircuitBreaker breaker = breakers.circuitBreaker(downstream, breakerConfig);
+		Bulkhead bulkhead = bulkheads.bulkhead(downstream, bulkheadConfig);
+		breaker.getEventPublisher()
+				.onStateTransition(event -> LOGGER.warning("Gateway circuit breaker " + downstream + ": "
+						+ event.getStateTransition()))
+				.onCallNotPermitted(event -> rejected(downstream, "circuit_open"));
+		bulkhead.getEventPublisher().onCallRejected(event -> rejected(downstream, "bulkhead"));
+		return new Guard(breaker, bulkhead, timeout);
+	}
+
+	private void rejected(String downstream, String reason) {
+		Counter.builder("gateway.rejected").tag("downstream", downstream).tag("reason", reason)
+				.register(meterRegistry).increment();
+	}
+
+	private record Guard(CircuitBreaker breaker, Bulkhead bulkhead, Duration timeout) {
+	}
+}
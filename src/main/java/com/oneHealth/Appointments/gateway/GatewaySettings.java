@@ -0,0 +1,24 @@
+package com.oneHealth.Appointments.gateway;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up per-downstream gateway settings: {@code gateway.<downstream>.<name>}
+ * when set, else {@code gateway.default.<name>}, else the given default.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+class GatewaySettings {
+
+	@Autowired
+	private Environment env;
+
+	<T> T get(String downstream, String name, Class<T> type, T defaultValue) {
+		T value = env.getProperty("gateway." + downstream + "." + name, type);
+		return value != null ? value : env.getProperty("gateway.default." + name, type, defaultValue);
+	}
+}
@@ -0,0 +1,203 @@
+package com.oneHealth.Appointments.gateway;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.oneHealth.Appointments.DTO.DoctorProfile;
+import com.oneHealth.Appointments.DTO.Patient;
+import com.oneHealth.Appointments.exception.GatewayUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client for the patient and doctor profile services behind the API gateway.
+ * Profiles change rarely, so every lookup goes through an in-process cache:
+ * <ul>
+ * <li>entries live for {@code profile.cache.ttl}, profiles that the gateway
+ * answered with 404 for the shorter {@code profile.cache.negative-ttl};</li>
+ * <li>at most {@code profile.cache.maximum-size} entries per profile type are
+ * kept, evicting by access frequency (Caffeine's W-TinyLFU policy);</li>
+ * <li>entries older than {@code profile.cache.refresh-after} are served stale
+ * while a reload runs in the background, and are kept if that reload
+ * fails.</li>
+ * </ul>
+ * Hit, miss, load and eviction counters are published as the "cache.*" metrics
+ * tagged {@code cache=patientProfiles} and {@code cache=doctorProfiles}.
+ * <p>
+ * Gateway calls run behind {@link GatewayResilience}. When the patient or
+ * doctor service is unavailable, the last profile successfully loaded within
+ * {@code profile.cache.stale-ttl} is served instead; only when there is none
+ * does the lookup fail with {@link GatewayUnavailableException}. Fallbacks are
+ * counted by "profile.fallback" tagged result=stale|unavailable. Lookups are
+ * idempotent and may be hedged, see {@link GatewayHedging}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class ProfileClient {
+	private static final Logger LOGGER = Logger.getLogger(ProfileClient.class.getName());
+
+	public static final String PATIENT_PROFILE_PATH = "/patientProfile/{patient_id}";
+	public static final String PATIENT_PROFILE_BY_ID_PATH = "/patientProfile/byPatientId/{patient_id}";
+	public static final String DOCTOR_PROFILE_PATH = "/api/doctors/addressprofileregistration/getdoctorprofile/{doctor_id}";
+
+	@Autowired
+	private GatewayClients clients;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private GatewayResilience resilience;
+
+	@Autowired
+	private GatewayHedging hedging;
+
+	/** Time source of the caches; tests supply their own to move time forward. */
+	@Autowired(required = false)
+	private Ticker ticker = Ticker.systemTicker();
+
+	@Value("${profile.cache.maximum-size:10000}")
+	private long maximumSize;
+
+	@Value("${profile.cache.ttl:PT10M}")
+	private Duration ttl;
+
+	@Value("${profile.cache.negative-ttl:PT30S}")
+	private Duration negativeTtl;
+
+	@Value("${profile.cache.refresh-after:PT2M}")
+	private Duration refreshAfter;
+
+	@Value("${profile.cache.stale-maximum-size:10000}")
+	private long staleMaximumSize;
+
+	@Value("${profile.cache.stale-ttl:PT24H}")
+	private Duration staleTtl;
+
+	private AsyncLoadingCache<ProfileKey, Optional<Patient>> patientProfiles;
+
+	private AsyncLoadingCache<ProfileKey, Optional<DoctorProfile>> doctorProfiles;
+
+	/** Last successfully loaded profile per key, served while the gateway is unavailable. */
+	private Cache<ProfileKey, Object> lastKnownProfiles;
+
+	@PostConstruct
+	void init() {
+		patientProfiles = CaffeineCacheMetrics.monitor(meterRegistry,
+				this.<Patient>newCache().buildAsync((key, executor) -> load(key, Patient.class)),
+				"patientProfiles");
+		doctorProfiles = CaffeineCacheMetrics.monitor(meterRegistry,
+				this.<DoctorProfile>newCache().buildAsync((key, executor) -> load(key, DoctorProfile.class)),
+				"doctorProfiles");
+		lastKnownProfiles = Caffeine.newBuilder().ticker(ticker).maximumSize(staleMaximumSize)
+				.expireAfterWrite(staleTtl).build();
+	}
+
+	/**
+	 * Looks up a patient profile.
+	 *
+	 * @param path      The gateway path template, {@link #PATIENT_PROFILE_PATH} or
+	 *                  {@link #PATIENT_PROFILE_BY_ID_PATH}.
+	 * @param patientId The ID of the patient.
+	 * @return The profile, or an empty Optional if the gateway does not know it.
+	 */
+	public Mono<Optional<Patient>> patient(String path, long patientId) {
+		ProfileKey key = new ProfileKey(path, patientId);
+		return Mono.fromFuture(() -> patientProfiles.get(key)).onErrorResume(GatewayResilience::isUnavailable,
+				e -> fallback(key, Patient.class, e));
+	}
+
+	/**
+	 * Looks up a doctor profile.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @return The profile, or an empty Optional if the gateway does not know it.
+	 */
+	public Mono<Optional<DoctorProfile>> doctor(long doctorId) {
+		ProfileKey key = new ProfileKey(DOCTOR_PROFILE_PATH, doctorId);
+		return Mono.fromFuture(() -> doctorProfiles.get(key)).onErrorResume(GatewayResilience::isUnavailable,
+				e -> fallback(key, DoctorProfile.class, e));
+	}
+
+	/**
+	 * Drops all cached profiles, so that the next lookups go to the gateway.
+	 * The last known profiles kept for gateway outages are not affected.
+	 */
+	public void invalidateAll() {
+		patientProfiles.synchronous().invalidateAll();
+		doctorProfiles.synchronous().invalidateAll();
+	}
+
+	private <T> Caffeine<ProfileKey, Optional<T>> newCache() {
+		return Caffeine.newBuilder().ticker(ticker).maximumSize(maximumSize).refreshAfterWrite(refreshAfter)
+				.expireAfter(new Expiry<ProfileKey, Optional<T>>() {
+					@Override
+					public long expireAfterCreate(ProfileKey key, Optional<T> value, long currentTime) {
+						return (value.isPresent() ? ttl : negativeTtl).toNanos();
+					}
+
+					@Override
+					public long expireAfterUpdate(ProfileKey key, Optional<T> value, long currentTime,
+							long currentDuration) {
+						return expireAfterCreate(key, value, currentTime);
+					}
+
+					@Override
+					public long expireAfterRead(ProfileKey key, Optional<T> value, long currentTime,
+							long currentDuration) {
+						return currentDuration;
+					}
+				}).recordStats();
+	}
+
+	private <T> CompletableFuture<Optional<T>> load(ProfileKey key, Class<T> type) {
+		LOGGER.fine("Loading profile from gateway: " + key);
+		String downstream = DOCTOR_PROFILE_PATH.equals(key.path()) ? GatewayResilience.DOCTOR_PROFILE
+				: GatewayResilience.PATIENT_PROFILE;
+		return resilience.protect(downstream, hedging.hedge(downstream, () -> clients.client(downstream).get()
+				.uri(key.path(), key.id()).retrieve().bodyToMono(type).map(Optional::of)
+				.onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()))
+				.defaultIfEmpty(Optional.empty())))
+				.doOnNext(profile -> profile.ifPresent(p -> lastKnownProfiles.put(key, p))).toFuture();
+	}
+
+	private <T> Mono<Optional<T>> fallback(ProfileKey key, Class<T> type, Throwable e) {
+		Object stale = lastKnownProfiles.getIfPresent(key);
+		if (stale != null) {
+			LOGGER.warning("Gateway unavailable (" + e + "), serving last known profile for " + key);
+			countFallback("stale");
+			return Mono.just(Optional.of(type.cast(stale)));
+		}
+		countFallback("unavailable");
+		return Mono.error(new GatewayUnavailableException("Profile service unavailable for " + key, e));
+	}
+
+	private void countFallback(String result) {
+		Counter.builder("profile.fallback").tag("result", result).register(meterRegistry).increment();
+	}
+
+	/**
+	 * Cache key: the gateway path template together with the ID it is expanded
+	 * with.
+	 */
+	record ProfileKey(String path, long id) {
+	}
+}
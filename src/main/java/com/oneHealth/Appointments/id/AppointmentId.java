@@ -0,0 +1,33 @@
+package com.oneHealth.Appointments.id;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Marks an identifier generated by the {@link AppointmentIdGenerator}, whose
+ * mode is chosen by the {@code appointment.id.mode} Hibernate setting.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@IdGeneratorType(AppointmentIdGenerator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface AppointmentId {
+
+	/**
+	 * The database sequence used in sequence mode.
+	 */
+	String sequenceName() default "appointment_seq";
+
+	/**
+	 * How many identifiers are taken from the sequence per round trip.
+	 */
+	int allocationSize() default 50;
+}
@@ -0,0 +1,106 @@
+package com.oneHealth.Appointments.id;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+/**
+ * Pluggable identifier generator for appointments, selected with the
+ * {@code appointment.id.mode} Hibernate setting (passed through
+ * {@code spring.jpa.properties}):
+ * <ul>
+ * <li>{@code sequence} (default): a database sequence with the pooled
+ * optimizer, so one round trip hands out a whole block of
+ * {@code allocationSize} identifiers and batched inserts do not fetch an
+ * identifier per row. Replicas take disjoint blocks from the shared
+ * sequence.</li>
+ * <li>{@code time}: {@link TimeOrderedIdGenerator} identifiers, generated
+ * without any database call. Each replica needs its own
+ * {@code appointment.id.node} (0-1023); startup fails when it is not set, as
+ * two replicas on the same node could hand out the same identifier.</li>
+ * </ul>
+ * The optimizer and allocation size are those Hibernate used for this
+ * sequence before the generator was introduced, and must stay that way: the
+ * pooled optimizer reads a sequence value as the top of its block, pooled-lo
+ * as the bottom, so replicas that disagree on either hand out overlapping
+ * blocks. Changing them needs a new sequence started above the highest
+ * existing identifier, deployed with every replica stopped.
+ * <p>
+ * Time-ordered identifiers are far above any sequence value, so switching
+ * from sequence to time mode never reuses an identifier; switching back is
+ * not supported. They also exceed 2^53, so JavaScript clients must not parse
+ * them as plain numbers.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentIdGenerator implements IdentifierGenerator {
+	private static final Logger LOGGER = Logger.getLogger(AppointmentIdGenerator.class.getName());
+
+	public static final String MODE_SETTING = "appointment.id.mode";
+	public static final String NODE_SETTING = "appointment.id.node";
+
+	private final SequenceStyleGenerator sequence;
+
+	private final TimeOrderedIdGenerator timeOrdered;
+
+	public AppointmentIdGenerator(AppointmentId config, Member member, CustomIdGeneratorCreationContext context) {
+		Map<String, Object> settings = context.getServiceRegistry().getService(ConfigurationService.class)
+				.getSettings();
+		String mode = String.valueOf(settings.getOrDefault(MODE_SETTING, "sequence")).trim();
+
+		if ("time".equalsIgnoreCase(mode)) {
+			int node = nodeId(settings.get(NODE_SETTING));
+			LOGGER.info("Appointment IDs are time-ordered, node " + node);
+			this.timeOrdered = new TimeOrderedIdGenerator(node);
+			this.sequence = null;
+		} else if ("sequence".equalsIgnoreCase(mode)) {
+			Properties params = new Properties();
+			params.put(SequenceStyleGenerator.SEQUENCE_PARAM, config.sequenceName());
+			params.put(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(config.allocationSize()));
+			params.put(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+			params.put(IdentifierGenerator.ENTITY_NAME, context.getPersistentClass().getEntityName());
+			params.put(IdentifierGenerator.JPA_ENTITY_NAME, context.getPersistentClass().getJpaEntityName());
+			params.put(IdentifierGenerator.CONTRIBUTOR_NAME, "orm");
+			this.sequence = new SequenceStyleGenerator();
+			this.sequence.configure(context.getProperty().getType(), params, context.getServiceRegistry());
+			this.sequence.registerExportables(context.getDatabase());
+			this.timeOrdered = null;
+			LOGGER.info("Appointment IDs come from sequence " + config.sequenceName() + " in blocks of "
+					+ config.allocationSize());
+		} else {
+			throw new IllegalArgumentException("Unknown " + MODE_SETTING + ": " + mode);
+		}
+	}
+
+	@Override
+	public void initialize(SqlStringGenerationContext context) {
+		if (sequence != null) {
+			sequence.initialize(context);
+		}
+	}
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		return sequence != null ? sequence.generate(session, object) : timeOrdered.next();
+	}
+
+	private static int nodeId(Object configured) {
+		if (configured == null || configured.toString().isBlank()) {
+			throw new IllegalStateException(
+					MODE_SETTING + "=time needs a distinct " + NODE_SETTING + " (0-" + TimeOrderedIdGenerator.MAX_NODE
+							+ ") on every replica");
+		}
+		return Integer.parseInt(configured.toString().trim());
+	}
+}
@@ -0,0 +1,80 @@
+package com.oneHealth.Appointments.id;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates 64-bit identifiers without any coordination: 41 bits of
+ * milliseconds since 2023-01-01 (enough for about 69 years), 10 bits of node
+ * ID and a 12-bit sequence within the millisecond. Identifiers of one node are
+ * strictly increasing, identifiers of different nodes never collide as long as
+ * the node IDs differ, and all of them sort roughly by creation time, which
+ * keeps B-tree inserts at the right edge of the index.
+ * <p>
+ * The last issued timestamp and sequence live in one AtomicLong that is
+ * advanced by compare-and-set. When more than 4096 identifiers are needed
+ * within a millisecond, or the clock steps backwards, the generator simply
+ * keeps counting from the last issued value, borrowing from the next
+ * millisecond instead of waiting for the clock.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class TimeOrderedIdGenerator {
+
+	public static final long EPOCH = Instant.parse("2023-01-01T00:00:00Z").toEpochMilli();
+	public static final int NODE_BITS = 10;
+	public static final int SEQUENCE_BITS = 12;
+	public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+	private final long node;
+
+	private final Clock clock;
+
+	/** Timestamp and sequence of the last identifier, packed as (millis << 12 | sequence). */
+	private final AtomicLong last = new AtomicLong();
+
+	public TimeOrderedIdGenerator(int node) {
+		this(node, Clock.systemUTC());
+	}
+
+	public TimeOrderedIdGenerator(int node, Clock clock) {
+		if (node < 0 || node > MAX_NODE) {
+			throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE + ": " + node);
+		}
+		this.node = node;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns the next identifier.
+	 */
+	public long next() {
+		while (true) {
+			long previous = last.get();
+			long now = (clock.millis() - EPOCH) << SEQUENCE_BITS;
+			long next = Math.max(now, previous + 1);
+			if (last.compareAndSet(previous, next)) {
+				return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS
+						| (next & SEQUENCE_MASK);
+			}
+		}
+	}
+
+	/**
+	 * Extracts the creation time of an identifier.
+	 */
+	public static Instant timestampOf(long id) {
+		return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+	}
+
+	/**
+	 * Extracts the node ID of an identifier.
+	 */
+	public static int nodeOf(long id) {
+		return (int) (id >>> SEQUENCE_BITS) & MAX_NODE;
+	}
+}
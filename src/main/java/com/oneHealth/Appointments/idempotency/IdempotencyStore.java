@@ -0,0 +1,157 @@
+package com.oneHealth.Appointments.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Remembers the outcome of requests sent with an {@code Idempotency-Key}
+ * header, so that a client retrying after a timeout gets the original response
+ * back instead of running the request again.
+ * <p>
+ * The first request with a key runs and its response is stored for
+ * {@code idempotency.ttl}, bounded to {@code idempotency.maximum-size} keys.
+ * Retries that arrive while the first request is still running wait for its
+ * outcome (up to {@code idempotency.wait-timeout}) rather than running in
+ * parallel. A key reused with a different request body is rejected with 422.
+ * Server errors are not stored, so a retry after a 5xx runs again.
+ * <p>
+ * Metrics: the "idempotency.requests" counter tagged with
+ * result=first|replayed|mismatch|in_progress, and the "idempotencyKeys" cache
+ * metrics.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class IdempotencyStore {
+	private static final Logger LOGGER = Logger.getLogger(IdempotencyStore.class.getName());
+
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${idempotency.maximum-size:100000}")
+	private long maximumSize;
+
+	@Value("${idempotency.ttl:PT24H}")
+	private Duration ttl;
+
+	@Value("${idempotency.wait-timeout:PT10S}")
+	private Duration waitTimeout;
+
+	private Cache<String, Outcome> outcomes;
+
+	@PostConstruct
+	void init() {
+		outcomes = CaffeineCacheMetrics.monitor(meterRegistry,
+				Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build(),
+				"idempotencyKeys");
+	}
+
+	/**
+	 * Runs the request once per key.
+	 *
+	 * @param scope       The endpoint the key belongs to, so keys of different
+	 *                    endpoints never collide.
+	 * @param key         The client's Idempotency-Key, or null to always run.
+	 * @param requestBody The request body, used to detect a key reused for a
+	 *                    different request.
+	 * @param request     Runs the request.
+	 * @return The response of the first request with this key.
+	 */
+	public ResponseEntity<String> execute(String scope, String key, String requestBody,
+			Supplier<ResponseEntity<String>> request) {
+		if (key == null || key.isBlank()) {
+			return request.get();
+		}
+		String cacheKey = scope + ':' + key;
+		Outcome mine = new Outcome(fingerprint(requestBody), new CompletableFuture<>());
+		Outcome first = outcomes.asMap().putIfAbsent(cacheKey, mine);
+		if (first != null) {
+			return replay(cacheKey, first, mine.fingerprint());
+		}
+
+		count("first");
+		ResponseEntity<String> response;
+		try {
+			response = request.get();
+		} catch (RuntimeException e) {
+			outcomes.asMap().remove(cacheKey, mine);
+			mine.response().completeExceptionally(e);
+			throw e;
+		}
+		if (response.getStatusCode().is5xxServerError()) {
+			// Transient failures are not remembered; the next retry runs again
+			outcomes.asMap().remove(cacheKey, mine);
+		}
+		mine.response().complete(response);
+		return response;
+	}
+
+	private ResponseEntity<String> replay(String cacheKey, Outcome first, String fingerprint) {
+		if (!first.fingerprint().equals(fingerprint)) {
+			count("mismatch");
+			LOGGER.warning("Idempotency-Key reused with a different request: " + cacheKey);
+			return new ResponseEntity<>("Idempotency-Key Already Used For A Different Request",
+					HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+		try {
+			ResponseEntity<String> original = first.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+			count("replayed");
+			LOGGER.info("Replaying stored response for Idempotency-Key: " + cacheKey);
+			return ResponseEntity.status(original.getStatusCode()).headers(original.getHeaders())
+					.header(REPLAYED_HEADER, "true").body(original.getBody());
+		} catch (TimeoutException e) {
+			count("in_progress");
+			return new ResponseEntity<>("A Request With This Idempotency-Key Is Still In Progress",
+					HttpStatus.CONFLICT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+		} catch (ExecutionException e) {
+			// The first request failed unexpectedly and was not remembered
+			return new ResponseEntity<>("The Original Request Failed, Please Retry", HttpStatus.SERVICE_UNAVAILABLE);
+		}
+	}
+
+	private void count(String result) {
+		Counter.builder("idempotency.requests").tag("result", result).register(meterRegistry).increment();
+	}
+
+	private static String fingerprint(String requestBody) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(String.valueOf(requestBody).getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private record Outcome(String fingerprint, CompletableFuture<ResponseEntity<String>> response) {
+	}
+}
@@ -0,0 +1,273 @@
+package com.oneHealth.Appointments.notification;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oneHealth.Appointments.DTO.AppointmentDTO;
+import com.oneHealth.Appointments.booking.BookingStatusTracker;
+import com.oneHealth.Appointments.booking.SlotReservationEngine;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.exception.GatewayUnavailableException;
+import com.oneHealth.Appointments.exception.RecordNotFoundException;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent.Change;
+import com.oneHealth.Appointments.serviceImplementation.BookingPipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Completes notifications of appointments booked or cancelled while the
+ * profile services were unavailable.
+ * <p>
+ * Such notifications are stored in the outbox with status ENRICH. Every
+ * {@code notification.enrichment.poll-interval} a batch of due rows is claimed
+ * with {@code SELECT ... FOR UPDATE SKIP LOCKED} and leased, like the
+ * {@link OutboxDispatcher} does, and run through the {@link BookingPipeline}
+ * again. Once the profiles load, the enriched notification is queued for
+ * delivery and the row is marked ENRICHED in one transaction. While the
+ * gateway is still unavailable the row is retried every
+ * {@code notification.enrichment.retry-delay}, until
+ * {@code notification.enrichment.max-attempts} is reached and it is marked
+ * FAILED.
+ * <p>
+ * A booking whose patient or doctor turns out not to exist is rejected, as a
+ * synchronous booking would have been: the appointment is deleted and the
+ * row marked REJECTED in one transaction, and the slot is freed once that
+ * has committed. Only an unavailable gateway leaves a booking in place
+ * without its profiles.
+ * <p>
+ * Bookings accepted asynchronously are enriched right away by the
+ * {@link com.oneHealth.Appointments.booking.BookingWorkers}, claiming their
+ * row the same way; the poll only picks up those the workers could not take.
+ * Clients waiting on a booking's status are told once it is enriched or
+ * failed.
+ * <p>
+ * Outcomes are counted by "notification.enrichment" tagged with
+ * result=enriched|retry|failed|rejected.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class BookingEnricher {
+	private static final Logger LOGGER = Logger.getLogger(BookingEnricher.class.getName());
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private NotificationOutboxService outbox;
+
+	@Autowired
+	private BookingPipeline pipeline;
+
+	@Autowired
+	private BookingStatusTracker statuses;
+
+	@Autowired
+	private AppointmentRepository appointmentRepo;
+
+	@Autowired
+	private SlotReservationEngine slots;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ModelMapper mapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${notification.enrichment.batch-size:50}")
+	private int batchSize;
+
+	@Value("${notification.enrichment.retry-delay:PT1M}")
+	private Duration retryDelay;
+
+	@Value("${notification.enrichment.max-attempts:60}")
+	private int maxAttempts;
+
+	@Value("${notification.outbox.lease:PT2M}")
+	private Duration lease;
+
+	/**
+	 * Claims and enriches the next batch of due notifications.
+	 */
+	@Scheduled(fixedDelayString = "${notification.enrichment.poll-interval:PT30S}")
+	public void enrich() {
+		List<NotificationOutbox> batch = transactionTemplate.execute(status -> claim());
+		if (batch != null) {
+			process(batch);
+		}
+	}
+
+	/**
+	 * Enriches the notification of a booking accepted asynchronously, unless it
+	 * is already done or being done by the poll or another replica.
+	 *
+	 * @param appointmentId The ID of the accepted appointment.
+	 */
+	public void enrichBooking(long appointmentId) {
+		List<NotificationOutbox> claimed = transactionTemplate.execute(status -> claimBooking(appointmentId));
+		if (claimed != null) {
+			process(claimed);
+		}
+	}
+
+	private void process(List<NotificationOutbox> batch) {
+		for (int i = 0; i < batch.size(); i++) {
+			NotificationOutbox row = batch.get(i);
+			try {
+				AppointmentDTO dto = prepare(row);
+				transactionTemplate.executeWithoutResult(status -> complete(row, dto));
+				statuses.changed(row.getAppointmentId());
+				count("enriched");
+			} catch (GatewayUnavailableException e) {
+				// The gateway is still down; the rest of the batch would fail the same way
+				List<NotificationOutbox> postponed = batch.subList(i, batch.size());
+				transactionTemplate.executeWithoutResult(status -> postpone(postponed, e));
+				postponed.stream().filter(given -> NotificationOutbox.STATUS_FAILED.equals(given.getStatus()))
+						.forEach(given -> statuses.changed(given.getAppointmentId()));
+				return;
+			} catch (RecordNotFoundException e) {
+				if (NotificationOutboxService.APPOINTMENT_EMAIL.equals(row.getPath())) {
+					reject(row, e);
+				} else {
+					transactionTemplate.executeWithoutResult(status -> fail(row, e));
+				}
+				statuses.changed(row.getAppointmentId());
+			} catch (Exception e) {
+				transactionTemplate.executeWithoutResult(status -> fail(row, e));
+				statuses.changed(row.getAppointmentId());
+			}
+		}
+	}
+
+	private AppointmentDTO prepare(NotificationOutbox row) throws Exception {
+		AppointmentDTO stored = objectMapper.readValue(row.getPayload(), AppointmentDTO.class);
+		Appointment obj = mapper.map(stored, Appointment.class);
+		AppointmentDTO dto = NotificationOutboxService.DELETE_APPOINTMENT_EMAIL.equals(row.getPath())
+				? pipeline.prepareCancellation(obj)
+				: pipeline.prepareBooking(obj, row.getProfilePath());
+		dto.setAppointment_id(row.getAppointmentId());
+		return dto;
+	}
+
+	private void complete(NotificationOutbox row, AppointmentDTO dto) {
+		if (NotificationOutboxService.APPOINTMENT_EMAIL.equals(row.getPath())) {
+			outbox.enqueueBooking(row.getAppointmentId(), dto);
+		} else {
+			outbox.enqueue(row.getAppointmentId(), row.getPath(), dto);
+		}
+		row.setAttempts(row.getAttempts() + 1);
+		row.setStatus(NotificationOutbox.STATUS_ENRICHED);
+		row.setLastError(null);
+		outboxRepo.save(row);
+		LOGGER.info("Enriched notification: " + row);
+	}
+
+	private void postpone(List<NotificationOutbox> rows, Exception e) {
+		Timestamp nextAttempt = new Timestamp(System.currentTimeMillis() + retryDelay.toMillis());
+		for (NotificationOutbox row : rows) {
+			row.setAttempts(row.getAttempts() + 1);
+			row.setLastError(abbreviate(String.valueOf(e.getMessage())));
+			if (row.getAttempts() >= maxAttempts) {
+				row.setStatus(NotificationOutbox.STATUS_FAILED);
+				LOGGER.warning("Giving up on enriching notification after " + row.getAttempts() + " attempts: " + row);
+				count("failed");
+			} else {
+				row.setNextAttemptAt(nextAttempt);
+				count("retry");
+			}
+		}
+		outboxRepo.saveAll(rows);
+		LOGGER.info("Profile services still unavailable, postponed enriching " + rows.size() + " notifications");
+	}
+
+	/**
+	 * Drops a booking whose patient or doctor does not exist, and frees its slot
+	 * once the deletion has committed.
+	 */
+	private void reject(NotificationOutbox row, Exception e) {
+		Optional<Appointment> rejected = transactionTemplate.execute(status -> {
+			Optional<Appointment> appointment = appointmentRepo.findById(row.getAppointmentId());
+			appointment.ifPresent(obj -> {
+				appointmentRepo.delete(obj);
+				events.publishEvent(AppointmentChangedEvent.of(Change.DELETED, obj, obj.getDate()));
+			});
+			row.setAttempts(row.getAttempts() + 1);
+			row.setStatus(NotificationOutbox.STATUS_REJECTED);
+			row.setLastError(abbreviate(String.valueOf(e.getMessage())));
+			outboxRepo.save(row);
+			return appointment;
+		});
+		rejected.filter(obj -> obj.getDate() != null && obj.getAppointmentTime() != null)
+				.ifPresent(obj -> slots.release(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime()));
+		LOGGER.warning("Rejected booking with unknown profile: " + row + " - " + e.getMessage());
+		count("rejected");
+	}
+
+	private void fail(NotificationOutbox row, Exception e) {
+		row.setAttempts(row.getAttempts() + 1);
+		row.setStatus(NotificationOutbox.STATUS_FAILED);
+		row.setLastError(abbreviate(String.valueOf(e.getMessage())));
+		outboxRepo.save(row);
+		LOGGER.warning("Could not enrich notification: " + row + " - " + e);
+		count("failed");
+	}
+
+	private List<NotificationOutbox> claim() {
+		long now = System.currentTimeMillis();
+		List<NotificationOutbox> batch = outboxRepo.findByStatusAndNextAttemptAtLessThanEqualOrderById(
+				NotificationOutbox.STATUS_ENRICH, new Timestamp(now), PageRequest.of(0, batchSize));
+		if (batch.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Timestamp leasedUntil = new Timestamp(now + lease.toMillis());
+		batch.forEach(row -> row.setNextAttemptAt(leasedUntil));
+		return outboxRepo.saveAll(batch);
+	}
+
+	private List<NotificationOutbox> claimBooking(long appointmentId) {
+		long now = System.currentTimeMillis();
+		List<NotificationOutbox> claimed = outboxRepo.findByAppointmentIdAndPathAndStatusAndNextAttemptAtLessThanEqual(
+				appointmentId, NotificationOutboxService.APPOINTMENT_EMAIL, NotificationOutbox.STATUS_ENRICH,
+				new Timestamp(now));
+		Timestamp leasedUntil = new Timestamp(now + lease.toMillis());
+		claimed.forEach(row -> row.setNextAttemptAt(leasedUntil));
+		return outboxRepo.saveAll(claimed);
+	}
+
+	private void count(String result) {
+		Counter.builder("notification.enrichment").tag("result", result).register(meterRegistry).increment();
+	}
+
+	private static String abbreviate(String message) {
+		return message.length() > 1000 ? message.substring(0, 1000) : message;
+	}
+}
@@ -0,0 +1,112 @@
+package com.oneHealth.Appointments.notification;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oneHealth.Appointments.DTO.AppointmentDTO;
+import com.oneHealth.Appointments.DTO.AppointmentDigestDTO;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Folds held-back doctor notifications into one summary per doctor.
+ * <p>
+ * In digest mode ({@code notification.digest.enabled=true}) the doctor's copy
+ * of every booking email is stored in the outbox with status DIGEST. Once the
+ * oldest of a doctor's held rows is older than {@code notification.digest.window},
+ * all of that doctor's held rows are locked, turned into a single
+ * {@link AppointmentDigestDTO} queued for /appointmentDigestEmail, and marked
+ * DIGESTED. The summary is then delivered, retried and counted by the
+ * {@link OutboxDispatcher} like any other notification.
+ * <p>
+ * The number of appointments folded into summaries is counted by the
+ * "notification.digest.appointments" metric and the number of summaries by
+ * "notification.digest.summaries".
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "notification.digest.enabled", havingValue = "true")
+public class NotificationDigester {
+	private static final Logger LOGGER = Logger.getLogger(NotificationDigester.class.getName());
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private NotificationOutboxService outbox;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${notification.digest.window:PT5M}")
+	private Duration window;
+
+	/**
+	 * Queues a summary for every doctor whose digest window has closed.
+	 */
+	@Scheduled(fixedDelayString = "${notification.digest.poll-interval:PT30S}")
+	public void flush() {
+		Timestamp cutoff = new Timestamp(System.currentTimeMillis() - window.toMillis());
+		List<Long> doctorIds = outboxRepo.findDigestKeysDue(NotificationOutbox.STATUS_DIGEST, cutoff);
+		for (Long doctorId : doctorIds) {
+			try {
+				transactionTemplate.executeWithoutResult(status -> flush(doctorId));
+			} catch (RuntimeException e) {
+				LOGGER.warning("Could not build notification digest for doctor ID: " + doctorId + " - " + e);
+			}
+		}
+	}
+
+	private void flush(Long doctorId) {
+		List<NotificationOutbox> held = outboxRepo.findByStatusAndDigestKeyOrderById(NotificationOutbox.STATUS_DIGEST,
+				doctorId);
+		if (held.isEmpty()) {
+			// Another replica is flushing this doctor
+			return;
+		}
+
+		List<AppointmentDTO> appointments = new ArrayList<>(held.size());
+		for (NotificationOutbox row : held) {
+			try {
+				appointments.add(objectMapper.readValue(row.getPayload(), AppointmentDTO.class));
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException("Unreadable digest notification: " + row, e);
+			}
+		}
+
+		AppointmentDTO latest = appointments.get(appointments.size() - 1);
+		AppointmentDigestDTO digest = new AppointmentDigestDTO(doctorId, latest.getDoctor_name(),
+				latest.getDoctor_email(), held.get(0).getCreatedAt(), held.get(held.size() - 1).getCreatedAt(),
+				appointments);
+		outbox.enqueue(latest.getAppointment_id(), NotificationOutboxService.APPOINTMENT_DIGEST_EMAIL, digest);
+
+		held.forEach(row -> row.setStatus(NotificationOutbox.STATUS_DIGESTED));
+		outboxRepo.saveAll(held);
+
+		meterRegistry.counter("notification.digest.summaries").increment();
+		meterRegistry.counter("notification.digest.appointments").increment(held.size());
+		LOGGER.info("Queued notification digest of " + held.size() + " appointments for doctor ID: " + doctorId);
+	}
+}
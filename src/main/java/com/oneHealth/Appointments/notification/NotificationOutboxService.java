@@ -0,0 +1,118 @@
+package com.oneHealth.Appointments.notification;
+
+import java.sql.Timestamp;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oneHealth.Appointments.DTO.AppointmentDTO;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+
+/**
+ * Writes notifications for the email service into the outbox table. Enqueuing
+ * must happen inside the transaction that changes the appointment, so that a
+ * notification exists if and only if that change commits. Delivery is done
+ * later by the {@link OutboxDispatcher}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Service
+public class NotificationOutboxService {
+	private static final Logger LOGGER = Logger.getLogger(NotificationOutboxService.class.getName());
+
+	public static final String APPOINTMENT_EMAIL = "/appointmentEmail";
+	public static final String DELETE_APPOINTMENT_EMAIL = "/deleteappointmentEmail";
+	public static final String APPOINTMENT_DIGEST_EMAIL = "/appointmentDigestEmail";
+	public static final String APPOINTMENT_PLAN_EMAIL = "/appointmentPlanEmail";
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${notification.digest.enabled:false}")
+	private boolean digestEnabled;
+
+	/**
+	 * Queues the notifications for a new booking. Normally this is one
+	 * appointment email addressed to both the patient and the doctor. In digest
+	 * mode the patient still gets the email right away, while the doctor's copy is
+	 * held back and folded into a per-doctor summary by the
+	 * {@link NotificationDigester}.
+	 *
+	 * @param appointmentId The booked appointment.
+	 * @param dto           The enriched appointment details.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void enqueueBooking(long appointmentId, AppointmentDTO dto) {
+		if (!digestEnabled || dto.getDoctor_email() == null) {
+			enqueue(appointmentId, APPOINTMENT_EMAIL, dto);
+			return;
+		}
+		AppointmentDTO patientCopy = objectMapper.convertValue(dto, AppointmentDTO.class);
+		patientCopy.setDoctor_email(null);
+		enqueue(appointmentId, APPOINTMENT_EMAIL, patientCopy);
+
+		NotificationOutbox doctorCopy = new NotificationOutbox(appointmentId, APPOINTMENT_DIGEST_EMAIL,
+				serialize(dto), new Timestamp(System.currentTimeMillis()));
+		doctorCopy.setStatus(NotificationOutbox.STATUS_DIGEST);
+		doctorCopy.setDigestKey(dto.getDoctorId());
+		outboxRepo.save(doctorCopy);
+	}
+
+	/**
+	 * Queues a notification whose profile details could not be loaded because
+	 * the gateway was unavailable. The {@link BookingEnricher} fills them in
+	 * and queues the notification for delivery once the gateway is back.
+	 *
+	 * @param appointmentId The appointment the notification is about.
+	 * @param path          The email service path, relative to /emailService.
+	 * @param dto           The appointment details, without profile details.
+	 * @param profilePath   The gateway path to look the patient up by.
+	 * @return The saved outbox row.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public NotificationOutbox enqueueEnrichment(long appointmentId, String path, AppointmentDTO dto,
+			String profilePath) {
+		NotificationOutbox row = new NotificationOutbox(appointmentId, path, serialize(dto),
+				new Timestamp(System.currentTimeMillis()));
+		row.setStatus(NotificationOutbox.STATUS_ENRICH);
+		row.setProfilePath(profilePath);
+		row = outboxRepo.save(row);
+		LOGGER.info("In Service - Queued notification for enrichment: " + row);
+		return row;
+	}
+
+	/**
+	 * Queues a notification for delivery.
+	 *
+	 * @param appointmentId The appointment the notification is about.
+	 * @param path          The email service path, relative to /emailService.
+	 * @param payload       The request body, serialised as JSON.
+	 * @return The saved outbox row.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public NotificationOutbox enqueue(long appointmentId, String path, Object payload) {
+		NotificationOutbox row = outboxRepo.save(new NotificationOutbox(appointmentId, path, serialize(payload),
+				new Timestamp(System.currentTimeMillis())));
+		LOGGER.info("In Service - Queued notification: " + row);
+		return row;
+	}
+
+	private String serialize(Object payload) {
+		try {
+			return objectMapper.writeValueAsString(payload);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Notification payload cannot be serialised: " + payload, e);
+		}
+	}
+}
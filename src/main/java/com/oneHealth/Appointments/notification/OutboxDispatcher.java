@@ -0,0 +1,205 @@
+package com.oneHealth.Appointments.notification;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.gateway.GatewayClients;
+import com.oneHealth.Appointments.gateway.GatewayResilience;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Background dispatcher that drains the notification outbox.
+ * <p>
+ * Every {@code notification.outbox.poll-interval} a batch of due rows is
+ * claimed with {@code SELECT ... FOR UPDATE SKIP LOCKED} and leased for
+ * {@code notification.outbox.lease} by pushing their next attempt time
+ * forward, so replicas never pick up the same row and a row claimed by a node
+ * that dies is retried once the lease runs out. The batch is then posted to
+ * the email service outside of any transaction. Failed rows are retried with
+ * exponential backoff (plus jitter) until {@code notification.outbox.max-attempts}
+ * is reached, after which they are marked FAILED. Deliveries run behind the
+ * email service's {@link GatewayResilience} guard, so while its circuit is open
+ * a batch fails fast and is simply retried later.
+ * <p>
+ * Delivery metrics: "notification.outbox" counter tagged with
+ * result=delivered|retry|failed, the "notification.outbox.delivery" timer and
+ * the "notification.outbox.pending" gauge.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class OutboxDispatcher {
+	private static final Logger LOGGER = Logger.getLogger(OutboxDispatcher.class.getName());
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private GatewayClients clients;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private GatewayResilience resilience;
+
+	@Value("${notification.outbox.batch-size:50}")
+	private int batchSize;
+
+	@Value("${notification.outbox.concurrency:8}")
+	private int concurrency;
+
+	@Value("${notification.outbox.max-attempts:8}")
+	private int maxAttempts;
+
+	@Value("${notification.outbox.initial-backoff:PT10S}")
+	private Duration initialBackoff;
+
+	@Value("${notification.outbox.max-backoff:PT30M}")
+	private Duration maxBackoff;
+
+	@Value("${notification.outbox.lease:PT2M}")
+	private Duration lease;
+
+	@Value("${notification.outbox.delivery-timeout:PT10S}")
+	private Duration deliveryTimeout;
+
+	@Value("${notification.outbox.retention:P7D}")
+	private Duration retention;
+
+	private final AtomicLong pending = new AtomicLong();
+
+	private Timer deliveryTimer;
+
+	@PostConstruct
+	void init() {
+		Gauge.builder("notification.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+		deliveryTimer = Timer.builder("notification.outbox.delivery").register(meterRegistry);
+	}
+
+	/**
+	 * Claims and delivers the next batch of due notifications.
+	 */
+	@Scheduled(fixedDelayString = "${notification.outbox.poll-interval:PT5S}")
+	public void dispatch() {
+		List<NotificationOutbox> batch = transactionTemplate.execute(status -> claim());
+		if (batch == null || batch.isEmpty()) {
+			pending.set(outboxRepo.countByStatus(NotificationOutbox.STATUS_PENDING));
+			return;
+		}
+
+		List<Delivery> deliveries = Flux.fromIterable(batch).flatMap(this::deliver, concurrency).collectList()
+				.block();
+
+		transactionTemplate.executeWithoutResult(status -> record(deliveries));
+		pending.set(outboxRepo.countByStatus(NotificationOutbox.STATUS_PENDING));
+	}
+
+	/**
+	 * Removes delivered notifications older than the retention period.
+	 */
+	@Scheduled(fixedDelayString = "${notification.outbox.purge-interval:PT1H}")
+	public void purge() {
+		Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retention.toMillis());
+		Integer removed = transactionTemplate.execute(status -> outboxRepo.deleteByStatusInAndCreatedAtBefore(
+				List.of(NotificationOutbox.STATUS_SENT, NotificationOutbox.STATUS_DIGESTED,
+						NotificationOutbox.STATUS_ENRICHED), cutoff));
+		LOGGER.info("Purged " + removed + " delivered notifications created before " + cutoff);
+	}
+
+	private List<NotificationOutbox> claim() {
+		long now = System.currentTimeMillis();
+		List<NotificationOutbox> batch = outboxRepo.findByStatusAndNextAttemptAtLessThanEqualOrderById(
+				NotificationOutbox.STATUS_PENDING, new Timestamp(now), PageRequest.of(0, batchSize));
+		if (batch.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Timestamp leasedUntil = new Timestamp(now + lease.toMillis());
+		batch.forEach(row -> row.setNextAttemptAt(leasedUntil));
+		return outboxRepo.saveAll(batch);
+	}
+
+	private Mono<Delivery> deliver(NotificationOutbox row) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return resilience.protect(GatewayResilience.EMAIL_SERVICE,
+					clients.client(GatewayResilience.EMAIL_SERVICE).post().uri("/emailService" + row.getPath())
+							.contentType(MediaType.APPLICATION_JSON).bodyValue(row.getPayload()).retrieve()
+							.toBodilessEntity().timeout(deliveryTimeout))
+					.map(response -> new Delivery(row, null))
+					.onErrorResume(e -> Mono.just(new Delivery(row, e)))
+					.doOnNext(delivery -> deliveryTimer.record(Duration.ofNanos(System.nanoTime() - start)));
+		});
+	}
+
+	private void record(List<Delivery> deliveries) {
+		long now = System.currentTimeMillis();
+		for (Delivery delivery : deliveries) {
+			NotificationOutbox row = delivery.row();
+			row.setAttempts(row.getAttempts() + 1);
+			if (delivery.error() == null) {
+				row.setStatus(NotificationOutbox.STATUS_SENT);
+				row.setSentAt(new Timestamp(now));
+				row.setLastError(null);
+				count("delivered");
+			} else {
+				row.setLastError(abbreviate(String.valueOf(delivery.error().getMessage())));
+				if (row.getAttempts() >= maxAttempts) {
+					row.setStatus(NotificationOutbox.STATUS_FAILED);
+					LOGGER.warning("Giving up on notification after " + row.getAttempts() + " attempts: " + row);
+					count("failed");
+				} else {
+					row.setNextAttemptAt(new Timestamp(now + backoff(row.getAttempts()).toMillis()));
+					LOGGER.info("Notification delivery failed, will retry: " + row);
+					count("retry");
+				}
+			}
+		}
+		outboxRepo.saveAll(deliveries.stream().map(Delivery::row).toList());
+	}
+
+	private Duration backoff(int attempts) {
+		long delay = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+		delay = Math.min(delay, maxBackoff.toMillis());
+		// +/- 20% jitter so that rows failing together do not retry together
+		long jitter = (long) (delay * 0.2 * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+		return Duration.ofMillis(delay + jitter);
+	}
+
+	private void count(String result) {
+		Counter.builder("notification.outbox").tag("result", result).register(meterRegistry).increment();
+	}
+
+	private static String abbreviate(String message) {
+		return message.length() > 1000 ? message.substring(0, 1000) : message;
+	}
+
+	private record Delivery(NotificationOutbox row, Throwable error) {
+	}
+}
@@ -0,0 +1,65 @@
+package com.oneHealth.Appointments.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+/**
+ * The position of an appointment in the listing order (date, time, ID),
+ * handed to clients as an opaque token to continue a listing after it.
+ * Appointments without a date or time are listed after all others, by ID;
+ * their position has neither.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public record AppointmentCursor(LocalDate date, LocalTime time, long id) {
+
+	/**
+	 * The position of an appointment.
+	 */
+	public static AppointmentCursor of(Appointment appointment) {
+		if (appointment.getDate() == null || appointment.getAppointmentTime() == null) {
+			return new AppointmentCursor(null, null, appointment.getAppointment_id());
+		}
+		return new AppointmentCursor(appointment.getDate().toLocalDate(), appointment.getAppointmentTime().toLocalTime(),
+				appointment.getAppointment_id());
+	}
+
+	/**
+	 * Whether this is the position of an appointment with a date and time.
+	 */
+	public boolean isScheduled() {
+		return date != null && time != null;
+	}
+
+	/**
+	 * Reads a token created by {@link #encode()}.
+	 *
+	 * @throws IllegalArgumentException If the token is malformed.
+	 */
+	public static AppointmentCursor decode(String token) {
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+			if (parts.length != 3 || parts[0].isEmpty() != parts[1].isEmpty()) {
+				throw new IllegalArgumentException("Malformed cursor: " + token);
+			}
+			return parts[0].isEmpty() ? new AppointmentCursor(null, null, Long.parseLong(parts[2]))
+					: new AppointmentCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]),
+							Long.parseLong(parts[2]));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Malformed cursor: " + token, e);
+		}
+	}
+
+	/**
+	 * The token of this position.
+	 */
+	public String encode() {
+		String position = isScheduled() ? date + "|" + time + "|" + id : "||" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+}
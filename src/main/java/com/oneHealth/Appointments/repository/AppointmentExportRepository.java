@@ -0,0 +1,28 @@
+package com.oneHealth.Appointments.repository;
+
+import java.util.stream.Stream;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+/**
+ * Streaming read of appointments for exports, mixed into
+ * {@link AppointmentRepository}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public interface AppointmentExportRepository {
+
+	/**
+	 * Streams the matching appointments in ID order, fetching
+	 * {@code fetchSize} rows per round trip. Each appointment is detached from
+	 * the persistence context as it is handed out, so memory use does not grow
+	 * with the number of rows. Must be called in a transaction, which PostgreSQL
+	 * needs to read through a server-side cursor, and the stream must be closed.
+	 *
+	 * @param filter    The filters to apply.
+	 * @param fetchSize The number of rows fetched per round trip.
+	 * @return The appointments; close after use.
+	 */
+	Stream<Appointment> streamAll(AppointmentFilter filter, int fetchSize);
+}
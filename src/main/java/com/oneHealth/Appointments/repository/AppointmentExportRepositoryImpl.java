@@ -0,0 +1,42 @@
+package com.oneHealth.Appointments.repository;
+
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Criteria-based implementation of {@link AppointmentExportRepository}, over a
+ * forward-only, read-only result stream with a fixed fetch size.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentExportRepositoryImpl implements AppointmentExportRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Stream<Appointment> streamAll(AppointmentFilter filter, int fetchSize) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Appointment> query = cb.createQuery(Appointment.class);
+		Root<Appointment> appointment = query.from(Appointment.class);
+		query.select(appointment)
+				.where(AppointmentPageRepositoryImpl.filters(cb, appointment, filter).toArray(new Predicate[0]))
+				.orderBy(cb.asc(appointment.get("appointment_id")));
+		return entityManager.createQuery(query).setHint(HibernateHints.HINT_READ_ONLY, true)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize).getResultStream().map(row -> {
+					entityManager.detach(row);
+					return row;
+				});
+	}
+}
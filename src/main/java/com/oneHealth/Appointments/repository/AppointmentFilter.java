@@ -0,0 +1,23 @@
+package com.oneHealth.Appointments.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of an appointment listing; null fields do not filter.
+ *
+ * @param doctorId  Only appointments with this doctor.
+ * @param patientId Only appointments of this patient.
+ * @param status    Only appointments with this status.
+ * @param type      Only appointments of this type.
+ * @param from      Only appointments on or after this date.
+ * @param to        Only appointments on or before this date.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public record AppointmentFilter(Long doctorId, Long patientId, String status, String type, LocalDate from,
+		LocalDate to) {
+
+	/** Lists every appointment. */
+	public static final AppointmentFilter NONE = new AppointmentFilter(null, null, null, null, null, null);
+}
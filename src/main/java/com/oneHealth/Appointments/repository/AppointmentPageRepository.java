@@ -0,0 +1,28 @@
+package com.oneHealth.Appointments.repository;
+
+import java.util.List;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+/**
+ * Keyset-paginated listing of appointments, mixed into
+ * {@link AppointmentRepository}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public interface AppointmentPageRepository {
+
+	/**
+	 * Lists appointments in (date, time, ID) order, continuing after a cursor.
+	 * Each call reads at most {@code limit} rows through the index on those
+	 * columns, however deep into the listing the cursor is. Appointments without
+	 * a date or time are listed last, in ID order.
+	 *
+	 * @param filter The filters to apply.
+	 * @param after  The position to continue after, or null to start.
+	 * @param limit  The maximum number of appointments to return.
+	 * @return The next appointments, in order.
+	 */
+	List<Appointment> findPage(AppointmentFilter filter, AppointmentCursor after, int limit);
+}
@@ -0,0 +1,120 @@
+package com.oneHealth.Appointments.repository;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Criteria-based implementation of {@link AppointmentPageRepository}.
+ * Scheduled appointments come first: the cursor becomes the keyset predicate
+ * {@code date > d or (date = d and (time > t or (time = t and id > i)))}, so the
+ * database seeks straight to the next page instead of skipping an offset.
+ * Appointments without a date or time follow in ID order, once the scheduled
+ * ones are exhausted; their cursors carry only the ID. Rows are read-only:
+ * they are not dirty-checked, and the fetch size matches the page.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentPageRepositoryImpl implements AppointmentPageRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<Appointment> findPage(AppointmentFilter filter, AppointmentCursor after, int limit) {
+		List<Appointment> page = new ArrayList<>(limit);
+		if (after == null || after.isScheduled()) {
+			page.addAll(findScheduled(filter, after, limit));
+		}
+		if (page.size() < limit) {
+			Long afterId = after == null || after.isScheduled() ? null : after.id();
+			page.addAll(findUnscheduled(filter, afterId, limit - page.size()));
+		}
+		return page;
+	}
+
+	private List<Appointment> findScheduled(AppointmentFilter filter, AppointmentCursor after, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Appointment> query = cb.createQuery(Appointment.class);
+		Root<Appointment> appointment = query.from(Appointment.class);
+		Path<Date> date = appointment.get("date");
+		Path<Time> time = appointment.get("appointmentTime");
+		Path<Long> id = appointment.get("appointment_id");
+
+		List<Predicate> where = filters(cb, appointment, filter);
+		where.add(cb.isNotNull(date));
+		where.add(cb.isNotNull(time));
+		if (after != null) {
+			Date afterDate = Date.valueOf(after.date());
+			Time afterTime = Time.valueOf(after.time());
+			where.add(cb.or(cb.greaterThan(date, afterDate),
+					cb.and(cb.equal(date, afterDate), cb.or(cb.greaterThan(time, afterTime),
+							cb.and(cb.equal(time, afterTime), cb.greaterThan(id, after.id()))))));
+		}
+
+		query.select(appointment).where(where.toArray(new Predicate[0])).orderBy(cb.asc(date), cb.asc(time),
+				cb.asc(id));
+		return list(query, limit);
+	}
+
+	private List<Appointment> findUnscheduled(AppointmentFilter filter, Long afterId, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Appointment> query = cb.createQuery(Appointment.class);
+		Root<Appointment> appointment = query.from(Appointment.class);
+		Path<Long> id = appointment.get("appointment_id");
+
+		List<Predicate> where = filters(cb, appointment, filter);
+		where.add(cb.or(cb.isNull(appointment.get("date")), cb.isNull(appointment.get("appointmentTime"))));
+		if (afterId != null) {
+			where.add(cb.greaterThan(id, afterId));
+		}
+
+		query.select(appointment).where(where.toArray(new Predicate[0])).orderBy(cb.asc(id));
+		return list(query, limit);
+	}
+
+	private List<Appointment> list(CriteriaQuery<Appointment> query, int limit) {
+		return entityManager.createQuery(query).setMaxResults(limit).setHint(HibernateHints.HINT_READ_ONLY, true)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, limit).getResultList();
+	}
+
+	/**
+	 * The predicates of a filter; shared with the export.
+	 */
+	static List<Predicate> filters(CriteriaBuilder cb, Root<Appointment> appointment, AppointmentFilter filter) {
+		List<Predicate> where = new ArrayList<>();
+		if (filter.doctorId() != null) {
+			where.add(cb.equal(appointment.get("doctorId"), filter.doctorId()));
+		}
+		if (filter.patientId() != null) {
+			where.add(cb.equal(appointment.get("patientId"), filter.patientId()));
+		}
+		if (filter.status() != null) {
+			where.add(cb.equal(appointment.get("status"), filter.status()));
+		}
+		if (filter.type() != null) {
+			where.add(cb.equal(appointment.get("type"), filter.type()));
+		}
+		if (filter.from() != null) {
+			where.add(cb.greaterThanOrEqualTo(appointment.get("date"), Date.valueOf(filter.from())));
+		}
+		if (filter.to() != null) {
+			where.add(cb.lessThanOrEqualTo(appointment.get("date"), Date.valueOf(filter.to())));
+		}
+		return where;
+	}
+}
@@ -3,22 +3,29 @@ package com.oneHealth.Appointments.repository;
 import java.sql.Date;
 import java.sql.Time;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.oneHealth.Appointments.entity.Appointment;
 
 /**
  * Repository interface for handling database operations related to the
  * Appointment entity. This interface extends the JpaRepository to provide basic
- * CRUD operations on the Appointment table.
+ * CRUD operations on the Appointment table, {@link AppointmentPageRepository}
+ * for keyset-paginated listings, {@link AppointmentWindowRepository} for
+ * time-window queries and {@link AppointmentExportRepository} for streaming
+ * exports.
  * 
  * @author Anup
  * @version 1.0
  */
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentPageRepository,
+		AppointmentWindowRepository, AppointmentExportRepository {
 
 	/**
 	 * Find an appointment by patient ID.
@@ -71,70 +78,6 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 	 */
 	List<Appointment> findByPatientIdAndType(long patientId, String type);
 
-	// Retrieve a list of appointments based on the provided currentDate.
-	// The method returns appointments scheduled on the given currentDate.
-	List<Appointment> findByDate(LocalDate currentDate);
-
-	// Retrieve a list of upcoming appointments after the specified date with the
-	// given status.
-	// The method returns appointments that are scheduled after the provided date
-	// and have the specified status.
-	List<Appointment> findByDateAfterAndStatus(Date date, String status);
-
-	// Retrieve a list of upcoming appointments after the specified date for the
-	// given doctorId and status.
-	// The method returns appointments that are scheduled after the provided date,
-	// for the specified doctorId, and have the given status.
-	List<Appointment> findByDateAfterAndDoctorIdAndStatus(LocalDate date, long doctorId, String status);
-
-	// Retrieve a list of upcoming appointments after the specified date for the
-	// given doctorId, status, and type.
-	// The method returns appointments that are scheduled after the provided date,
-	// for the specified doctorId, have the given status, and belong to the
-	// specified type.
-	List<Appointment> findByDateAfterAndDoctorIdAndStatusAndType(Date date, long doctorId, String status, String type);
-
-	List<Appointment> findByDateAndDoctorIdAndStatusAndType(Date date, long doctorId, String status, String type);
-
-	/**
-	 * Retrieves a list of appointments for a specific date, doctor ID, and status.
-	 *
-	 * @param currentDate The specific date for which to retrieve appointments.
-	 * @param doctorId    The ID of the doctor for whom to retrieve the
-	 *                    appointments.
-	 * @param status      The status of the appointments to retrieve (e.g.,
-	 *                    "Accepted", "Pending", etc.).
-	 * @return List<Appointment> A list of appointments matching the specified
-	 *         criteria.
-	 */
-	List<Appointment> findByDateAndDoctorIdAndStatus(LocalDate currentDate, long doctorId, String status);
-
-	/**
-	 * Retrieves a list of appointments for a specific date, patient ID, and status.
-	 *
-	 * @param date      The specific date for which to retrieve appointments.
-	 * @param patientId The ID of the patient for whom to retrieve the appointments.
-	 * @param status    The status of the appointments to retrieve (e.g.,
-	 *                  "Accepted", "Pending", etc.).
-	 * @return List<Appointment> A list of appointments matching the specified
-	 *         criteria.
-	 */
-	List<Appointment> findByDateAndPatientIdAndStatus(LocalDate date, long patientId, String status);
-
-	/**
-	 * Retrieves a list of upcoming appointments for a specific date, patient ID,
-	 * and status.
-	 *
-	 * @param date      The specific date for which to retrieve upcoming
-	 *                  appointments.
-	 * @param patientId The ID of the patient for whom to retrieve the appointments.
-	 * @param status    The status of the appointments to retrieve (e.g.,
-	 *                  "Accepted", "Pending", etc.).
-	 * @return List<Appointment> A list of upcoming appointments matching the
-	 *         specified criteria.
-	 */
-	List<Appointment> findByDateAfterAndPatientIdAndStatus(Date date, long patientId, String status);
-
 	/**
 	 * Retrieves a count of upcoming appointments for a specific date, Doctor ID,
 	 * and status.
@@ -149,37 +92,39 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 	long countByDoctorIdAndStatusAndDate(long doctorId, String status, LocalDate date);
 
 	/**
-	 * Retrieves a list of appointments for a patient ID, and status.
+	 * Counts the upcoming appointments of a doctor with a status, without loading
+	 * them.
 	 *
-	 * @param patientId The ID of the patient for whom to retrieve the appointments.
-	 * @param status    The status of the appointments to retrieve (e.g.,
-	 *                  "Accepted", "Pending", etc.).
-	 * @return List<Appointment> A list of appointments matching the specified
-	 *         criteria.
+	 * @param date     The day after which appointments are upcoming.
+	 * @param doctorId The ID of the doctor.
+	 * @param status   The status of the appointments to count.
+	 * @return The number of matching appointments.
 	 */
-	List<Appointment> findByPatientIdAndStatus(long patientId, String status);
+	long countByDateAfterAndDoctorIdAndStatus(LocalDate date, long doctorId, String status);
 
 	/**
-	 * Retrieves a list of upcoming appointments for a specific date, patient ID.
+	 * Counts a doctor's appointments per status, for the given day, after it and
+	 * overall, in one aggregate query over the doctor's index entries.
 	 *
-	 * @param date      The specific date for which to retrieve upcoming
-	 *                  appointments.
-	 * @param patientId The ID of the patient for whom to retrieve the appointments.
-	 * @return List<Appointment> A list of upcoming appointments matching the
-	 *         specified criteria.
+	 * @param doctorId The ID of the doctor.
+	 * @param today    The day counted as today.
+	 * @return One row per status the doctor has appointments in.
 	 */
-	List<Appointment> findByDateAndPatientId(LocalDate date, long patientId);
+	@Query("select a.status as status, sum(case when a.date = :today then 1 else 0 end) as today,"
+			+ " sum(case when a.date > :today then 1 else 0 end) as upcoming, count(a) as total"
+			+ " from Appointment a where a.doctorId = :doctorId group by a.status")
+	List<DoctorStatusCounts> countByStatusForDoctor(@Param("doctorId") long doctorId, @Param("today") Date today);
 
 	/**
-	 * Retrieves a list of upcoming appointments for a specific date, patient ID.
+	 * Retrieves a list of appointments for a patient ID, and status.
 	 *
-	 * @param date      The specific date for which to retrieve upcoming
-	 *                  appointments.
 	 * @param patientId The ID of the patient for whom to retrieve the appointments.
-	 * @return List<Appointment> A list of upcoming appointments matching the
-	 *         specified criteria.
+	 * @param status    The status of the appointments to retrieve (e.g.,
+	 *                  "Accepted", "Pending", etc.).
+	 * @return List<Appointment> A list of appointments matching the specified
+	 *         criteria.
 	 */
-	List<Appointment> findByDateAfterAndPatientId(LocalDate currentDate, long patientId);
+	List<Appointment> findByPatientIdAndStatus(long patientId, String status);
 
 	/**
 	 * Checks If Appointment Already exists or not
@@ -197,6 +142,24 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 	 */
 	List<Appointment> findByDoctorIdAndDate(long doctorId, Date date);
 
-	List<Appointment> findAllAppointmentsByDoctorIdAndTypeAndStatusAndDate(long doctorId, String type, String status, Date todayDate);
+	/**
+	 * Retrieves the appointments of any of the given doctors on any of the given
+	 * dates in one query, e.g. to check all slots of a treatment plan at once.
+	 *
+	 * @param doctorIds The IDs of the doctors.
+	 * @param dates     The dates.
+	 * @return List<Appointment> A list of appointments matching the criteria.
+	 */
+	List<Appointment> findByDoctorIdInAndDateIn(Collection<Long> doctorIds, Collection<Date> dates);
+
+	/**
+	 * Retrieves only the booked appointment times of a doctor on a specific date.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @param date     The date of the appointments.
+	 * @return List<Time> The booked appointment times.
+	 */
+	@Query("select a.appointmentTime from Appointment a where a.doctorId = :doctorId and a.date = :date")
+	List<Time> findAppointmentTimesByDoctorIdAndDate(@Param("doctorId") long doctorId, @Param("date") Date date);
 
 }
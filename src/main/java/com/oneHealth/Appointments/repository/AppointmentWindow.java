@@ -0,0 +1,41 @@
+package com.oneHealth.Appointments.repository;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * A time-window query over appointments; null fields do not filter.
+ *
+ * @param doctorId  Only appointments with this doctor.
+ * @param patientId Only appointments of this patient.
+ * @param statuses  Only appointments with one of these statuses; null or empty
+ *                  for any status.
+ * @param type      Only appointments of this type.
+ * @param from      Only appointments on or after this date.
+ * @param to        Only appointments on or before this date.
+ * @param direction The order by (date, time, ID); null for ascending.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public record AppointmentWindow(Long doctorId, Long patientId, Set<String> statuses, String type, LocalDate from,
+		LocalDate to, Sort.Direction direction) {
+
+	/**
+	 * The appointments of a doctor with one status, from one date to another.
+	 */
+	public static AppointmentWindow ofDoctor(long doctorId, String status, LocalDate from, LocalDate to) {
+		return new AppointmentWindow(doctorId, null, Set.of(status), null, from, to, Sort.Direction.ASC);
+	}
+
+	/**
+	 * The appointments of a patient with one status (any if null), from one date
+	 * to another.
+	 */
+	public static AppointmentWindow ofPatient(long patientId, String status, LocalDate from, LocalDate to) {
+		return new AppointmentWindow(null, patientId, status == null ? null : Set.of(status), null, from, to,
+				Sort.Direction.ASC);
+	}
+}
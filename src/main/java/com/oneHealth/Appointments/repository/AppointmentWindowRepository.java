@@ -0,0 +1,25 @@
+package com.oneHealth.Appointments.repository;
+
+import java.util.List;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+/**
+ * Time-window queries over appointments, mixed into
+ * {@link AppointmentRepository}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public interface AppointmentWindowRepository {
+
+	/**
+	 * Lists the appointments of a time window in one ordered query, e.g. today's
+	 * and upcoming appointments together instead of one query for each.
+	 *
+	 * @param window The window and filters.
+	 * @return The appointments, ordered by (date, time, ID) in the window's
+	 *         direction.
+	 */
+	List<Appointment> findWindow(AppointmentWindow window);
+}
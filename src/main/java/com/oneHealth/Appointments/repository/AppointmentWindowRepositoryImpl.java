@@ -0,0 +1,51 @@
+package com.oneHealth.Appointments.repository;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Criteria-based implementation of {@link AppointmentWindowRepository}. The
+ * date bounds become a range predicate on the date column, so a doctor's or
+ * patient's window is one range scan of their index; several statuses become
+ * an IN list.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class AppointmentWindowRepositoryImpl implements AppointmentWindowRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<Appointment> findWindow(AppointmentWindow window) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Appointment> query = cb.createQuery(Appointment.class);
+		Root<Appointment> appointment = query.from(Appointment.class);
+
+		List<Predicate> where = AppointmentPageRepositoryImpl.filters(cb, appointment, new AppointmentFilter(
+				window.doctorId(), window.patientId(), null, window.type(), window.from(), window.to()));
+		if (window.statuses() != null && !window.statuses().isEmpty()) {
+			where.add(appointment.get("status").in(window.statuses()));
+		}
+
+		boolean descending = window.direction() == Sort.Direction.DESC;
+		List<Order> order = List.of("date", "appointmentTime", "appointment_id").stream()
+				.map(column -> descending ? cb.desc(appointment.get(column)) : cb.asc(appointment.get(column)))
+				.toList();
+		query.select(appointment).where(where.toArray(new Predicate[0])).orderBy(order);
+		return entityManager.createQuery(query).setHint(HibernateHints.HINT_READ_ONLY, true).getResultList();
+	}
+}
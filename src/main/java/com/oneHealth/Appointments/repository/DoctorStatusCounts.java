@@ -0,0 +1,22 @@
+package com.oneHealth.Appointments.repository;
+
+/**
+ * Appointment counts of one doctor for one status, as aggregated by
+ * {@link AppointmentRepository#countByStatusForDoctor}.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public interface DoctorStatusCounts {
+
+	String getStatus();
+
+	/** Appointments on the given day. */
+	Long getToday();
+
+	/** Appointments after the given day. */
+	Long getUpcoming();
+
+	/** All appointments. */
+	Long getTotal();
+}
@@ -0,0 +1,100 @@
+package com.oneHealth.Appointments.repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository interface for handling database operations related to the
+ * NotificationOutbox entity.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+	/**
+	 * Locks the next batch of notifications that are due for delivery. Rows
+	 * already locked by another replica are skipped instead of waited on.
+	 *
+	 * @param status The status of the notifications to claim.
+	 * @param now    Only notifications due at or before this instant are claimed.
+	 * @param page   The batch size.
+	 * @return The claimed notifications, oldest first.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	List<NotificationOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderById(String status, Timestamp now,
+			Pageable page);
+
+	/**
+	 * Locks the notifications of one digest group. Rows already locked by another
+	 * replica are skipped instead of waited on.
+	 *
+	 * @param status    The status of the notifications to claim.
+	 * @param digestKey The digest group (doctor ID).
+	 * @return The claimed notifications, oldest first.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	List<NotificationOutbox> findByStatusAndDigestKeyOrderById(String status, Long digestKey);
+
+	/**
+	 * Locks the notification of one appointment awaiting enrichment, if it is
+	 * due. A row already locked by another replica is skipped instead of waited
+	 * on.
+	 *
+	 * @param appointmentId The appointment the notification is about.
+	 * @param path          The email service path of the notification.
+	 * @param status        The status of the notification to claim.
+	 * @param now           Only a notification due at or before this instant is
+	 *                      claimed.
+	 * @return The claimed notification, if any.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	List<NotificationOutbox> findByAppointmentIdAndPathAndStatusAndNextAttemptAtLessThanEqual(long appointmentId,
+			String path, String status, Timestamp now);
+
+	/**
+	 * Finds the notifications of one appointment sent to the given email service
+	 * path.
+	 */
+	List<NotificationOutbox> findByAppointmentIdAndPath(long appointmentId, String path);
+
+	/**
+	 * Finds the digest groups that hold at least one notification created at or
+	 * before the cutoff, i.e. whose digest window has closed.
+	 */
+	@Query("select distinct o.digestKey from NotificationOutbox o where o.status = :status and o.createdAt <= :cutoff")
+	List<Long> findDigestKeysDue(@Param("status") String status, @Param("cutoff") Timestamp cutoff);
+
+	/**
+	 * Counts notifications in the given status.
+	 */
+	long countByStatus(String status);
+
+	/**
+	 * Removes notifications in any of the given statuses created before the
+	 * cutoff.
+	 *
+	 * @return The number of removed rows.
+	 */
+	@Modifying
+	@Query("delete from NotificationOutbox o where o.status in :statuses and o.createdAt < :cutoff")
+	int deleteByStatusInAndCreatedAtBefore(@Param("statuses") Collection<String> statuses,
+			@Param("cutoff") Timestamp cutoff);
+}
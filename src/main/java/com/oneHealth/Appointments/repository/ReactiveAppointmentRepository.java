@@ -0,0 +1,130 @@
+package com.oneHealth.Appointments.repository;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read access to the appointment table over R2DBC, next to the
+ * JPA {@link AppointmentRepository} used by everything that writes. Queries
+ * run on the R2DBC connection pool and never hold a thread while the database
+ * works, so many concurrent dashboard clients are served by a few event-loop
+ * threads. Rows are mapped by hand onto the {@link Appointment} entity, which
+ * stays a plain JPA entity.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Repository
+public class ReactiveAppointmentRepository {
+
+	private static final String SELECT = "select appointment_id, doctor_id, patient_id, patient_name, age, gender,"
+			+ " description, date, appointment_time, status, type, payment_mode, transaction_id, address,"
+			+ " amount_paid, doctor_name from appointment";
+
+	private static final String ORDER = " order by date, appointment_time, appointment_id";
+
+	@Autowired
+	private DatabaseClient client;
+
+	/**
+	 * Streams the appointments of a doctor with the given status.
+	 */
+	public Flux<Appointment> findByDoctorIdAndStatus(long doctorId, String status) {
+		return client.sql(SELECT + " where doctor_id = :doctorId and status = :status" + ORDER)
+				.bind("doctorId", doctorId).bind("status", status).map(ReactiveAppointmentRepository::toAppointment)
+				.all();
+	}
+
+	/**
+	 * Streams the appointments of a patient with the given status.
+	 */
+	public Flux<Appointment> findByPatientIdAndStatus(long patientId, String status) {
+		return client.sql(SELECT + " where patient_id = :patientId and status = :status" + ORDER)
+				.bind("patientId", patientId).bind("status", status).map(ReactiveAppointmentRepository::toAppointment)
+				.all();
+	}
+
+	/**
+	 * Streams the appointments of a doctor with the given status on one day.
+	 */
+	public Flux<Appointment> findByDateAndDoctorIdAndStatus(LocalDate date, long doctorId, String status) {
+		return client.sql(SELECT + " where date = :date and doctor_id = :doctorId and status = :status" + ORDER)
+				.bind("date", date).bind("doctorId", doctorId).bind("status", status)
+				.map(ReactiveAppointmentRepository::toAppointment).all();
+	}
+
+	/**
+	 * Streams the appointments of a doctor with the given status after a day.
+	 */
+	public Flux<Appointment> findByDateAfterAndDoctorIdAndStatus(LocalDate date, long doctorId, String status) {
+		return client.sql(SELECT + " where date > :date and doctor_id = :doctorId and status = :status" + ORDER)
+				.bind("date", date).bind("doctorId", doctorId).bind("status", status)
+				.map(ReactiveAppointmentRepository::toAppointment).all();
+	}
+
+	/**
+	 * Counts the appointments of a doctor with the given status on one day.
+	 */
+	public Mono<Long> countByDateAndDoctorIdAndStatus(LocalDate date, long doctorId, String status) {
+		return client.sql("select count(*) from appointment where date = :date and doctor_id = :doctorId"
+				+ " and status = :status").bind("date", date).bind("doctorId", doctorId).bind("status", status)
+				.map(row -> row.get(0, Long.class)).one();
+	}
+
+	/**
+	 * Counts the appointments of a doctor with the given status after a day.
+	 */
+	public Mono<Long> countByDateAfterAndDoctorIdAndStatus(LocalDate date, long doctorId, String status) {
+		return client.sql("select count(*) from appointment where date > :date and doctor_id = :doctorId"
+				+ " and status = :status").bind("date", date).bind("doctorId", doctorId).bind("status", status)
+				.map(row -> row.get(0, Long.class)).one();
+	}
+
+	/**
+	 * Streams the booked appointment times of a doctor on one day, in order.
+	 */
+	public Flux<Time> findAppointmentTimesByDoctorIdAndDate(long doctorId, LocalDate date) {
+		return client.sql("select appointment_time from appointment where doctor_id = :doctorId and date = :date"
+				+ " and appointment_time is not null order by appointment_time").bind("doctorId", doctorId)
+				.bind("date", date).map(row -> Time.valueOf(row.get(0, LocalTime.class))).all();
+	}
+
+	private static Appointment toAppointment(Readable row) {
+		Appointment appointment = new Appointment();
+		appointment.setAppointment_id(row.get("appointment_id", Long.class));
+		appointment.setDoctorId(row.get("doctor_id", Long.class));
+		appointment.setPatientId(row.get("patient_id", Long.class));
+		appointment.setPatient_name(row.get("patient_name", String.class));
+		appointment.setAge(intValue(row.get("age", Integer.class)));
+		appointment.setGender(row.get("gender", String.class));
+		appointment.setDescription(row.get("description", String.class));
+		LocalDate date = row.get("date", LocalDate.class);
+		appointment.setDate(date == null ? null : Date.valueOf(date));
+		LocalTime time = row.get("appointment_time", LocalTime.class);
+		appointment.setAppointmentTime(time == null ? null : Time.valueOf(time));
+		appointment.setStatus(row.get("status", String.class));
+		appointment.setType(row.get("type", String.class));
+		appointment.setPayment_mode(row.get("payment_mode", String.class));
+		appointment.setTransaction_id(row.get("transaction_id", String.class));
+		appointment.setAddress(row.get("address", String.class));
+		appointment.setAmount_paid(intValue(row.get("amount_paid", Integer.class)));
+		appointment.setDoctorName(row.get("doctor_name", String.class));
+		return appointment;
+	}
+
+	private static int intValue(Integer value) {
+		return value == null ? 0 : value;
+	}
+}
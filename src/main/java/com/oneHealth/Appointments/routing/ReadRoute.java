@@ -0,0 +1,60 @@
+package com.oneHealth.Appointments.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins the reads of the current thread to the primary database. Read-only
+ * transactions normally go to the replica (see
+ * {@link ReadWriteRoutingDataSource}); the {@link ReadYourWritesInterceptor}
+ * pins requests that must see recent writes, and write paths pin the lookups
+ * they modify. A pin only affects connections taken after it was set: a
+ * read-only transaction that already reads the replica stays there.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public final class ReadRoute {
+
+	private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+	private ReadRoute() {
+	}
+
+	/**
+	 * Sends the reads of the current thread to the primary until
+	 * {@link #clear()}.
+	 */
+	public static void pinToPrimary() {
+		PRIMARY.set(Boolean.TRUE);
+	}
+
+	/**
+	 * Lets the reads of the current thread go to the replica again.
+	 */
+	public static void clear() {
+		PRIMARY.remove();
+	}
+
+	/**
+	 * Whether the reads of the current thread go to the primary.
+	 */
+	public static boolean isPinnedToPrimary() {
+		return PRIMARY.get() != null;
+	}
+
+	/**
+	 * Runs a read against the primary, e.g. the lookup of a row that is about
+	 * to be modified or that was just written.
+	 */
+	public static <T> T onPrimary(Supplier<T> read) {
+		if (isPinnedToPrimary()) {
+			return read.get();
+		}
+		pinToPrimary();
+		try {
+			return read.get();
+		} finally {
+			clear();
+		}
+	}
+}
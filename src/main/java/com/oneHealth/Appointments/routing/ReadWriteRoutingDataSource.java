@@ -0,0 +1,86 @@
+package com.oneHealth.Appointments.routing;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands out connections of the replica pool to read-only transactions
+ * ({@code @Transactional(readOnly = true)}) and of the primary pool to
+ * everything else. Reads still go to the primary while the thread is pinned
+ * ({@link ReadRoute}) or while the replica is unreachable or further behind
+ * than allowed.
+ * <p>
+ * The route is chosen when a connection is taken, so this must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for a
+ * connection before the read-only flag of the transaction is bound.
+ * <p>
+ * Routed connections are counted by "datasource.connections.routed", tagged
+ * with target=primary|replica and reason=read_write|read_only|pinned|
+ * replica_unusable.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	private enum Target {
+		PRIMARY, REPLICA
+	}
+
+	private final BooleanSupplier replicaUsable;
+
+	private final Counter readWrite;
+
+	private final Counter readOnly;
+
+	private final Counter pinned;
+
+	private final Counter replicaUnusable;
+
+	/**
+	 * @param primary       The pool of the primary database.
+	 * @param replica       The pool of the read replica.
+	 * @param replicaUsable Whether the replica may serve reads right now.
+	 */
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaUsable,
+			MeterRegistry meterRegistry) {
+		setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		this.replicaUsable = replicaUsable;
+		readWrite = routed(meterRegistry, Target.PRIMARY, "read_write");
+		readOnly = routed(meterRegistry, Target.REPLICA, "read_only");
+		pinned = routed(meterRegistry, Target.PRIMARY, "pinned");
+		replicaUnusable = routed(meterRegistry, Target.PRIMARY, "replica_unusable");
+	}
+
+	private static Counter routed(MeterRegistry meterRegistry, Target target, String reason) {
+		return Counter.builder("datasource.connections.routed").tag("target", target.name().toLowerCase())
+				.tag("reason", reason).register(meterRegistry);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			readWrite.increment();
+			return Target.PRIMARY;
+		}
+		if (ReadRoute.isPinnedToPrimary()) {
+			pinned.increment();
+			return Target.PRIMARY;
+		}
+		if (!replicaUsable.getAsBoolean()) {
+			replicaUnusable.increment();
+			return Target.PRIMARY;
+		}
+		readOnly.increment();
+		return Target.REPLICA;
+	}
+}
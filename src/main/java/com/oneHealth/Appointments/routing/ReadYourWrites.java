@@ -0,0 +1,96 @@
+package com.oneHealth.Appointments.routing;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Remembers, for {@code replica.read-your-writes.window}, which client
+ * sessions have written and which doctors and patients had an appointment
+ * change; their reads are served by the primary meanwhile (see
+ * {@link ReadYourWritesInterceptor}). The window should outlast
+ * {@code replica.max-lag} plus one probe interval, after which the replica is
+ * known to have the write if it serves reads at all.
+ * <p>
+ * Changes are recorded once they commit and before the ETags of the doctor
+ * and patient move on, so a client told about a change never reads an older
+ * copy. Like the ETags, this only knows about writes made through this
+ * instance.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty("replica.datasource.url")
+public class ReadYourWrites {
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${replica.read-your-writes.window:PT5S}")
+	private Duration window;
+
+	@Value("${replica.read-your-writes.maximum-size:100000}")
+	private long maximumSize;
+
+	private Cache<String, Boolean> recentWriters;
+
+	@PostConstruct
+	void init() {
+		recentWriters = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder().maximumSize(maximumSize)
+				.expireAfterWrite(window).recordStats().build(), "recentWriters");
+	}
+
+	/**
+	 * Records that a client session has just written.
+	 */
+	public void sessionWrote(String sessionId) {
+		recentWriters.put("s" + sessionId, Boolean.TRUE);
+	}
+
+	/**
+	 * Whether the client session wrote within the window.
+	 */
+	public boolean sessionWroteRecently(String sessionId) {
+		return recentWriters.getIfPresent("s" + sessionId) != null;
+	}
+
+	/**
+	 * Whether an appointment of the doctor changed within the window.
+	 */
+	public boolean doctorChangedRecently(long doctorId) {
+		return recentWriters.getIfPresent("d" + doctorId) != null;
+	}
+
+	/**
+	 * Whether an appointment of the patient changed within the window.
+	 */
+	public boolean patientChangedRecently(long patientId) {
+		return recentWriters.getIfPresent("p" + patientId) != null;
+	}
+
+	/**
+	 * Records the doctor and the patient of a change, once it has committed.
+	 */
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onAppointmentChanged(AppointmentChangedEvent event) {
+		recentWriters.put("d" + event.doctorId(), Boolean.TRUE);
+		recentWriters.put("p" + event.patientId(), Boolean.TRUE);
+	}
+}
@@ -0,0 +1,98 @@
+package com.oneHealth.Appointments.routing;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pins a request's reads to the primary ({@link ReadRoute}) when it must see
+ * recent writes:
+ * <ul>
+ * <li>it writes itself (any method but GET, HEAD, OPTIONS and TRACE), so the
+ * rows it modifies are read where they are written;</li>
+ * <li>its client session, named by the {@value #SESSION_HEADER} header, wrote
+ * within the read-your-writes window, e.g. just booked an appointment;</li>
+ * <li>it lists a doctor or patient ({@code {doctorId}} or {@code {patientId}}
+ * path variable) whose appointments changed within the window.</li>
+ * </ul>
+ * Requests of a session that write mark the session once they complete.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty("replica.datasource.url")
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+	public static final String SESSION_HEADER = "X-Session-Id";
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		String session = session(request);
+		if (writes(request) || (session != null && readYourWrites.sessionWroteRecently(session))
+				|| ownerChangedRecently(request)) {
+			ReadRoute.pinToPrimary();
+		}
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		ReadRoute.clear();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		ReadRoute.clear();
+		String session = session(request);
+		if (session != null && writes(request)) {
+			readYourWrites.sessionWrote(session);
+		}
+	}
+
+	private static String session(HttpServletRequest request) {
+		String session = request.getHeader(SESSION_HEADER);
+		return session == null || session.isBlank() ? null : session.trim();
+	}
+
+	private static boolean writes(HttpServletRequest request) {
+		return switch (request.getMethod()) {
+		case "GET", "HEAD", "OPTIONS", "TRACE" -> false;
+		default -> true;
+		};
+	}
+
+	private boolean ownerChangedRecently(HttpServletRequest request) {
+		@SuppressWarnings("unchecked")
+		Map<String, String> variables = (Map<String, String>) request
+				.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		if (variables == null) {
+			return false;
+		}
+		try {
+			if (variables.containsKey("doctorId")
+					&& readYourWrites.doctorChangedRecently(Long.parseLong(variables.get("doctorId")))) {
+				return true;
+			}
+			if (variables.containsKey("patientId")
+					&& readYourWrites.patientChangedRecently(Long.parseLong(variables.get("patientId")))) {
+				return true;
+			}
+		} catch (NumberFormatException e) {
+			// Left to the handler, which answers 400
+		}
+		return false;
+	}
+}
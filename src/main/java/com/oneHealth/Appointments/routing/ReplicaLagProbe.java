@@ -0,0 +1,121 @@
+package com.oneHealth.Appointments.routing;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Measures how far the read replica is behind the primary. Every
+ * {@code replica.lag.probe-interval} the heartbeat row is stamped with the
+ * current time on the primary and read back from the replica; the lag is the
+ * age of the oldest stamp written here that the replica has not applied yet,
+ * and zero once it has applied all of them.
+ * <p>
+ * The replica serves reads only while it answers and its lag is within
+ * {@code replica.max-lag}. The lag is published as the
+ * "datasource.replica.lag" gauge (NaN while the replica is unreachable), and
+ * "datasource.replica.usable" is 1 while reads go there.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public class ReplicaLagProbe {
+	private static final Logger LOGGER = Logger.getLogger(ReplicaLagProbe.class.getName());
+
+	private static final int MAX_PENDING_BEATS = 1024;
+
+	private final JdbcTemplate primary;
+
+	private final JdbcTemplate replica;
+
+	private final Duration maxLag;
+
+	private final Deque<Long> pendingBeats = new ArrayDeque<>();
+
+	private volatile long lagMillis = -1;
+
+	/**
+	 * @param primary The pool of the primary database.
+	 * @param replica The pool of the read replica.
+	 * @param maxLag  How far behind the replica may be and still serve reads.
+	 */
+	public ReplicaLagProbe(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+		this.primary = new JdbcTemplate(primary);
+		this.replica = new JdbcTemplate(replica);
+		this.maxLag = maxLag;
+		TimeGauge.builder("datasource.replica.lag", this, TimeUnit.MILLISECONDS,
+				probe -> probe.lagMillis < 0 ? Double.NaN : probe.lagMillis).register(meterRegistry);
+		Gauge.builder("datasource.replica.usable", this, probe -> probe.replicaUsable() ? 1 : 0)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Stamps the heartbeat on the primary and measures how far the replica is
+	 * behind it.
+	 */
+	@Scheduled(fixedDelayString = "${replica.lag.probe-interval:PT1S}")
+	public synchronized void probe() {
+		long beat = System.currentTimeMillis();
+		try {
+			primary.update("update replication_heartbeat set beat_millis = ? where id = 1", beat);
+		} catch (DataAccessException e) {
+			LOGGER.warning("Could not stamp the replication heartbeat: " + e.getMessage());
+			return;
+		}
+		pendingBeats.addLast(beat);
+		if (pendingBeats.size() > MAX_PENDING_BEATS) {
+			pendingBeats.removeFirst();
+		}
+
+		long replicated;
+		try {
+			replicated = replica.queryForObject("select beat_millis from replication_heartbeat where id = 1",
+					Long.class);
+		} catch (DataAccessException e) {
+			if (lagMillis >= 0) {
+				LOGGER.warning("Read replica unreachable, reads go to the primary: " + e.getMessage());
+			}
+			lagMillis = -1;
+			return;
+		}
+		while (!pendingBeats.isEmpty() && pendingBeats.peekFirst() <= replicated) {
+			pendingBeats.removeFirst();
+		}
+		boolean wasUsable = replicaUsable();
+		lagMillis = pendingBeats.isEmpty() ? 0 : Math.max(0, System.currentTimeMillis() - pendingBeats.peekFirst());
+		if (wasUsable != replicaUsable()) {
+			LOGGER.info("Read replica lag " + lagMillis + " ms, reads go to the "
+					+ (replicaUsable() ? "replica" : "primary"));
+		}
+	}
+
+	/**
+	 * The last measured lag, or null while the replica is unreachable or not
+	 * probed yet.
+	 */
+	public Duration lag() {
+		long lag = lagMillis;
+		return lag < 0 ? null : Duration.ofMillis(lag);
+	}
+
+	/**
+	 * Whether the replica answered the last probe and was at most
+	 * {@code replica.max-lag} behind.
+	 */
+	public boolean replicaUsable() {
+		long lag = lagMillis;
+		return lag >= 0 && lag <= maxLag.toMillis();
+	}
+}
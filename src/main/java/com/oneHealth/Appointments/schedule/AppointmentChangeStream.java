@@ -0,0 +1,272 @@
+package com.oneHealth.Appointments.schedule;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.oneHealth.Appointments.DTO.AppointmentChangeDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Pushes committed appointment changes to the subscribers of a doctor or a
+ * patient as Server-Sent Events, after the {@link DoctorScheduleCache} and
+ * the {@link AppointmentVersions} have caught up, so a subscriber that
+ * refetches on an event sees the change.
+ * <p>
+ * Every change gets an ID of the form {@code <instance>-<sequence>}, and the
+ * last {@code appointments.events.replay-size} changes are kept in a ring, so
+ * a client reconnecting with {@code Last-Event-ID} gets what it missed. When
+ * the ID is not in the ring any more, or was issued by another instance, the
+ * client is sent a {@value #RESYNC} event first and should reload its lists.
+ * <p>
+ * Each subscriber has its own buffer of
+ * {@code appointments.events.subscriber-buffer} changes on top of its replay.
+ * A subscriber that falls that far behind is disconnected instead of slowing
+ * down the others, and resumes with its Last-Event-ID. A heartbeat comment is
+ * sent every {@code appointments.events.heartbeat} to keep idle connections
+ * open through proxies. At most {@code appointments.events.max-subscribers}
+ * streams are open at a time.
+ * <p>
+ * Metrics: the "appointments.events.subscribers" gauge and the
+ * "appointments.events" counter tagged with
+ * result=published|delivered|overflow|rejected.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class AppointmentChangeStream {
+	private static final Logger LOGGER = Logger.getLogger(AppointmentChangeStream.class.getName());
+
+	public static final String RESYNC = "RESYNC";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${appointments.events.replay-size:1024}")
+	private int replaySize;
+
+	@Value("${appointments.events.subscriber-buffer:256}")
+	private int subscriberBuffer;
+
+	@Value("${appointments.events.heartbeat:PT15S}")
+	private Duration heartbeat;
+
+	@Value("${appointments.events.max-subscribers:10000}")
+	private int maxSubscribers;
+
+	private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+	// Guarded by this
+	private final Deque<Entry> ring = new ArrayDeque<>();
+
+	// Guarded by this
+	private final List<Subscriber> subscribers = new ArrayList<>();
+
+	// Guarded by this
+	private long sequence;
+
+	@PostConstruct
+	void init() {
+		Gauge.builder("appointments.events.subscribers", this, AppointmentChangeStream::subscriberCount)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * The changes of a doctor's appointments, starting after the given event ID.
+	 *
+	 * @param doctorId    The ID of the doctor.
+	 * @param lastEventId The ID of the last event the client received, or null.
+	 * @return The events; never completes on its own.
+	 */
+	public Flux<ServerSentEvent<AppointmentChangeDTO>> doctor(long doctorId, String lastEventId) {
+		return subscribe(new Owner(doctorId, null), lastEventId);
+	}
+
+	/**
+	 * The changes of a patient's appointments, starting after the given event
+	 * ID.
+	 *
+	 * @param patientId   The ID of the patient.
+	 * @param lastEventId The ID of the last event the client received, or null.
+	 * @return The events; never completes on its own.
+	 */
+	public Flux<ServerSentEvent<AppointmentChangeDTO>> patient(long patientId, String lastEventId) {
+		return subscribe(new Owner(null, patientId), lastEventId);
+	}
+
+	/**
+	 * Records a committed change and hands it to the matching subscribers.
+	 */
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public synchronized void onAppointmentChanged(AppointmentChangedEvent event) {
+		Entry entry = new Entry(++sequence, event);
+		ring.addLast(entry);
+		if (ring.size() > replaySize) {
+			ring.removeFirst();
+		}
+		count("published");
+		// A failing subscriber unregisters itself on this thread, hence the copy
+		for (Subscriber subscriber : List.copyOf(subscribers)) {
+			if (subscriber.owner().matches(event) && !subscriber.offer(entry)) {
+				subscribers.remove(subscriber);
+			}
+		}
+	}
+
+	private Flux<ServerSentEvent<AppointmentChangeDTO>> subscribe(Owner owner, String lastEventId) {
+		return Flux.defer(() -> {
+			Subscriber subscriber = register(owner, lastEventId);
+			if (subscriber == null) {
+				count("rejected");
+				return Flux.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+						"Too many change stream subscribers"));
+			}
+			Flux<ServerSentEvent<AppointmentChangeDTO>> heartbeats = Flux.interval(heartbeat).onBackpressureDrop()
+					.map(tick -> ServerSentEvent.<AppointmentChangeDTO>builder().comment("heartbeat").build());
+			// Prefetch 1, so the subscriber's buffer is the only one; dropping fails the stream at once, even
+			// while changes are still buffered
+			return Flux.merge(1, subscriber.sink().asFlux().doOnNext(event -> count("delivered")),
+					subscriber.dropped().asMono().then(Mono.<ServerSentEvent<AppointmentChangeDTO>>empty()),
+					heartbeats).doFinally(signal -> unregister(subscriber));
+		});
+	}
+
+	private synchronized Subscriber register(Owner owner, String lastEventId) {
+		if (subscribers.size() >= maxSubscribers) {
+			return null;
+		}
+		List<Entry> replay = new ArrayList<>();
+		boolean resync = false;
+		Long after = parse(lastEventId);
+		if (lastEventId != null && !lastEventId.isBlank()) {
+			long oldest = ring.isEmpty() ? sequence + 1 : ring.peekFirst().sequence();
+			if (after == null || after < oldest - 1) {
+				resync = true;
+			} else {
+				for (Entry entry : ring) {
+					if (entry.sequence() > after && owner.matches(entry.event())) {
+						replay.add(entry);
+					}
+				}
+			}
+		}
+		Subscriber subscriber = new Subscriber(owner,
+				Sinks.many().unicast().onBackpressureBuffer(Queues.<ServerSentEvent<AppointmentChangeDTO>>get(
+						replay.size() + subscriberBuffer + 1).get()));
+		if (resync) {
+			subscriber.sink().tryEmitNext(ServerSentEvent.<AppointmentChangeDTO>builder().id(id(sequence))
+					.event(RESYNC).build());
+		}
+		replay.forEach(subscriber::offer);
+		subscribers.add(subscriber);
+		return subscriber;
+	}
+
+	private synchronized void unregister(Subscriber subscriber) {
+		subscribers.remove(subscriber);
+	}
+
+	private synchronized int subscriberCount() {
+		return subscribers.size();
+	}
+
+	/**
+	 * The sequence of an event ID issued by this instance, or null.
+	 */
+	private Long parse(String lastEventId) {
+		if (lastEventId == null || !lastEventId.startsWith(instance + "-")) {
+			return null;
+		}
+		try {
+			return Long.parseLong(lastEventId.substring(instance.length() + 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private String id(long sequence) {
+		return instance + "-" + sequence;
+	}
+
+	private void count(String result) {
+		Counter.builder("appointments.events").tag("result", result).register(meterRegistry).increment();
+	}
+
+	private record Entry(long sequence, AppointmentChangedEvent event) {
+	}
+
+	private record Owner(Long doctorId, Long patientId) {
+		boolean matches(AppointmentChangedEvent event) {
+			return doctorId != null ? doctorId == event.doctorId() : patientId == event.patientId();
+		}
+	}
+
+	private class Subscriber {
+		private final Owner owner;
+		private final Sinks.Many<ServerSentEvent<AppointmentChangeDTO>> sink;
+		private final Sinks.Empty<Void> dropped = Sinks.empty();
+
+		Subscriber(Owner owner, Sinks.Many<ServerSentEvent<AppointmentChangeDTO>> sink) {
+			this.owner = owner;
+			this.sink = sink;
+		}
+
+		Owner owner() {
+			return owner;
+		}
+
+		Sinks.Many<ServerSentEvent<AppointmentChangeDTO>> sink() {
+			return sink;
+		}
+
+		Sinks.Empty<Void> dropped() {
+			return dropped;
+		}
+
+		/**
+		 * Buffers a change for the subscriber; false if it fell too far behind
+		 * and was disconnected.
+		 */
+		boolean offer(Entry entry) {
+			AppointmentChangedEvent event = entry.event();
+			Sinks.EmitResult result = sink.tryEmitNext(ServerSentEvent.<AppointmentChangeDTO>builder()
+					.id(id(entry.sequence())).event(event.change().name())
+					.data(new AppointmentChangeDTO(event.change().name(), event.appointmentId(), event.doctorId(),
+							event.patientId(), event.status(), event.dates()))
+					.build());
+			if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+				count("overflow");
+				LOGGER.warning("Disconnecting a change stream subscriber that fell " + subscriberBuffer
+						+ " events behind");
+				dropped.tryEmitError(new IllegalStateException("Change stream subscriber fell behind"));
+				return false;
+			}
+			return result.isSuccess();
+		}
+	}
+}
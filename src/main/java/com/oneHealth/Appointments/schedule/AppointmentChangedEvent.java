@@ -0,0 +1,47 @@
+package com.oneHealth.Appointments.schedule;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+/**
+ * Published when an appointment was saved, changed or deleted, with every
+ * date it was on before or is on after the change.
+ *
+ * @param change        What happened to the appointment.
+ * @param appointmentId The ID of the appointment.
+ * @param doctorId      The ID of the doctor.
+ * @param patientId     The ID of the patient.
+ * @param status        The status of the appointment after the change.
+ * @param dates         The dates touched.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+public record AppointmentChangedEvent(Change change, long appointmentId, long doctorId, long patientId,
+		String status, Set<LocalDate> dates) {
+
+	/**
+	 * The kinds of appointment changes.
+	 */
+	public enum Change {
+		CREATED, STATUS_CHANGED, RESCHEDULED, UPDATED, DELETED
+	}
+
+	/**
+	 * The change of an appointment on the given dates; null dates are skipped.
+	 */
+	public static AppointmentChangedEvent of(Change change, Appointment appointment, Date... dates) {
+		Set<LocalDate> touched = new HashSet<>();
+		for (Date date : dates) {
+			if (date != null) {
+				touched.add(date.toLocalDate());
+			}
+		}
+		return new AppointmentChangedEvent(change, appointment.getAppointment_id(), appointment.getDoctorId(),
+				appointment.getPatientId(), appointment.getStatus(), Set.copyOf(touched));
+	}
+}
@@ -0,0 +1,93 @@
+package com.oneHealth.Appointments.schedule;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Version counters of the appointments of each doctor and each patient, from
+ * which the ETags of their listings are derived. A version moves on whenever
+ * an {@link AppointmentChangedEvent} touching the doctor or patient commits,
+ * after the {@link DoctorScheduleCache} has dropped the affected lists.
+ * <p>
+ * Versions are drawn from one instance-wide clock, so a counter that was
+ * evicted (at most {@code appointments.etag.maximum-size} are kept) comes
+ * back with a version no ETag was ever made from. An ETag also names this
+ * instance, the current date (listings of "today" change at midnight) and a
+ * time bucket of {@code appointments.etag.max-staleness}: writes made through
+ * other replicas are not counted here, so a tag is never trusted for longer
+ * than that.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class AppointmentVersions {
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${appointments.etag.maximum-size:100000}")
+	private long maximumSize;
+
+	@Value("${appointments.etag.max-staleness:PT30S}")
+	private Duration maxStaleness;
+
+	private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private Cache<String, Long> versions;
+
+	@PostConstruct
+	void init() {
+		versions = CaffeineCacheMetrics.monitor(meterRegistry,
+				Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build(), "appointmentVersions");
+	}
+
+	/**
+	 * The current ETag of a doctor's appointment listings.
+	 */
+	public String doctorETag(long doctorId) {
+		return etag("d" + doctorId);
+	}
+
+	/**
+	 * The current ETag of a patient's appointment listings.
+	 */
+	public String patientETag(long patientId) {
+		return etag("p" + patientId);
+	}
+
+	/**
+	 * Moves the versions of the doctor and the patient on, once the change has
+	 * committed.
+	 */
+	@Order(0)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onAppointmentChanged(AppointmentChangedEvent event) {
+		versions.put("d" + event.doctorId(), clock.incrementAndGet());
+		versions.put("p" + event.patientId(), clock.incrementAndGet());
+	}
+
+	private String etag(String owner) {
+		long version = versions.get(owner, key -> clock.incrementAndGet());
+		long bucket = System.currentTimeMillis() / Math.max(1, maxStaleness.toMillis());
+		return "\"" + owner + "-" + instance + "-" + version + "-" + LocalDate.now() + "-" + bucket + "\"";
+	}
+}
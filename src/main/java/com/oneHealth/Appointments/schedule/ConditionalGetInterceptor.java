@@ -0,0 +1,75 @@
+package com.oneHealth.Appointments.schedule;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GETs for the listings of one doctor or one patient, i.e. GET
+ * endpoints with a {@code {doctorId}} or {@code {patientId}} path variable.
+ * The response carries the {@link AppointmentVersions} ETag of the doctor (or
+ * else the patient), taken before the data is read; a request whose
+ * {@code If-None-Match} still matches it is answered with 304 Not Modified
+ * before the handler runs, without a query or serialisation.
+ * <p>
+ * Answers are counted by "appointments.conditional.requests" tagged with
+ * result=not_modified|modified.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+	@Autowired
+	private AppointmentVersions versions;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!(handler instanceof HandlerMethod)
+				|| !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+			return true;
+		}
+		String etag = etag(request);
+		if (etag == null) {
+			return true;
+		}
+		boolean notModified = new ServletWebRequest(request, response).checkNotModified(etag);
+		Counter.builder("appointments.conditional.requests").tag("result", notModified ? "not_modified" : "modified")
+				.register(meterRegistry).increment();
+		return !notModified;
+	}
+
+	private String etag(HttpServletRequest request) {
+		@SuppressWarnings("unchecked")
+		Map<String, String> variables = (Map<String, String>) request
+				.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		if (variables == null) {
+			return null;
+		}
+		try {
+			if (variables.containsKey("doctorId")) {
+				return versions.doctorETag(Long.parseLong(variables.get("doctorId")));
+			}
+			if (variables.containsKey("patientId")) {
+				return versions.patientETag(Long.parseLong(variables.get("patientId")));
+			}
+		} catch (NumberFormatException e) {
+			// Left to the handler, which answers 400
+		}
+		return null;
+	}
+}
@@ -0,0 +1,188 @@
+package com.oneHealth.Appointments.schedule;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oneHealth.Appointments.entity.Appointment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Caches the appointment lists of a doctor per (doctorId, date, status), so
+ * that schedule screens polling every few seconds are answered from memory.
+ * Lists covering all dates of a doctor are kept under a null date.
+ * <p>
+ * Cached lists are kept as snapshots: each reader gets its own copies of the
+ * appointments, so changing one does not change what other readers see. Lists
+ * are indexed by doctor and dropped precisely when an
+ * {@link AppointmentChangedEvent} touches the doctor and date: once the writing transaction has committed, or right away for writes
+ * outside a transaction. Each list remembers the invalidation generation of
+ * its doctor from before it was loaded: a list loaded before the latest
+ * invalidation is never handed out, and one whose load overlapped an
+ * invalidation is not kept. Invalidation runs before the
+ * {@link AppointmentVersions} of the change are bumped, so a reader that sees
+ * the new version never gets the old list; the generations also cover a list
+ * whose key an invalidation missed while it was being loaded. Writes made
+ * through other replicas are not seen here, so entries also expire after {@code appointments.schedule-cache.ttl}; at most
+ * {@code appointments.schedule-cache.maximum-size} lists are kept.
+ * <p>
+ * Metrics: the "doctorSchedules" cache metrics, the
+ * "doctor.schedules.hit.ratio" gauge and the "doctor.schedules.invalidated"
+ * counter.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class DoctorScheduleCache {
+	private static final Logger LOGGER = Logger.getLogger(DoctorScheduleCache.class.getName());
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${appointments.schedule-cache.maximum-size:10000}")
+	private long maximumSize;
+
+	@Value("${appointments.schedule-cache.ttl:PT30S}")
+	private Duration ttl;
+
+	private Cache<ScheduleKey, Schedule> schedules;
+
+	private Counter invalidated;
+
+	// The cached keys of each doctor; the sets are only touched inside compute
+	private final ConcurrentMap<Long, Set<ScheduleKey>> keysByDoctor = new ConcurrentHashMap<>();
+
+	// Invalidations per doctor (striped), to detect loads overlapping a change
+	private final AtomicLongArray generations = new AtomicLongArray(1024);
+
+	@PostConstruct
+	void init() {
+		schedules = CaffeineCacheMetrics.monitor(meterRegistry,
+				Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl)
+						.<ScheduleKey, Schedule>evictionListener((key, schedule, cause) -> unindex(key))
+						.recordStats().build(),
+				"doctorSchedules");
+		Gauge.builder("doctor.schedules.hit.ratio", schedules, cache -> cache.stats().hitRate())
+				.register(meterRegistry);
+		invalidated = Counter.builder("doctor.schedules.invalidated").register(meterRegistry);
+	}
+
+	/**
+	 * The appointments of a doctor with a status on a date, loaded once until
+	 * they change.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @param date     The date, or null for all dates.
+	 * @param status   The status of the appointments.
+	 * @param loader   Loads the appointments from the database.
+	 * @return The caller's own copy of the list.
+	 */
+	public List<Appointment> get(long doctorId, LocalDate date, String status, Supplier<List<Appointment>> loader) {
+		ScheduleKey key = new ScheduleKey(doctorId, date, status);
+		while (true) {
+			long generation = generations.get(stripe(doctorId));
+			Schedule schedule = schedules.get(key, k -> {
+				index(k);
+				return new Schedule(generation, loader.get().stream().map(DoctorScheduleCache::copy).toList());
+			});
+			if (schedule.generation() >= generation) {
+				if (generations.get(stripe(doctorId)) != schedule.generation()) {
+					schedules.asMap().remove(key, schedule);
+				}
+				return schedule.appointments().stream().map(DoctorScheduleCache::copy).toList();
+			}
+			// Loaded before the latest invalidation of the doctor
+			schedules.asMap().remove(key, schedule);
+		}
+	}
+
+	/**
+	 * Drops the lists of the doctor on the changed dates, and the doctor's
+	 * all-dates lists, once the change has committed.
+	 */
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onAppointmentChanged(AppointmentChangedEvent event) {
+		generations.incrementAndGet(stripe(event.doctorId()));
+		List<ScheduleKey> touched = new ArrayList<>();
+		keysByDoctor.computeIfPresent(event.doctorId(), (doctorId, keys) -> {
+			keys.removeIf(key -> (key.date() == null || event.dates().contains(key.date())) && touched.add(key));
+			return keys.isEmpty() ? null : keys;
+		});
+		int dropped = 0;
+		for (ScheduleKey key : touched) {
+			if (schedules.asMap().remove(key) != null) {
+				dropped++;
+			}
+		}
+		if (dropped > 0) {
+			invalidated.increment(dropped);
+			LOGGER.fine("Dropped " + dropped + " cached schedules of doctor " + event.doctorId());
+		}
+	}
+
+	private void index(ScheduleKey key) {
+		keysByDoctor.compute(key.doctorId(), (doctorId, keys) -> {
+			Set<ScheduleKey> indexed = keys == null ? new HashSet<>() : keys;
+			indexed.add(key);
+			return indexed;
+		});
+	}
+
+	private void unindex(ScheduleKey key) {
+		keysByDoctor.computeIfPresent(key.doctorId(), (doctorId, keys) -> {
+			keys.remove(key);
+			return keys.isEmpty() ? null : keys;
+		});
+	}
+
+	/**
+	 * A detached copy of the appointment, down to its mutable date and time.
+	 */
+	private static Appointment copy(Appointment appointment) {
+		Date date = appointment.getDate() == null ? null : new Date(appointment.getDate().getTime());
+		Time time = appointment.getAppointmentTime() == null ? null
+				: new Time(appointment.getAppointmentTime().getTime());
+		return new Appointment(appointment.getAppointment_id(), appointment.getDoctorId(),
+				appointment.getPatientId(), appointment.getPatient_name(), appointment.getAge(),
+				appointment.getGender(), appointment.getDescription(), date, time, appointment.getStatus(),
+				appointment.getType(), appointment.getPayment_mode(), appointment.getTransaction_id(),
+				appointment.getAddress(), appointment.getAmount_paid(), appointment.getDoctorName());
+	}
+
+	private int stripe(long doctorId) {
+		return (int) Math.floorMod(doctorId, (long) generations.length());
+	}
+
+	private record ScheduleKey(long doctorId, LocalDate date, String status) {
+	}
+
+	private record Schedule(long generation, List<Appointment> appointments) {
+	}
+}
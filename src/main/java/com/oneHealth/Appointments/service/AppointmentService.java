@@ -5,9 +5,15 @@ import java.sql.Date;
 import java.sql.Time;
 import java.util.List;
 
+import com.oneHealth.Appointments.DTO.AppointmentPageDTO;
+import com.oneHealth.Appointments.DTO.DoctorSummaryDTO;
 import com.oneHealth.Appointments.entity.Appointment;
 import com.oneHealth.Appointments.exception.AppointmentNotFoundException;
+import com.oneHealth.Appointments.exception.BookingLockTimeoutException;
+import com.oneHealth.Appointments.exception.DuplicateAppointmentException;
 import com.oneHealth.Appointments.exception.RecordNotFoundException;
+import com.oneHealth.Appointments.repository.AppointmentFilter;
+import com.oneHealth.Appointments.repository.AppointmentWindow;
 
 /**
  * Service interface for handling appointment-related operations.
@@ -21,6 +27,41 @@ public interface AppointmentService
      * @throws Exception 
      */
     Appointment saveAppointment(Appointment obj) throws Exception;
+
+    /**
+     * Books an appointment in a single pass: checks the slot, loads the patient and
+     * doctor profiles once, saves the appointment and queues one notification for
+     * both the doctor and the patient.
+     *
+     * @param appointment The appointment to be booked.
+     * @return Appointment The saved appointment.
+     * @throws Exception If the slot is already booked or a profile cannot be found.
+     */
+    Appointment bookAppointment(Appointment appointment) throws Exception;
+
+    /**
+     * Accepts a booking without waiting for the profile services: checks and reserves the slot
+     * and saves the appointment, then loads the profiles and queues the notification in the
+     * background. The progress is reported by the booking status.
+     *
+     * @param appointment The appointment to be booked.
+     * @return Appointment The saved appointment.
+     * @throws Exception If the slot is already booked.
+     */
+    Appointment acceptAppointment(Appointment appointment) throws Exception;
+
+    /**
+     * Books several appointments of one patient together, e.g. the sessions of a treatment plan.
+     * Either all of them are booked or none is: all slots are checked in one query, the
+     * appointments are inserted in one batched transaction, each profile is loaded once and one
+     * combined notification is queued.
+     *
+     * @param appointments The appointments to be booked.
+     * @return List<Appointment> The saved appointments, in the order given.
+     * @throws Exception If any slot is already booked, a profile cannot be found or the profile
+     *                   services are unavailable.
+     */
+    List<Appointment> bookAppointments(List<Appointment> appointments) throws Exception;
     
     
     
@@ -50,9 +91,13 @@ public interface AppointmentService
     void updateAppointmentStatus(long appointmentId, String newStatus) throws AppointmentNotFoundException;
 
     /**
-     * Update the date and time of an appointment by appointment ID.
+     * Update the date and time of an appointment by appointment ID. Fails with
+     * {@link RecordNotFoundException} if there is no such appointment, with
+     * {@link DuplicateAppointmentException} if the new slot is already booked,
+     * and with {@link BookingLockTimeoutException} if the doctor-days cannot be
+     * locked in time.
      */
-    Appointment updateAppointmentDateTime(long appointmentId, Date newDate, Time newTime) throws RecordNotFoundException;
+    Appointment updateAppointmentDateTime(long appointmentId, Date newDate, Time newTime) throws Exception;
 
     /**
      * Delete an appointment by appointment ID.
@@ -134,9 +179,10 @@ public interface AppointmentService
      * @param appointmentId The ID of the appointment to be updated.
      * @param updatedAppointment The updated appointment details.
      * @return Appointment The updated appointment.
-     * @throws RecordNotFoundException If the appointment with the given ID is not found.
+     * @throws Exception If the appointment with the given ID is not found, if it is moved to a slot that is
+     *                   already booked, or if the doctor-days cannot be locked in time.
      */
-    Appointment updateAppointment(long appointmentId, Appointment updatedAppointment) throws RecordNotFoundException;
+    Appointment updateAppointment(long appointmentId, Appointment updatedAppointment) throws Exception;
     
     
     /**
@@ -157,6 +203,24 @@ public interface AppointmentService
      */
     Long getCountOfUpcomingAppointmentsByDoctorIdAndStatus(Long doctorId, String status);
 
+    /**
+     * Retrieves a doctor's dashboard counts: appointments per status today, upcoming and overall,
+     * from a single aggregate query.
+     *
+     * @param doctorId The ID of the doctor.
+     * @return DoctorSummaryDTO The counts per status.
+     */
+    DoctorSummaryDTO getDoctorSummary(long doctorId);
+
+    /**
+     * Retrieves the appointments of a time window, e.g. today's and upcoming ones together,
+     * in one ordered query.
+     *
+     * @param window The date range, filters and sort order.
+     * @return List<Appointment> The appointments, ordered by date, time and ID.
+     */
+    List<Appointment> getAppointmentsInWindow(AppointmentWindow window);
+
     /**
      * Finds a list of appointments for a specific patient with the given status.
      *
@@ -197,17 +261,22 @@ public interface AppointmentService
      *
      * @param appointment The appointment to be saved.
      * @throws Exception If an error occurs during the saving process.
+     * @deprecated The notification sent by {@link #bookAppointment(Appointment)}
+     *             already reaches the patient; this repeats the profile lookups and
+     *             the email.
      */
+    @Deprecated
     void savePatientAppointment(Appointment appointment) throws Exception;
 
     /**
-     * Retrieves a list of appointment times for available slots on a specific date and for a specific doctor.
+     * Retrieves the appointment times of a doctor's committed appointments on a specific date,
+     * as stored. Only the times are loaded, not whole appointments.
      *
-     * @param doctorId The ID of the doctor for whom available slots are retrieved.
-     * @param date     The date for which available slots are retrieved.
-     * @return List<Appointment> A list of appointment times for available slots.
+     * @param doctorId The ID of the doctor.
+     * @param date     The date for which booked times are retrieved.
+     * @return List<Time> The booked appointment times.
      */
-    List<Appointment> getAppointmentTimeForSlots(long doctorId, Date date);
+    List<Time> getBookedTimesForSlots(long doctorId, Date date);
 
     
     /**
@@ -223,6 +292,16 @@ public interface AppointmentService
 
 	List<Appointment> getAllAppointments() throws Exception;
 
+	/**
+	 * Retrieves one page of appointments in (date, time, ID) order, optionally filtered.
+	 *
+	 * @param filter The filters to apply.
+	 * @param cursor The nextCursor of the previous page, or null to start.
+	 * @param limit  The page size, or null for the default.
+	 * @return AppointmentPageDTO The page and the cursor of the next one.
+	 */
+	AppointmentPageDTO getAppointmentPage(AppointmentFilter filter, String cursor, Integer limit);
+
 	
 }
 
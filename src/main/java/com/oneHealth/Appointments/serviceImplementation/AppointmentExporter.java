@@ -0,0 +1,116 @@
+package com.oneHealth.Appointments.serviceImplementation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentFilter;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Writes appointments as NDJSON (one JSON object per line) straight from the
+ * database to the client. The rows are read in one read-only transaction
+ * through a forward-only cursor fetching {@code appointments.export.fetch-size}
+ * rows at a time, and every row is detached and written before the next one is
+ * read, so heap use stays flat however many rows there are. The output is
+ * flushed after the first row and then every
+ * {@code appointments.export.flush-every} rows, so the client receives data
+ * right away.
+ * <p>
+ * Exported rows are counted by "appointments.export.rows".
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class AppointmentExporter {
+	private static final Logger LOGGER = Logger.getLogger(AppointmentExporter.class.getName());
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${appointments.export.fetch-size:1000}")
+	private int fetchSize;
+
+	@Value("${appointments.export.flush-every:1000}")
+	private int flushEvery;
+
+	private TransactionTemplate readOnly;
+
+	private ObjectWriter writer;
+
+	private Counter exportedRows;
+
+	@PostConstruct
+	void init() {
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		writer = objectMapper.writerFor(Appointment.class);
+		exportedRows = meterRegistry.counter("appointments.export.rows");
+	}
+
+	/**
+	 * Writes the matching appointments, in ID order, as NDJSON.
+	 *
+	 * @param filter The filters to apply.
+	 * @param out    The stream to write to; it is flushed, not closed.
+	 * @return The number of appointments written.
+	 * @throws IOException If writing fails, e.g. because the client went away.
+	 */
+	public long export(AppointmentFilter filter, OutputStream out) throws IOException {
+		BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+		AtomicLong written = new AtomicLong();
+		try {
+			readOnly.executeWithoutResult(status -> {
+				try (Stream<Appointment> rows = repo.streamAll(filter, fetchSize)) {
+					rows.forEach(row -> write(row, buffered, written.incrementAndGet()));
+				}
+			});
+		} catch (UncheckedIOException e) {
+			LOGGER.warning("Appointment export aborted after " + written.get() + " rows: " + e.getCause());
+			throw e.getCause();
+		}
+		buffered.flush();
+		LOGGER.info("Exported " + written.get() + " appointments");
+		return written.get();
+	}
+
+	private void write(Appointment row, OutputStream out, long count) {
+		try {
+			out.write(writer.writeValueAsBytes(row));
+			out.write('\n');
+			if (count == 1 || count % flushEvery == 0) {
+				out.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		exportedRows.increment();
+	}
+}
@@ -4,27 +4,55 @@ import java.sql.Date;
 import java.sql.Time;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-
-import org.springframework.web.reactive.function.BodyInserters;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.oneHealth.Appointments.DTO.AppointmentDTO;
-import com.oneHealth.Appointments.DTO.DoctorProfile;
-import com.oneHealth.Appointments.DTO.Patient;
+import com.oneHealth.Appointments.DTO.AppointmentPageDTO;
+import com.oneHealth.Appointments.DTO.AppointmentPlanDTO;
+import com.oneHealth.Appointments.DTO.DoctorSummaryDTO;
+import com.oneHealth.Appointments.booking.BookingLockManager;
+import com.oneHealth.Appointments.booking.BookingWorkers;
+import com.oneHealth.Appointments.booking.DoctorDay;
+import com.oneHealth.Appointments.booking.DoctorDaySlots;
+import com.oneHealth.Appointments.booking.SlotReservationEngine;
+import com.oneHealth.Appointments.deadline.Deadline;
 import com.oneHealth.Appointments.entity.Appointment;
 import com.oneHealth.Appointments.exception.AppointmentNotFoundException;
+import com.oneHealth.Appointments.exception.BookingLockTimeoutException;
+import com.oneHealth.Appointments.exception.DuplicateAppointmentException;
+import com.oneHealth.Appointments.exception.GatewayUnavailableException;
 import com.oneHealth.Appointments.exception.RecordNotFoundException;
+import com.oneHealth.Appointments.gateway.ProfileClient;
+import com.oneHealth.Appointments.notification.NotificationOutboxService;
+import com.oneHealth.Appointments.repository.AppointmentCursor;
+import com.oneHealth.Appointments.repository.AppointmentFilter;
 import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.AppointmentWindow;
+import com.oneHealth.Appointments.repository.DoctorStatusCounts;
+import com.oneHealth.Appointments.routing.ReadRoute;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent.Change;
+import com.oneHealth.Appointments.schedule.DoctorScheduleCache;
 import com.oneHealth.Appointments.service.AppointmentService;
 
 /**
@@ -42,17 +70,43 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	private AppointmentRepository repo;
 
 	@Autowired
-	private WebClient.Builder builder;
-	
-	@Value("${apiGatewayUrl}")
-	private String apiGatewayUrl;
+	private NotificationOutboxService outbox;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private BookingPipeline pipeline;
 
+	@Autowired
+	private SlotReservationEngine slots;
 
 	@Autowired
-	private ModelMapper mapper;
+	private BookingLockManager locks;
+
+	@Autowired
+	private BookingWorkers workers;
+
+	@Autowired
+	private DoctorScheduleCache schedules;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Value("${booking.plan.max-appointments:24}")
+	private int maxPlanSlots;
+
+	@Value("${appointments.page.default-size:50}")
+	private int defaultPageSize;
+
+	@Value("${appointments.page.max-size:200}")
+	private int maxPageSize;
+
+	@Value("${appointments.list.max-size:1000}")
+	private int maxListSize;
 
 	public boolean isDuplicateAppointmentExists(long doctorId, Time appointmentTime, Date date) {
-		return repo.existsByDoctorIdAndAppointmentTimeAndDate(doctorId, appointmentTime, date);
+		return slots.isBooked(doctorId, date, appointmentTime);
 	}
 
 	/**
@@ -65,138 +119,304 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	@Override
 	public Appointment saveAppointment(Appointment obj) throws Exception {
 		LOGGER.info("In Service - Saving appointment: " + obj);
+		return book(obj, ProfileClient.PATIENT_PROFILE_PATH);
+	}
 
-		if (isDuplicateAppointmentExists(obj.getDoctorId(), obj.getAppointmentTime(), obj.getDate())) {
-			throw new Exception("Duplicate appointment found");
-		}
-
-		// Fetch patient details using WebClient
-		Patient patientDto = builder.build().get()
-				.uri(apiGatewayUrl + "/patientProfile/{patient_id}", obj.getPatientId()).retrieve()
-				.bodyToMono(Patient.class).block();
+	/**
+	 * Books an appointment in a single pass. Each profile is loaded once, the
+	 * appointment is mapped once, and a single notification carrying both the
+	 * doctor and the patient email addresses is queued with the booking.
+	 *
+	 * @param obj The Appointment object to be booked.
+	 * @return The saved Appointment object.
+	 * @throws Exception If the slot is already booked or a profile is missing.
+	 */
+	@Override
+	public Appointment bookAppointment(Appointment obj) throws Exception {
+		LOGGER.info("In Service - Booking appointment: " + obj);
+		return book(obj, ProfileClient.PATIENT_PROFILE_BY_ID_PATH);
+	}
 
-		System.out.println(patientDto);
+	@Override
+	public Appointment saveDoctorAppointment(Appointment obj) throws Exception {
+		return bookAppointment(obj);
+	}
 
-		// Fetch doctor profile using WebClient
-		DoctorProfile profile = builder.build().get()
-				.uri(apiGatewayUrl + "/api/doctors/addressprofileregistration/getdoctorprofile/{doctor_id}",
-						obj.getDoctorId())
-				.retrieve().bodyToMono(DoctorProfile.class).block();
-		System.out.println(profile);
+	@Override
+	@Deprecated
+	public void savePatientAppointment(Appointment obj) throws Exception {
 
-		// Create an AppointmentDTO and map relevant fields
-		AppointmentDTO dto = new AppointmentDTO();
-		mapper.map(obj, dto);
-		dto.setDoctor_name(profile.getFirst_name() + " " + profile.getLast_name());
-		dto.setContact(profile.getContact());
+		LOGGER.info("In Service - Saving appointment: " + obj);
 
-		// Set patient and doctor email addresses (you might want to dynamically fetch
-		// patient email)
-		dto.setPatient_email(patientDto.getEmailId());
-		dto.setDoctor_email(profile.getEmail());
+		// The slot was already taken by saveDoctorAppointment; profile lookups and DTO
+		// mapping run concurrently
+		AppointmentDTO dto = pipeline.prepareBooking(obj, ProfileClient.PATIENT_PROFILE_BY_ID_PATH);
 
-		// Prepare and send appointment email using WebClient
-		WebClient.ResponseSpec responseSpec = builder.baseUrl(apiGatewayUrl + "/emailService").build().post()
-				.uri("/appointmentEmail").body(BodyInserters.fromValue(dto)).retrieve(); // This prepares the
-																							// request
+		// Queue the appointment email; the OutboxDispatcher delivers it
+		transactionTemplate.executeWithoutResult(status -> outbox.enqueueBooking(obj.getAppointment_id(), dto));
+	}
 
-		// Send the request and handle the response
-		responseSpec.toBodilessEntity().subscribe();
+	/**
+	 * Enriches the booking, then reserves the slot and saves it while holding the
+	 * lock of the doctor-day, so that competing bookings of the same doctor and
+	 * date are serialised while other doctors proceed in parallel. Slots already
+	 * known to be booked fail before any gateway call. The reservation is
+	 * released again if the save does not go through, and an insert that loses
+	 * against another replica on the unique slot constraint is reported as a
+	 * duplicate. While the profile services are unavailable the booking is
+	 * still taken, and its notification is queued for later enrichment. Within a
+	 * request, each stage first checks the request's {@link Deadline}, and lock
+	 * waits and the transaction are bounded by the time left.
+	 */
+	private Appointment book(Appointment obj, String patientProfilePath) throws Exception {
+		checkSlot(obj);
 
-		// Save the appointment details to the repository
-		return repo.save(obj);
+		// Profile lookups and DTO mapping run concurrently, outside the lock
+		AppointmentDTO dto;
+		boolean enriched;
+		try {
+			dto = pipeline.prepareBooking(obj, patientProfilePath);
+			enriched = true;
+		} catch (GatewayUnavailableException e) {
+			LOGGER.warning("In Service - Profiles unavailable, booking without them: " + obj + " - " + e.getMessage());
+			dto = pipeline.map(obj);
+			enriched = false;
+		}
+		Deadline.check("booking", Duration.ZERO);
+		return reserveAndSave(obj, dto, enriched ? null : patientProfilePath);
 	}
 
+	/**
+	 * Accepts a booking without waiting for the profile services: the slot is
+	 * reserved and the appointment saved together with a notification queued
+	 * for enrichment, and the {@link BookingWorkers} finish it in the
+	 * background.
+	 *
+	 * @param obj The Appointment object to be booked.
+	 * @return The saved Appointment object.
+	 * @throws Exception If the slot is already booked.
+	 */
 	@Override
-	public Appointment saveDoctorAppointment(Appointment obj) throws Exception {
-		LOGGER.info("In Service - Saving appointment: " + obj);
+	public Appointment acceptAppointment(Appointment obj) throws Exception {
+		LOGGER.info("In Service - Accepting appointment: " + obj);
+		checkSlot(obj);
+		Deadline.check("booking", Duration.ZERO);
+		Appointment saved = reserveAndSave(obj, pipeline.map(obj), ProfileClient.PATIENT_PROFILE_BY_ID_PATH);
+		workers.complete(saved.getAppointment_id());
+		return saved;
+	}
 
-		if (isDuplicateAppointmentExists(obj.getDoctorId(), obj.getAppointmentTime(), obj.getDate())) {
-			throw new Exception("Duplicate appointment found");
+	/**
+	 * Fails fast on incomplete bookings and on slots already known to be booked.
+	 */
+	private void checkSlot(Appointment obj) throws DuplicateAppointmentException {
+		if (obj.getDate() == null || obj.getAppointmentTime() == null) {
+			throw new IllegalArgumentException("Appointment date and time are required");
 		}
+		if (slots.isBooked(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime())) {
+			throw new DuplicateAppointmentException("Duplicate appointment found");
+		}
+	}
 
-		// Fetch patient details using WebClient
-		Patient patientDto = builder.build().get()
-				.uri(apiGatewayUrl + "/patientProfile/byPatientId/{patient_id}", obj.getPatientId()).retrieve()
-				.bodyToMono(Patient.class).block();
-		System.out.println(patientDto);
-
-		// Fetch doctor profile using WebClient
-		DoctorProfile profile = builder.build().get()
-				.uri(apiGatewayUrl + "/api/doctors/addressprofileregistration/getdoctorprofile/{doctor_id}",
-						obj.getDoctorId())
-				.retrieve().bodyToMono(DoctorProfile.class).block();
-		System.out.println(profile);
-
-		// Create an AppointmentDTO and map relevant fields
-		AppointmentDTO dto = new AppointmentDTO();
-		mapper.map(obj, dto);
-		dto.setDoctor_name(profile.getFirst_name() + " " + profile.getLast_name());
-		dto.setContact(profile.getContact());
-
-		// Set patient and doctor email addresses (you might want to dynamically fetch
-		// patient email)
-		dto.setPatient_email(patientDto.getEmailId());
-		dto.setDoctor_email(profile.getEmail());
-
-		// Prepare and send appointment email using WebClient
-		WebClient.ResponseSpec responseSpec = builder.baseUrl(apiGatewayUrl + "/emailService").build().post()
-				.uri("/appointmentEmail").body(BodyInserters.fromValue(dto)).retrieve(); // This prepares the
-																							// request
-
-		// Send the request and handle the response
-		responseSpec.toBodilessEntity().subscribe();
-
-		// Save the appointment details to the repository
-		return repo.save(obj);
+	/**
+	 * Reserves the slot and saves the booking while holding the lock of the
+	 * doctor-day; see {@link #saveAndNotify}.
+	 */
+	private Appointment reserveAndSave(Appointment obj, AppointmentDTO notification, String enrichProfilePath)
+			throws Exception {
+		return locks.withLock(obj.getDoctorId(), obj.getDate(), () -> {
+			slots.reserve(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime());
+			try {
+				// Save the appointment and queue its email in one transaction
+				return saveAndNotify(obj, notification, enrichProfilePath);
+			} catch (DataIntegrityViolationException e) {
+				if (repo.existsByDoctorIdAndAppointmentTimeAndDate(obj.getDoctorId(), obj.getAppointmentTime(),
+						obj.getDate())) {
+					// Booked through another replica; the slot stays marked as taken
+					LOGGER.info("In Service - Slot taken concurrently by another replica: " + obj);
+					throw new DuplicateAppointmentException("Duplicate appointment found");
+				}
+				slots.release(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime());
+				throw e;
+			} catch (RuntimeException e) {
+				slots.release(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime());
+				throw e;
+			}
+		});
 	}
 
+	/**
+	 * Books the appointments of a treatment plan all or none. The plan is
+	 * enriched once, then all of its doctor-days are locked, every slot is
+	 * reserved in memory and checked against the database in one query, and the
+	 * appointments are inserted in one batched transaction together with a
+	 * single combined notification. If any slot is taken, every reservation of
+	 * the plan is released and nothing is saved.
+	 *
+	 * @param appointments The appointments to be booked.
+	 * @return The saved appointments, in the order given.
+	 * @throws Exception If any slot is already booked or a profile is missing.
+	 */
 	@Override
-	public void savePatientAppointment(Appointment obj) throws Exception {
+	public List<Appointment> bookAppointments(List<Appointment> appointments) throws Exception {
+		LOGGER.info("In Service - Booking plan of " + appointments.size() + " appointments");
+		validatePlan(appointments);
+		for (Appointment obj : appointments) {
+			if (slots.isBooked(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime())) {
+				throw new DuplicateAppointmentException("Duplicate appointment found: " + obj.getDate() + " "
+						+ obj.getAppointmentTime());
+			}
+		}
 
-		LOGGER.info("In Service - Saving appointment: " + obj);
+		// Each distinct profile is loaded once for the whole plan, outside the locks
+		List<AppointmentDTO> dtos = pipeline.prepareBookings(appointments, ProfileClient.PATIENT_PROFILE_BY_ID_PATH);
+
+		Deadline.check("booking", Duration.ZERO);
+		Set<DoctorDay> days = appointments.stream()
+				.map(obj -> new DoctorDay(obj.getDoctorId(), obj.getDate().toLocalDate()))
+				.collect(Collectors.toSet());
+		return locks.withLocks(days, () -> {
+			reserveAll(appointments);
+			try {
+				List<Appointment> conflicts = findBookedSlots(appointments);
+				if (!conflicts.isEmpty()) {
+					releaseAll(appointments);
+					conflicts.forEach(c -> slots.markBooked(c.getDoctorId(), c.getDate(), c.getAppointmentTime()));
+					throw new DuplicateAppointmentException("Duplicate appointment found: " + conflicts.get(0)
+							.getDate() + " " + conflicts.get(0).getAppointmentTime());
+				}
+				return saveAllAndNotify(appointments, dtos);
+			} catch (DataIntegrityViolationException e) {
+				// Booked through another replica between the check and the insert
+				releaseAll(appointments);
+				throw new DuplicateAppointmentException("Duplicate appointment found in plan");
+			} catch (RuntimeException e) {
+				releaseAll(appointments);
+				throw e;
+			}
+		});
+	}
 
-//			if (isDuplicateAppointmentExists(
-//	                obj.getDoctorId(), 
-//	                obj.getAppointmentTime(), 
-//	                obj.getDate())) {
-//	            throw new Exception("Duplicate appointment found");
-//	        }
+	private void validatePlan(List<Appointment> appointments) {
+		if (appointments == null || appointments.isEmpty()) {
+			throw new IllegalArgumentException("A plan needs at least one appointment");
+		}
+		if (appointments.size() > maxPlanSlots) {
+			throw new IllegalArgumentException("A plan can book at most " + maxPlanSlots + " appointments");
+		}
+		long patientId = appointments.get(0).getPatientId();
+		Set<PlanSlot> requested = new HashSet<>();
+		for (Appointment obj : appointments) {
+			if (obj.getDate() == null || obj.getAppointmentTime() == null) {
+				throw new IllegalArgumentException("Appointment date and time are required");
+			}
+			if (obj.getPatientId() != patientId) {
+				throw new IllegalArgumentException("All appointments of a plan must be for the same patient");
+			}
+			if (!requested.add(PlanSlot.of(obj))) {
+				throw new IllegalArgumentException("The plan books the same slot twice: " + obj.getDate() + " "
+						+ obj.getAppointmentTime());
+			}
+		}
+	}
 
-		// Fetch patient details using WebClient
-		Patient patientDto = builder.build().get()
-				.uri(apiGatewayUrl + "/patientProfile/byPatientId/{patient_id}", obj.getPatientId()).retrieve()
-				.bodyToMono(Patient.class).block();
-		System.out.println(patientDto);
+	/**
+	 * Reserves every slot of the plan, or none: if one is taken, the ones already
+	 * reserved are released again.
+	 */
+	private void reserveAll(List<Appointment> appointments) throws DuplicateAppointmentException {
+		List<Appointment> reserved = new ArrayList<>(appointments.size());
+		try {
+			for (Appointment obj : appointments) {
+				slots.reserve(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime());
+				reserved.add(obj);
+			}
+		} catch (DuplicateAppointmentException e) {
+			releaseAll(reserved);
+			throw e;
+		}
+	}
 
-		// Fetch doctor profile using WebClient
-		DoctorProfile profile = builder.build().get()
-				.uri(apiGatewayUrl + "/api/doctors/addressprofileregistration/getdoctorprofile/{doctor_id}",
-						obj.getDoctorId())
-				.retrieve().bodyToMono(DoctorProfile.class).block();
-		System.out.println(profile);
+	private void releaseAll(List<Appointment> appointments) {
+		appointments.forEach(obj -> slots.release(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime()));
+	}
 
-		// Create an AppointmentDTO and map relevant fields
-		AppointmentDTO dto = new AppointmentDTO();
-		mapper.map(obj, dto);
-		dto.setDoctor_name(profile.getFirst_name() + " " + profile.getLast_name());
-		dto.setContact(profile.getContact());
+	/**
+	 * Finds the requested slots that are already booked in the database, using
+	 * one query over all doctors and dates of the plan.
+	 */
+	private List<Appointment> findBookedSlots(List<Appointment> appointments) {
+		Set<PlanSlot> requested = appointments.stream().map(PlanSlot::of).collect(Collectors.toSet());
+		Set<Long> doctorIds = appointments.stream().map(Appointment::getDoctorId).collect(Collectors.toSet());
+		Set<Date> dates = appointments.stream().map(Appointment::getDate).collect(Collectors.toSet());
+		return repo.findByDoctorIdInAndDateIn(doctorIds, dates).stream()
+				.filter(existing -> existing.getAppointmentTime() != null
+						&& requested.contains(PlanSlot.of(existing)))
+				.toList();
+	}
 
-		// Set patient and doctor email addresses (you might want to dynamically fetch
-		// patient email)
-		dto.setPatient_email(patientDto.getEmailId());
-		dto.setDoctor_email(profile.getEmail());
+	/**
+	 * Saves all appointments of a plan in one batched transaction and queues one
+	 * combined notification with them.
+	 */
+	private List<Appointment> saveAllAndNotify(List<Appointment> appointments, List<AppointmentDTO> dtos) {
+		return withinDeadline().execute(status -> {
+			List<Appointment> saved = repo.saveAll(appointments);
+			for (int i = 0; i < saved.size(); i++) {
+				dtos.get(i).setAppointment_id(saved.get(i).getAppointment_id());
+				events.publishEvent(AppointmentChangedEvent.of(Change.CREATED, saved.get(i), saved.get(i).getDate()));
+			}
+			AppointmentDTO first = dtos.get(0);
+			AppointmentPlanDTO plan = new AppointmentPlanDTO(first.getPatientId(), first.getPatient_name(),
+					first.getPatient_email(), dtos);
+			outbox.enqueue(saved.get(0).getAppointment_id(), NotificationOutboxService.APPOINTMENT_PLAN_EMAIL, plan);
+			return saved;
+		});
+	}
 
-		// Prepare and send appointment email using WebClient
-		WebClient.ResponseSpec responseSpec = builder.baseUrl(apiGatewayUrl + "/emailService").build().post()
-				.uri("/appointmentEmail").body(BodyInserters.fromValue(dto)).retrieve(); // This prepares the
-																							// request
+	/**
+	 * The transaction template for the booking transaction, with the time left
+	 * to the request deadline (rounded up to whole seconds) as its timeout.
+	 */
+	private TransactionTemplate withinDeadline() {
+		Optional<Deadline> deadline = Deadline.current();
+		if (deadline.isEmpty()) {
+			return transactionTemplate;
+		}
+		TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+				transactionTemplate);
+		template.setTimeout((int) Math.max(1, (deadline.get().remaining().toMillis() + 999) / 1000));
+		return template;
+	}
 
-		// Send the request and handle the response
-		responseSpec.toBodilessEntity().subscribe();
+	/**
+	 * A requested slot, compared at the minute granularity of the slot occupancy.
+	 */
+	private record PlanSlot(long doctorId, LocalDate date, int minute) {
+		static PlanSlot of(Appointment obj) {
+			return new PlanSlot(obj.getDoctorId(), obj.getDate().toLocalDate(),
+					DoctorDaySlots.minuteOf(obj.getAppointmentTime()));
+		}
+	}
 
-		// Save the appointment details to the repository
-		// return repo.save(obj);
+	/**
+	 * Saves the appointment and queues its notification in the same transaction,
+	 * so the email is only sent for bookings that commit. Given the patient
+	 * profile path, the notification is queued for enrichment instead.
+	 */
+	private Appointment saveAndNotify(Appointment obj, AppointmentDTO dto, String enrichProfilePath) {
+		return withinDeadline().execute(status -> {
+			Appointment saved = repo.save(obj);
+			dto.setAppointment_id(saved.getAppointment_id());
+			events.publishEvent(AppointmentChangedEvent.of(Change.CREATED, saved, saved.getDate()));
+			if (enrichProfilePath == null) {
+				outbox.enqueueBooking(saved.getAppointment_id(), dto);
+			} else {
+				outbox.enqueueEnrichment(saved.getAppointment_id(), NotificationOutboxService.APPOINTMENT_EMAIL, dto,
+						enrichProfilePath);
+			}
+			return saved;
+		});
 	}
 
 	/**
@@ -206,6 +426,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @return List of appointments associated with the patient ID.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> findByPatientId(long patientId) {
 		LOGGER.info("In Service - Finding appointments by patient ID: " + patientId);
 		return repo.findByPatientId(patientId);
@@ -218,6 +439,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @return List of appointments associated with the doctor ID.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> findByDoctorId(long doctorId) {
 		LOGGER.info("Finding appointments by doctor ID: " + doctorId);
 		return repo.findByDoctorId(doctorId);
@@ -234,7 +456,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	@Override
 	public List<Appointment> findByDoctorIdAndStatus(long doctorId, String status) {
 		LOGGER.info("Finding appointments by doctor ID: " + doctorId + " and status: " + status);
-		return repo.findByDoctorIdAndStatus(doctorId, status);
+		return schedules.get(doctorId, null, status, () -> repo.findByDoctorIdAndStatus(doctorId, status));
 	}
 
 	/**
@@ -246,6 +468,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @return List of appointments matching the specified patient ID and type.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> findByPatientIdAndType(long patientId, String type) {
 		LOGGER.info("In Service - Finding appointments by patient ID: " + patientId + " and type: " + type);
 		return repo.findByPatientIdAndType(patientId, type);
@@ -262,11 +485,12 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	@Override
 	public void updateAppointmentStatus(long appointment_id, String newStatus) throws AppointmentNotFoundException {
 		LOGGER.info("In Service - Updating appointment status for ID: " + appointment_id + " to: " + newStatus);
-		Appointment appointment = repo.findById(appointment_id).orElseThrow(
+		Appointment appointment = ReadRoute.onPrimary(() -> repo.findById(appointment_id)).orElseThrow(
 				() -> new AppointmentNotFoundException("Appointment not found with ID: " + appointment_id));
 
 		appointment.setStatus(newStatus);
 		repo.save(appointment);
+		events.publishEvent(AppointmentChangedEvent.of(Change.STATUS_CHANGED, appointment, appointment.getDate()));
 	}
 
 	/**
@@ -276,20 +500,101 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @param newDate        The new date to update.
 	 * @param newTime        The new time to update.
 	 * @return The updated Appointment object.
-	 * @throws RecordNotFoundException If no appointment is found with the given ID.
+	 * @throws RecordNotFoundException       If no appointment is found with the given
+	 *                                       ID.
+	 * @throws DuplicateAppointmentException If the new slot is already booked.
+	 * @throws BookingLockTimeoutException   If the doctor-days could not be locked
+	 *                                       in time.
 	 */
 	@Override
 	public Appointment updateAppointmentDateTime(long appointment_id, Date newDate, Time newTime)
-			throws RecordNotFoundException {
+			throws Exception {
 		LOGGER.info("Updating appointment date and time for ID: " + appointment_id + " - New date: " + newDate
 				+ ", New time: " + newTime);
-		Appointment appointment = repo.findById(appointment_id)
+		Appointment appointment = ReadRoute.onPrimary(() -> repo.findById(appointment_id))
 				.orElseThrow(() -> new RecordNotFoundException("No Appointment Found with ID: " + appointment_id));
 
+		Date oldDate = appointment.getDate();
+		Time oldTime = appointment.getAppointmentTime();
 		appointment.setDate(newDate);
 		appointment.setAppointmentTime(newTime);
 
-		return repo.save(appointment);
+		return saveMoved(appointment, oldDate, oldTime, Change.RESCHEDULED);
+	}
+
+	/**
+	 * Saves an appointment that may have moved to another slot, reserving the
+	 * new slot the way a booking does: the reservation is taken before the save
+	 * and released again if the save does not go through, and a save that loses
+	 * against another replica on the unique slot constraint is reported as a
+	 * duplicate. The old slot is only freed once the change has committed.
+	 * <p>
+	 * All of this happens while holding the locks of the old and the new
+	 * doctor-day, taken in the fixed order of {@link BookingLockManager#withLocks},
+	 * so a move competes with bookings of either day like a booking does.
+	 */
+	private Appointment saveMoved(Appointment obj, Date oldDate, Time oldTime, Change change) throws Exception {
+		Set<DoctorDay> days = new HashSet<>();
+		if (oldDate != null) {
+			days.add(new DoctorDay(obj.getDoctorId(), oldDate.toLocalDate()));
+		}
+		if (obj.getDate() != null) {
+			days.add(new DoctorDay(obj.getDoctorId(), obj.getDate().toLocalDate()));
+		}
+		return locks.withLocks(days, () -> moveAndSave(obj, oldDate, oldTime, change));
+	}
+
+	private Appointment moveAndSave(Appointment obj, Date oldDate, Time oldTime, Change change)
+			throws DuplicateAppointmentException {
+		long doctorId = obj.getDoctorId();
+		Date newDate = obj.getDate();
+		Time newTime = obj.getAppointmentTime();
+		boolean moved = !sameSlot(oldDate, oldTime, newDate, newTime);
+		boolean reserved = moved && newDate != null && newTime != null;
+		if (reserved) {
+			slots.reserve(doctorId, newDate, newTime);
+		}
+
+		Appointment saved;
+		try {
+			saved = withinDeadline().execute(status -> {
+				Appointment changed = repo.save(obj);
+				events.publishEvent(AppointmentChangedEvent.of(change, changed, oldDate, changed.getDate()));
+				return changed;
+			});
+		} catch (DataIntegrityViolationException e) {
+			if (reserved && repo.existsByDoctorIdAndAppointmentTimeAndDate(doctorId, newTime, newDate)) {
+				// Booked through another replica; the slot stays marked as taken
+				LOGGER.info("In Service - Slot taken concurrently by another replica: " + obj);
+				throw new DuplicateAppointmentException("Duplicate appointment found");
+			}
+			if (reserved) {
+				slots.release(doctorId, newDate, newTime);
+			}
+			throw e;
+		} catch (RuntimeException e) {
+			if (reserved) {
+				slots.release(doctorId, newDate, newTime);
+			}
+			throw e;
+		}
+
+		if (moved && oldDate != null && oldTime != null) {
+			slots.release(doctorId, oldDate, oldTime);
+		}
+		return saved;
+	}
+
+	/**
+	 * Whether two slots are the same at the minute granularity of the slot
+	 * occupancy.
+	 */
+	private static boolean sameSlot(Date oldDate, Time oldTime, Date newDate, Time newTime) {
+		if (oldDate == null || oldTime == null || newDate == null || newTime == null) {
+			return Objects.equals(oldDate, newDate) && Objects.equals(oldTime, newTime);
+		}
+		return oldDate.toLocalDate().equals(newDate.toLocalDate())
+				&& DoctorDaySlots.minuteOf(oldTime) == DoctorDaySlots.minuteOf(newTime);
 	}
 //
 //	 @Override
@@ -305,45 +610,41 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	    public void deleteAppointment(long appointment_id) throws RecordNotFoundException {
 	        LOGGER.info("Deleting appointment with ID: " + appointment_id);
 
-	        Appointment obj = repo.findById(appointment_id)
+	        Appointment obj = ReadRoute.onPrimary(() -> repo.findById(appointment_id))
 	                .orElseThrow(() -> new RecordNotFoundException("No Appointment Found with ID: " + appointment_id));
 
-	        if (isDuplicateAppointmentExists(obj.getDoctorId(), obj.getAppointmentTime(), obj.getDate())) {
-	            throw new RuntimeException("Duplicate appointment found");
+	        // Profile lookups and DTO mapping run concurrently
+	        AppointmentDTO dto;
+	        boolean enriched = true;
+	        try {
+	            dto = pipeline.prepareCancellation(obj);
+	        } catch (RecordNotFoundException e) {
+	            throw e;
+	        } catch (GatewayUnavailableException e) {
+	            // Cancel anyway; the email is completed once the gateway is back
+	            dto = pipeline.map(obj);
+	            enriched = false;
+	        } catch (Exception e) {
+	            throw new RuntimeException(e);
 	        }
 
-	        // Fetch patient details using WebClient
-	        Patient patientDto = builder.build().get()
-	                .uri(apiGatewayUrl + "/patientProfile/{patient_id}", obj.getPatientId()).retrieve()
-	                .bodyToMono(Patient.class).block();
-
-	        // Fetch doctor profile using WebClient
-	        DoctorProfile profile = builder.build().get()
-	                .uri(apiGatewayUrl + "/api/doctors/addressprofileregistration/getdoctorprofile/{doctor_id}",
-	                        obj.getDoctorId())
-	                .retrieve().bodyToMono(DoctorProfile.class).block();
-
-	        // Create an AppointmentDTO and map relevant fields
-	        AppointmentDTO dto = new AppointmentDTO();
-	        mapper.map(obj, dto);
-	        if (profile != null) {
-	            dto.setDoctor_name(profile.getFirst_name() + " " + profile.getLast_name());
-	            dto.setContact(profile.getContact());
-	            dto.setDoctor_email(profile.getEmail());
+	        // Delete the appointment and queue the cancellation email in one transaction
+	        AppointmentDTO notification = dto;
+	        boolean notify = enriched;
+	        transactionTemplate.executeWithoutResult(status -> {
+	            repo.delete(obj);
+	            events.publishEvent(AppointmentChangedEvent.of(Change.DELETED, obj, obj.getDate()));
+	            if (notify) {
+	                outbox.enqueue(obj.getAppointment_id(), NotificationOutboxService.DELETE_APPOINTMENT_EMAIL,
+	                        notification);
+	            } else {
+	                outbox.enqueueEnrichment(obj.getAppointment_id(), NotificationOutboxService.DELETE_APPOINTMENT_EMAIL,
+	                        notification, ProfileClient.PATIENT_PROFILE_PATH);
+	            }
+	        });
+	        if (obj.getDate() != null && obj.getAppointmentTime() != null) {
+	            slots.release(obj.getDoctorId(), obj.getDate(), obj.getAppointmentTime());
 	        }
-	        if (patientDto != null) {
-	            dto.setPatient_email(patientDto.getEmailId());
-	        }
-
-	        // Prepare and send appointment email using WebClient
-	        WebClient.ResponseSpec responseSpec = builder.baseUrl(apiGatewayUrl + "/emailService").build().post()
-	                .uri("/deleteappointmentEmail").body(BodyInserters.fromValue(dto)).retrieve();
-
-	        // Send the request and handle the response
-	        responseSpec.toBodilessEntity().subscribe();
-
-	        // Delete the appointment from the repository
-	        repo.delete(obj);
 	    }
 
 	  
@@ -356,10 +657,11 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @return List of appointments for the current day.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> getAppointmentsForToday() {
 		LOGGER.info("Retrieving appointments for today");
 		LocalDate currentDate = LocalDate.now();
-		return repo.findByDate(currentDate);
+		return repo.findWindow(new AppointmentWindow(null, null, null, null, currentDate, currentDate, null));
 	}
 
 	/**
@@ -370,11 +672,11 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @return List of upcoming appointments with the specified status.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> getUpcomingAppointmentsWithStatus(String status) {
 		LOGGER.info("Retrieving upcoming appointments with status: " + status);
-		LocalDate currentDate = LocalDate.now();
-		Date sqlDate = Date.valueOf(currentDate);
-		return repo.findByDateAfterAndStatus(sqlDate, status);
+		LocalDate tomorrow = LocalDate.now().plusDays(1);
+		return repo.findWindow(new AppointmentWindow(null, null, Set.of(status), null, tomorrow, null, null));
 	}
 
 	/**
@@ -388,11 +690,13 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @throws RecordNotFoundException If no upcoming appointments are found.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> getUpcomingAppointmentsByDoctorIdAndStatus(long doctorId, String status)
 			throws RecordNotFoundException {
 		LOGGER.info("Retrieving upcoming appointments for Doctor ID: " + doctorId + " with status: " + status);
-		LocalDate todayDate = LocalDate.now();
-		List<Appointment> upcomingAppointments = repo.findByDateAfterAndDoctorIdAndStatus(todayDate, doctorId, status);
+		LocalDate tomorrow = LocalDate.now().plusDays(1);
+		List<Appointment> upcomingAppointments = repo
+				.findWindow(AppointmentWindow.ofDoctor(doctorId, status, tomorrow, null));
 
 		if (upcomingAppointments.isEmpty()) {
 			LOGGER.warning("No upcoming appointments found for Doctor ID: " + doctorId + " and status: " + status);
@@ -454,7 +758,8 @@ public class AppointmentServiceImplementation implements AppointmentService {
 		LOGGER.info("In Service - Retrieving appointments for today for Doctor ID: " + doctorId + " with status: "
 				+ status);
 		LocalDate currentDate = LocalDate.now();
-		List<Appointment> todayAppointments = repo.findByDateAndDoctorIdAndStatus(currentDate, doctorId, status);
+		List<Appointment> todayAppointments = schedules.get(doctorId, currentDate, status,
+				() -> repo.findWindow(AppointmentWindow.ofDoctor(doctorId, status, currentDate, currentDate)));
 
 		if (todayAppointments.isEmpty()) {
 			LOGGER.warning("In Service - No today's appointments found for Doctor ID: " + doctorId + " with status: "
@@ -476,11 +781,12 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @return List of appointments for the current day by patient ID and status.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> getAppointmentsForTodayByPatientIdAndStatus(long patientId, String status) {
 		LOGGER.info("In Service - Retrieving appointments for today for Patient ID: " + patientId + " with status: "
 				+ status);
 		LocalDate currentDate = LocalDate.now();
-		return repo.findByDateAndPatientIdAndStatus(currentDate, patientId, status);
+		return repo.findWindow(AppointmentWindow.ofPatient(patientId, status, currentDate, currentDate));
 	}
 
 	/**
@@ -495,13 +801,13 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @throws RecordNotFoundException If no upcoming appointments are found.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> getUpcomingAppointmentsByPatientIdAndStatus(long patientId, String status)
 			throws RecordNotFoundException {
 		LOGGER.info("In Service - Retrieving upcoming appointments for Patient ID: " + patientId + " with status: "
 				+ status);
-		LocalDate currentDate = LocalDate.now();
-		Date sqlDate = Date.valueOf(currentDate);
-		return repo.findByDateAfterAndPatientIdAndStatus(sqlDate, patientId, status);
+		LocalDate tomorrow = LocalDate.now().plusDays(1);
+		return repo.findWindow(AppointmentWindow.ofPatient(patientId, status, tomorrow, null));
 	}
 
 	/**
@@ -510,14 +816,20 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @param appointmentId      The ID of the appointment to be updated.
 	 * @param updatedAppointment The updated Appointment object.
 	 * @return The updated Appointment object.
-	 * @throws RecordNotFoundException If no appointment is found with the given ID.
+	 * @throws RecordNotFoundException       If no appointment is found with the given
+	 *                                       ID.
+	 * @throws DuplicateAppointmentException If the new slot is already booked.
+	 * @throws BookingLockTimeoutException   If the doctor-days could not be locked
+	 *                                       in time.
 	 */
 	@Override
 	public Appointment updateAppointment(long appointmentId, Appointment updatedAppointment)
-			throws RecordNotFoundException {
+			throws Exception {
 		LOGGER.info("In Service - Updating appointment with ID: " + appointmentId + " to: " + updatedAppointment);
-		Appointment existingAppointment = repo.findById(appointmentId)
+		Appointment existingAppointment = ReadRoute.onPrimary(() -> repo.findById(appointmentId))
 				.orElseThrow(() -> new RecordNotFoundException("No Appointment Found with ID: " + appointmentId));
+		Date oldDate = existingAppointment.getDate();
+		Time oldTime = existingAppointment.getAppointmentTime();
 
 		// Update all fields based on the updatedAppointment object
 		existingAppointment.setPatient_name(updatedAppointment.getPatient_name());
@@ -532,7 +844,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 		existingAppointment.setTransaction_id(updatedAppointment.getTransaction_id());
 		existingAppointment.setAddress(updatedAppointment.getAddress());
 
-		return repo.save(existingAppointment);
+		return saveMoved(existingAppointment, oldDate, oldTime, Change.UPDATED);
 	}
 
 	/**
@@ -545,6 +857,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 *         status.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public long getTodayAppointmentsCountByDoctorIdAndStatus(long doctorId, String status) {
 		LocalDate today = LocalDate.now();
 		return repo.countByDoctorIdAndStatusAndDate(doctorId, status, today);
@@ -560,11 +873,48 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 *         status.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Long getCountOfUpcomingAppointmentsByDoctorIdAndStatus(Long doctorId, String status) {
-		LocalDate todayDate = LocalDate.now();
-		List<Appointment> upcomingAppointments = repo.findByDateAfterAndDoctorIdAndStatus(todayDate, doctorId, status);
+		return repo.countByDateAfterAndDoctorIdAndStatus(LocalDate.now(), doctorId, status);
+	}
 
-		return (long) upcomingAppointments.size();
+	/**
+	 * Retrieves the appointments of a time window in one ordered query.
+	 *
+	 * @param window The date range, filters and sort order.
+	 * @return List<Appointment> The appointments, ordered by date, time and ID.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Appointment> getAppointmentsInWindow(AppointmentWindow window) {
+		LOGGER.info("In Service - Retrieving appointments in window: " + window);
+		return repo.findWindow(window);
+	}
+
+	/**
+	 * Retrieves a doctor's appointment counts per status for today, upcoming and
+	 * overall, from one aggregate query.
+	 *
+	 * @param doctorId The ID of the doctor.
+	 * @return DoctorSummaryDTO The counts.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public DoctorSummaryDTO getDoctorSummary(long doctorId) {
+		Map<String, Long> today = new TreeMap<>();
+		Map<String, Long> upcoming = new TreeMap<>();
+		Map<String, Long> total = new TreeMap<>();
+		for (DoctorStatusCounts counts : repo.countByStatusForDoctor(doctorId, Date.valueOf(LocalDate.now()))) {
+			String status = String.valueOf(counts.getStatus());
+			if (counts.getToday() > 0) {
+				today.put(status, counts.getToday());
+			}
+			if (counts.getUpcoming() > 0) {
+				upcoming.put(status, counts.getUpcoming());
+			}
+			total.put(status, counts.getTotal());
+		}
+		return new DoctorSummaryDTO(doctorId, today, upcoming, total);
 	}
 
 	/**
@@ -576,6 +926,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 *         and status.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> findByPatientIdAndStatus(long patientId, String status) {
 		return repo.findByPatientIdAndStatus(patientId, status);
 	}
@@ -590,14 +941,9 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 *         specified doctor and status.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> NotAcceptedAppointmentsForRequest(long doctorId, String status) {
-		LocalDate todayDate = LocalDate.now();
-		List<Appointment> today = repo.findByDateAndDoctorIdAndStatus(todayDate, doctorId, status);
-		List<Appointment> upcoming = repo.findByDateAfterAndDoctorIdAndStatus(todayDate, doctorId, status);
-		List<Appointment> Both = new ArrayList<>();
-		Both.addAll(upcoming);
-		Both.addAll(today);
-		return Both;
+		return repo.findWindow(AppointmentWindow.ofDoctor(doctorId, status, LocalDate.now(), null));
 	}
 
 	/**
@@ -644,35 +990,24 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 *         patient.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> findUpcomingByPatientId(long patientId) {
-
-		LocalDate currentDate = LocalDate.now();
-
-		List<Appointment> upcoming = repo.findByDateAfterAndPatientId(currentDate, patientId);
-
-		List<Appointment> today = repo.findByDateAndPatientId(currentDate, patientId);
-
-		List<Appointment> Both = new ArrayList<>();
-
-		Both.addAll(upcoming);
-
-		Both.addAll(today);
-
-		return Both;
-
+		return repo.findWindow(AppointmentWindow.ofPatient(patientId, null, LocalDate.now(), null));
 	}
 
 	/**
-	 * Retrieves a list of appointment times for available slots on a specific date
-	 * and for a specific doctor.
+	 * Retrieves the appointment times of a doctor's committed appointments on a
+	 * specific date, as stored. Reservations of bookings still in flight are not
+	 * included.
 	 *
-	 * @param doctorId The ID of the doctor for whom available slots are retrieved.
-	 * @param date     The date for which available slots are retrieved.
-	 * @return List<Appointment> A list of appointment times for available slots.
+	 * @param doctorId The ID of the doctor.
+	 * @param date     The date for which booked times are retrieved.
+	 * @return List<Time> The booked appointment times.
 	 */
 	@Override
-	public List<Appointment> getAppointmentTimeForSlots(long doctorId, Date date) {
-		return repo.findByDoctorIdAndDate(doctorId, date);
+	@Transactional(readOnly = true)
+	public List<Time> getBookedTimesForSlots(long doctorId, Date date) {
+		return repo.findAppointmentTimesByDoctorIdAndDate(doctorId, date);
 	}
 
 	/**
@@ -689,6 +1024,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @throws RecordNotFoundException if no upcoming appointments are found for the
 	 *                                 specified criteria.
 	 */
+	@Transactional(readOnly = true)
 	public List<Appointment> getUpcomingAppointmentsByDoctorIdAndStatusAndType(long doctorId, String type,
 			String status) throws RecordNotFoundException {
 		Date todayDate = Date.valueOf(LocalDate.now());
@@ -697,8 +1033,8 @@ public class AppointmentServiceImplementation implements AppointmentService {
 		LOGGER.info("Status: " + status);
 		LOGGER.info("Today's Date: " + todayDate);
 
-		List<Appointment> upcomingAppointments = repo.findAllAppointmentsByDoctorIdAndTypeAndStatusAndDate(doctorId,
-				type, status, todayDate);
+		List<Appointment> upcomingAppointments = repo.findWindow(new AppointmentWindow(doctorId, null, Set.of(status),
+				type, todayDate.toLocalDate(), todayDate.toLocalDate(), null));
 
 		if (upcomingAppointments.isEmpty()) {
 			LOGGER.warning("In Service - No upcoming appointments found for Doctor ID: " + doctorId + " with status: "
@@ -718,6 +1054,7 @@ public class AppointmentServiceImplementation implements AppointmentService {
 	 * @throws RecordNotFoundException if no appointment is found with the given ID.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Appointment getAppointmentById(long appointment_id) throws RecordNotFoundException {
 		Appointment appointment = repo.findById(appointment_id)
 				.orElseThrow(() -> new RecordNotFoundException("No Appointment Found with this ID " + appointment_id));
@@ -725,16 +1062,56 @@ public class AppointmentServiceImplementation implements AppointmentService {
 		return appointment;
 	}
 
+	/**
+	 * Retrieves the first {@code appointments.list.max-size} appointments in
+	 * (date, time, ID) order. The whole table is never loaded; callers needing
+	 * more use {@link #getAppointmentPage}.
+	 *
+	 * @return The appointments, at most the cap.
+	 * @throws RecordNotFoundException If there are no appointments.
+	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Appointment> getAllAppointments() throws RecordNotFoundException {
-	    List<Appointment> appointments = repo.findAll(); // Replace 'appointmentRepository' with your actual repository or service
+	    List<Appointment> appointments = repo.findPage(AppointmentFilter.NONE, null, maxListSize + 1);
 	    
 	    if (appointments.isEmpty()) {
 	        throw new RecordNotFoundException("No appointments found.");
 	    }
+	    if (appointments.size() > maxListSize) {
+	        LOGGER.warning("In Service - All appointments listing capped at " + maxListSize
+	                + " appointments; page through /appointments instead");
+	        appointments = appointments.subList(0, maxListSize);
+	    }
 	    
 	    return appointments;
 	}
 
+	/**
+	 * Retrieves one page of appointments in (date, time, ID) order. One row more
+	 * than the page is read to tell whether another page follows.
+	 *
+	 * @param filter The filters to apply.
+	 * @param cursor The nextCursor of the previous page, or null to start.
+	 * @param limit  The page size, or null for {@code appointments.page.default-size}.
+	 * @return AppointmentPageDTO The page.
+	 * @throws IllegalArgumentException If the page size is out of bounds or the
+	 *                                  cursor is malformed.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public AppointmentPageDTO getAppointmentPage(AppointmentFilter filter, String cursor, Integer limit) {
+		int size = limit == null ? defaultPageSize : limit;
+		if (size < 1 || size > maxPageSize) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+		}
+		AppointmentCursor after = cursor == null || cursor.isBlank() ? null : AppointmentCursor.decode(cursor);
+		List<Appointment> appointments = repo.findPage(filter, after, size + 1);
+		if (appointments.size() <= size) {
+			return new AppointmentPageDTO(appointments, null);
+		}
+		List<Appointment> page = new ArrayList<>(appointments.subList(0, size));
+		return new AppointmentPageDTO(page, AppointmentCursor.of(page.get(size - 1)).encode());
+	}
 
 }
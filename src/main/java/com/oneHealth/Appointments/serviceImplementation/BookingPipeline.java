@@ -0,0 +1,195 @@
+package com.oneHealth.Appointments.serviceImplementation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.oneHealth.Appointments.DTO.AppointmentDTO;
+import com.oneHealth.Appointments.DTO.DoctorProfile;
+import com.oneHealth.Appointments.DTO.Patient;
+import com.oneHealth.Appointments.deadline.Deadline;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.exception.DeadlineExceededException;
+import com.oneHealth.Appointments.exception.RecordNotFoundException;
+import com.oneHealth.Appointments.gateway.ProfileClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuple3;
+import reactor.util.function.Tuples;
+
+/**
+ * Builds the enriched AppointmentDTO needed to book or cancel an appointment.
+ * The patient profile lookup, the doctor profile lookup and the DTO mapping
+ * are started together and joined once all of them have finished, so the
+ * caller waits for the slowest stage instead of the sum of all of them. Slot
+ * conflicts are checked by the SlotReservationEngine before the pipeline
+ * runs. Profiles come from the cached {@link ProfileClient}; when several
+ * appointments are prepared together each distinct profile is looked up once.
+ * Each stage is timed under the "booking.pipeline" metric. Within a request
+ * the lookups may take the request's {@link Deadline} except for
+ * {@code request.deadline.db-reserve}, which is kept for the database work
+ * that follows.
+ *
+ * @author Anup
+ * @version 1.0
+ */
+@Component
+public class BookingPipeline {
+	private static final Logger LOGGER = Logger.getLogger(BookingPipeline.class.getName());
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private ModelMapper mapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${request.deadline.db-reserve:PT0.5S}")
+	private Duration dbReserve;
+
+	/**
+	 * Prepares the notification DTO for a new booking. Both profiles must exist.
+	 *
+	 * @param obj                The appointment being booked.
+	 * @param patientProfilePath The gateway path used to look up the patient.
+	 * @return The enriched AppointmentDTO.
+	 * @throws RecordNotFoundException If either profile could not be found.
+	 */
+	public AppointmentDTO prepareBooking(Appointment obj, String patientProfilePath) throws Exception {
+		return run(List.of(obj), patientProfilePath, true).get(0);
+	}
+
+	/**
+	 * Prepares the notification DTOs for several appointments booked together.
+	 * Each distinct patient and doctor profile is looked up once, however many
+	 * of the appointments refer to it. All profiles must exist.
+	 *
+	 * @param objs               The appointments being booked.
+	 * @param patientProfilePath The gateway path used to look up the patients.
+	 * @return The enriched AppointmentDTOs, in the order of the appointments.
+	 * @throws RecordNotFoundException If any profile could not be found.
+	 */
+	public List<AppointmentDTO> prepareBookings(List<Appointment> objs, String patientProfilePath)
+			throws Exception {
+		return run(objs, patientProfilePath, true);
+	}
+
+	/**
+	 * Prepares the notification DTO for a cancelled appointment. Missing profiles
+	 * are tolerated and simply leave the related fields empty.
+	 *
+	 * @param obj The appointment being cancelled.
+	 * @return The enriched AppointmentDTO.
+	 */
+	public AppointmentDTO prepareCancellation(Appointment obj) throws Exception {
+		return run(List.of(obj), ProfileClient.PATIENT_PROFILE_PATH, false).get(0);
+	}
+
+	/**
+	 * Maps an appointment to its notification DTO without any profile details,
+	 * for bookings made while the gateway is unavailable.
+	 *
+	 * @param obj The appointment.
+	 * @return The AppointmentDTO, still to be enriched.
+	 */
+	public AppointmentDTO map(Appointment obj) {
+		return mapper.map(obj, AppointmentDTO.class);
+	}
+
+	private List<AppointmentDTO> run(List<Appointment> objs, String patientProfilePath, boolean profilesRequired)
+			throws Exception {
+		Map<String, Long> timings = new ConcurrentHashMap<>();
+		long start = System.nanoTime();
+
+		Mono<Map<Long, Optional<Patient>>> patients = timed("patientProfile", timings,
+				Flux.fromStream(objs.stream().map(Appointment::getPatientId).distinct())
+						.flatMap(id -> profileClient.patient(patientProfilePath, id).map(p -> Tuples.of(id, p)))
+						.collectMap(Tuple2::getT1, Tuple2::getT2));
+
+		Mono<Map<Long, Optional<DoctorProfile>>> doctors = timed("doctorProfile", timings,
+				Flux.fromStream(objs.stream().map(Appointment::getDoctorId).distinct())
+						.flatMap(id -> profileClient.doctor(id).map(p -> Tuples.of(id, p)))
+						.collectMap(Tuple2::getT1, Tuple2::getT2));
+
+		Mono<List<AppointmentDTO>> mapping = timed("mapping", timings,
+				Mono.fromCallable(() -> objs.stream().map(obj -> mapper.map(obj, AppointmentDTO.class)).toList()));
+
+		// Leave the database work of the request its share of the deadline
+		Deadline.check("profile lookups", dbReserve);
+		Mono<Tuple3<Map<Long, Optional<Patient>>, Map<Long, Optional<DoctorProfile>>, List<AppointmentDTO>>> zipped = Mono
+				.zip(patients, doctors, mapping);
+		Optional<Deadline> deadline = Deadline.current();
+		if (deadline.isPresent()) {
+			zipped = zipped.timeout(deadline.get().remaining().minus(dbReserve), Mono.error(
+					() -> new DeadlineExceededException("Request deadline reached during profile lookups")));
+		}
+
+		Tuple3<Map<Long, Optional<Patient>>, Map<Long, Optional<DoctorProfile>>, List<AppointmentDTO>> joined;
+		try {
+			joined = zipped.block();
+		} catch (RuntimeException e) {
+			Throwable cause = Exceptions.unwrap(e);
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw e;
+		} finally {
+			long total = System.nanoTime() - start;
+			record("total", total, timings);
+			LOGGER.info("In Service - Booking pipeline timings (ms) for appointments "
+					+ objs.stream().map(Appointment::getAppointment_id).toList() + ": " + timings);
+		}
+
+		List<AppointmentDTO> dtos = joined.getT3();
+		for (int i = 0; i < objs.size(); i++) {
+			Appointment obj = objs.get(i);
+			AppointmentDTO dto = dtos.get(i);
+			Optional<Patient> patientDto = joined.getT1().get(obj.getPatientId());
+			Optional<DoctorProfile> profile = joined.getT2().get(obj.getDoctorId());
+
+			if (profilesRequired && profile.isEmpty()) {
+				throw new RecordNotFoundException("No Doctor Profile Found with ID: " + obj.getDoctorId());
+			}
+			if (profilesRequired && patientDto.isEmpty()) {
+				throw new RecordNotFoundException("No Patient Profile Found with ID: " + obj.getPatientId());
+			}
+
+			profile.ifPresent(p -> {
+				dto.setDoctor_name(p.getFirst_name() + " " + p.getLast_name());
+				dto.setContact(p.getContact());
+				dto.setDoctor_email(p.getEmail());
+			});
+			patientDto.ifPresent(p -> dto.setPatient_email(p.getEmailId()));
+		}
+		return dtos;
+	}
+
+	private <T> Mono<T> timed(String stage, Map<String, Long> timings, Mono<T> source) {
+		return Mono.defer(() -> {
+			long stageStart = System.nanoTime();
+			return source.doFinally(signal -> record(stage, System.nanoTime() - stageStart, timings));
+		});
+	}
+
+	private void record(String stage, long nanos, Map<String, Long> timings) {
+		timings.put(stage, TimeUnit.NANOSECONDS.toMillis(nanos));
+		Timer.builder("booking.pipeline").tag("stage", stage).register(meterRegistry).record(nanos,
+				TimeUnit.NANOSECONDS);
+	}
+}
@@ -0,0 +1,19 @@
+-- Transactional outbox for booking notifications. Runs before the indexes in V2, which cover it.
+
+create sequence notification_outbox_seq start with 1 increment by 50;
+
+create table notification_outbox (
+    attempts integer not null,
+    appointment_id bigint not null,
+    created_at timestamp(6),
+    digest_key bigint,
+    id bigint not null,
+    next_attempt_at timestamp(6),
+    sent_at timestamp(6),
+    last_error varchar(1000),
+    path varchar(255),
+    payload text,
+    profile_path varchar(255),
+    status varchar(255),
+    primary key (id)
+);
@@ -0,0 +1,24 @@
+-- Schema as created by Hibernate (ddl-auto=update) before migrations were introduced. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create sequence appointment_seq start with 1 increment by 50;
+
+create table appointment (
+    age integer not null,
+    amount_paid integer not null,
+    appointment_time time(6),
+    date date,
+    appointment_id bigint not null,
+    doctor_id bigint not null,
+    patient_id bigint not null,
+    address varchar(255),
+    description varchar(255),
+    doctor_name varchar(255),
+    gender varchar(255),
+    patient_name varchar(255),
+    payment_mode varchar(255),
+    status varchar(255),
+    transaction_id varchar(255),
+    type varchar(255),
+    primary key (appointment_id)
+);
@@ -0,0 +1,42 @@
+-- Composite indexes for the appointment access paths. Equality columns come first and the date last, so both
+-- "on date" and "after date" lookups are a single index range scan.
+
+-- Databases created before the slot constraint existed may hold the same slot twice, and the constraint cannot be
+-- added over them. The earliest booking of each slot stays; the later ones are moved, unchanged, to
+-- appointment_slot_conflict for the clinic to rebook.
+create table appointment_slot_conflict as
+select * from appointment a
+where exists (select 1 from appointment b
+              where b.doctor_id = a.doctor_id and b.date = a.date and b.appointment_time = a.appointment_time
+                and b.appointment_id < a.appointment_id);
+
+delete from appointment a
+where exists (select 1 from appointment_slot_conflict c where c.appointment_id = a.appointment_id);
+
+-- One booking per slot. Development databases updated by Hibernate may already hold it as
+-- (appointment_time, date, doctor_id), which no doctor lookup can use; leading with doctor_id also serves the doctor,
+-- doctor-day and slot-time queries
+alter table appointment drop constraint if exists uk_appointment_doctor_date_time;
+alter table appointment add constraint uk_appointment_doctor_date_time unique (doctor_id, date, appointment_time);
+
+-- Doctor dashboards: by status, today / upcoming / counts, optionally by type
+create index if not exists idx_appointment_doctor_status_date on appointment (doctor_id, status, date);
+
+-- Patient history: by status, today / upcoming
+create index if not exists idx_appointment_patient_status_date on appointment (patient_id, status, date);
+
+-- Patient listings by date and keyset pages per patient
+create index if not exists idx_appointment_patient_date on appointment (patient_id, date, appointment_time);
+
+-- Keyset pages over all appointments, and lookups by date
+create index if not exists idx_appointment_date_time_id on appointment (date, appointment_time, appointment_id);
+
+-- Upcoming appointments by status across doctors
+create index if not exists idx_appointment_status_date on appointment (status, date);
+
+-- Lookups by type
+create index if not exists idx_appointment_type on appointment (type);
+
+-- Outbox polling by status and due time, and status lookups per appointment
+create index if not exists idx_notification_outbox_status_next on notification_outbox (status, next_attempt_at);
+create index if not exists idx_notification_outbox_appointment on notification_outbox (appointment_id, path);
@@ -0,0 +1,8 @@
+-- Heartbeat for measuring read replica lag: the primary's copy is stamped every probe interval, and a replica is
+-- as far behind as the oldest stamp it has not applied yet
+create table if not exists replication_heartbeat (
+    id integer primary key,
+    beat_millis bigint not null
+);
+
+insert into replication_heartbeat (id, beat_millis) values (1, 0);
@@ -0,0 +1,112 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.oneHealth.Appointments.DTO.AppointmentChangeDTO;
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.schedule.AppointmentChangeStream;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent.Change;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+/**
+ * Change streams deliver a doctor's committed changes, resume after a
+ * Last-Event-ID and drop subscribers that fall too far behind.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = {
+		"notification.outbox.poll-interval=PT1H", "appointments.events.subscriber-buffer=4" })
+class AppointmentChangeStreamTest {
+
+	@Autowired
+	private AppointmentChangeStream stream;
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void doctorStreamDeliversAndResumes() throws Exception {
+		Appointment appointment = repo.save(appointment());
+		CompletableFuture<List<ServerSentEvent<AppointmentChangeDTO>>> received = changes(stream.doctor(971, null), 2);
+
+		service.updateAppointmentStatus(appointment.getAppointment_id(), "Completed");
+		events.publishEvent(new AppointmentChangedEvent(Change.CREATED, 0, 972, 82, "Accepted", Set.of()));
+		service.updateAppointmentDateTime(appointment.getAppointment_id(), Date.valueOf(LocalDate.now().plusDays(3)),
+				Time.valueOf(LocalTime.of(10, 0)));
+
+		List<ServerSentEvent<AppointmentChangeDTO>> live = received.get(5, TimeUnit.SECONDS);
+		assertEquals(List.of("STATUS_CHANGED", "RESCHEDULED"), live.stream().map(ServerSentEvent::event).toList());
+		assertEquals("Completed", live.get(0).data().getStatus());
+		assertEquals(2, live.get(1).data().getDates().size());
+
+		List<ServerSentEvent<AppointmentChangeDTO>> resumed = changes(stream.doctor(971, live.get(0).id()), 1)
+				.get(5, TimeUnit.SECONDS);
+		assertEquals(live.get(1).id(), resumed.get(0).id());
+
+		List<ServerSentEvent<AppointmentChangeDTO>> unknown = changes(stream.doctor(971, "elsewhere-1"), 1)
+				.get(5, TimeUnit.SECONDS);
+		assertEquals(AppointmentChangeStream.RESYNC, unknown.get(0).event());
+	}
+
+	@Test
+	void slowSubscriberIsDisconnected() throws Exception {
+		CompletableFuture<Throwable> failed = new CompletableFuture<>();
+		stream.patient(83, null).subscribe(new BaseSubscriber<>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				// Never requests anything
+			}
+
+			@Override
+			protected void hookOnError(Throwable throwable) {
+				failed.complete(throwable);
+			}
+		});
+		for (int i = 0; i < 10; i++) {
+			events.publishEvent(new AppointmentChangedEvent(Change.CREATED, i, 973, 83, "Accepted", Set.of()));
+		}
+		assertTrue(failed.get(5, TimeUnit.SECONDS).getMessage().contains("fell behind"));
+		assertTrue(meterRegistry.get("appointments.events").tag("result", "overflow").counter().count() >= 1);
+	}
+
+	private static CompletableFuture<List<ServerSentEvent<AppointmentChangeDTO>>> changes(
+			Flux<ServerSentEvent<AppointmentChangeDTO>> events, int count) {
+		return events.filter(event -> event.event() != null).take(count).collectList().toFuture();
+	}
+
+	private static Appointment appointment() {
+		return AppointmentFixture.appointment(971, 82, LocalDate.now().plusDays(1), LocalTime.of(9, 0))
+				.status("Accepted").build();
+	}
+}
@@ -0,0 +1,75 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+
+/**
+ * GET /export streams the matching appointments as NDJSON, plain or gzipped.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = "notification.outbox.poll-interval=PT1H")
+@AutoConfigureMockMvc
+class AppointmentExportTest {
+
+	private static final String URL = "/api/doctors/appointment/export";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void exportStreamsOneLinePerAppointment() throws Exception {
+		for (int hour = 9; hour < 12; hour++) {
+			repo.save(appointment(821, LocalTime.of(hour, 0)));
+		}
+
+		MvcResult plain = mvc.perform(get(URL).param("doctorId", "821")).andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mvc.perform(asyncDispatch(plain)).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString();
+		String[] lines = body.split("\n");
+		assertEquals(3, lines.length);
+		assertTrue(body.endsWith("\n"));
+		assertEquals(821, objectMapper.readValue(lines[2], Appointment.class).getDoctorId());
+
+		MvcResult gzipped = mvc.perform(get(URL).param("doctorId", "821").header("Accept-Encoding", "gzip"))
+				.andExpect(request().asyncStarted()).andReturn();
+		byte[] compressed = mvc.perform(asyncDispatch(gzipped)).andExpect(header().string("Content-Encoding", "gzip"))
+				.andReturn().getResponse().getContentAsByteArray();
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	private static Appointment appointment(long doctorId, LocalTime time) {
+		return AppointmentFixture.appointment(doctorId, 78, LocalDate.now().plusDays(3), time).status("Accepted")
+				.build();
+	}
+}
@@ -0,0 +1,50 @@
+package com.jpa.test;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.oneHealth.Appointments.entity.Appointment;
+
+/**
+ * Builds the appointments tests book and save. Unless set otherwise the
+ * patient is called "Ravi", the status is "Not Accepted" and the type
+ * "General"; the date and time may be null.
+ */
+final class AppointmentFixture {
+	private final Appointment appointment = new Appointment();
+
+	private AppointmentFixture(long doctorId, long patientId, LocalDate date, LocalTime time) {
+		appointment.setDoctorId(doctorId);
+		appointment.setPatientId(patientId);
+		appointment.setPatient_name("Ravi");
+		appointment.setDate(date == null ? null : Date.valueOf(date));
+		appointment.setAppointmentTime(time == null ? null : Time.valueOf(time));
+		appointment.setStatus("Not Accepted");
+		appointment.setType("General");
+	}
+
+	static AppointmentFixture appointment(long doctorId, long patientId, LocalDate date, LocalTime time) {
+		return new AppointmentFixture(doctorId, patientId, date, time);
+	}
+
+	AppointmentFixture patientName(String patientName) {
+		appointment.setPatient_name(patientName);
+		return this;
+	}
+
+	AppointmentFixture status(String status) {
+		appointment.setStatus(status);
+		return this;
+	}
+
+	AppointmentFixture type(String type) {
+		appointment.setType(type);
+		return this;
+	}
+
+	Appointment build() {
+		return appointment;
+	}
+}
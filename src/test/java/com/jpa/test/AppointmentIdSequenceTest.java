@@ -0,0 +1,54 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+
+/**
+ * In sequence mode appointment IDs are handed out the way Hibernate's pooled
+ * optimizer always did for appointment_seq: each sequence value is the top of
+ * a block of 50, so replicas still running the previous release never take
+ * overlapping blocks.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H" })
+class AppointmentIdSequenceTest {
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Test
+	void idsLieBelowTheSequenceValueTheirBlockWasTakenFrom() {
+		Appointment first = repo.save(appointment(9, 0));
+		Appointment second = repo.save(appointment(9, 30));
+
+		// The next value the sequence hands out; the last one taken is 50 below it
+		long next = jdbc.queryForObject(
+				"select base_value from information_schema.sequences where sequence_name = 'APPOINTMENT_SEQ'",
+				Long.class);
+		long lastTaken = next - 50;
+		for (Appointment saved : new Appointment[] { first, second }) {
+			assertTrue(saved.getAppointment_id() <= lastTaken && saved.getAppointment_id() > lastTaken - 100,
+					"ID " + saved.getAppointment_id() + " outside the blocks ending at " + lastTaken);
+		}
+	}
+
+	private static Appointment appointment(int hour, int minute) {
+		return AppointmentFixture.appointment(6301, 63, LocalDate.now().plusDays(5), LocalTime.of(hour, minute))
+				.build();
+	}
+}
@@ -0,0 +1,103 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.oneHealth.Appointments.DTO.AppointmentPageDTO;
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentFilter;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * Keyset pages cover a filtered listing exactly once, in (date, time, ID)
+ * order, including appointments of different doctors at the same time and,
+ * last, appointments without a date or time.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = "notification.outbox.poll-interval=PT1H")
+class AppointmentPaginationTest {
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Test
+	void pagesCoverTheListingOnceInOrder() {
+		LocalDate start = LocalDate.now().plusDays(30);
+		List<Appointment> saved = new ArrayList<>();
+		for (int day = 0; day < 3; day++) {
+			for (int doctor = 0; doctor < 3; doctor++) {
+				saved.add(repo.save(appointment(811 + doctor, start.plusDays(day), LocalTime.of(9, 0))));
+			}
+		}
+		AppointmentFilter window = new AppointmentFilter(null, 77L, null, null, start, start.plusDays(2));
+
+		List<Long> listed = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			AppointmentPageDTO page = service.getAppointmentPage(window, cursor, 2);
+			page.getAppointments().forEach(a -> listed.add(a.getAppointment_id()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(saved.stream().map(Appointment::getAppointment_id).sorted().toList(), listed);
+		assertEquals(5, pages);
+
+		AppointmentFilter oneDoctor = new AppointmentFilter(812L, 77L, "Accepted", null, null, null);
+		AppointmentPageDTO page = service.getAppointmentPage(oneDoctor, null, 10);
+		assertEquals(3, page.getAppointments().size());
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void appointmentsWithoutDateOrTimeAreListedLast() {
+		LocalDate day = LocalDate.now().plusDays(40);
+		Appointment noDate = repo.save(appointment(821, 78, null, LocalTime.of(9, 0)));
+		Appointment late = repo.save(appointment(821, 78, day.plusDays(1), LocalTime.of(9, 0)));
+		Appointment noTime = repo.save(appointment(821, 78, day, null));
+		Appointment early = repo.save(appointment(821, 78, day, LocalTime.of(9, 0)));
+
+		List<Long> listed = new ArrayList<>();
+		String cursor = null;
+		do {
+			AppointmentPageDTO page = service.getAppointmentPage(new AppointmentFilter(821L, 78L, null, null, null,
+					null), cursor, 1);
+			page.getAppointments().forEach(a -> listed.add(a.getAppointment_id()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertEquals(List.of(early.getAppointment_id(), late.getAppointment_id(), noDate.getAppointment_id(),
+				noTime.getAppointment_id()), listed);
+	}
+
+	@Test
+	void badPageSizeOrCursorIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> service.getAppointmentPage(AppointmentFilter.NONE, null, 100000));
+		assertThrows(IllegalArgumentException.class,
+				() -> service.getAppointmentPage(AppointmentFilter.NONE, "not-a-cursor", 10));
+	}
+
+	private static Appointment appointment(long doctorId, LocalDate date, LocalTime time) {
+		return appointment(doctorId, 77, date, time);
+	}
+
+	private static Appointment appointment(long doctorId, long patientId, LocalDate date, LocalTime time) {
+		return AppointmentFixture.appointment(doctorId, patientId, date, time).status("Accepted").build();
+	}
+}
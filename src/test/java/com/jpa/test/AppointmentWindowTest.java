@@ -0,0 +1,64 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.AppointmentWindow;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * Today's and upcoming appointments come back from one window query, in
+ * (date, time, ID) order, instead of as two concatenated lists.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = "notification.outbox.poll-interval=PT1H")
+class AppointmentWindowTest {
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Test
+	void todayAndUpcomingAreOneOrderedList() {
+		LocalDate today = LocalDate.now();
+		Appointment later = repo.save(appointment(today.plusDays(2), LocalTime.of(9, 0), "Not Accepted"));
+		Appointment tomorrow = repo.save(appointment(today.plusDays(1), LocalTime.of(11, 0), "Not Accepted"));
+		Appointment todayLate = repo.save(appointment(today, LocalTime.of(16, 0), "Not Accepted"));
+		Appointment todayEarly = repo.save(appointment(today, LocalTime.of(8, 0), "Not Accepted"));
+		repo.save(appointment(today.minusDays(1), LocalTime.of(9, 0), "Not Accepted"));
+		Appointment accepted = repo.save(appointment(today.plusDays(1), LocalTime.of(10, 0), "Accepted"));
+
+		assertEquals(ids(todayEarly, todayLate, tomorrow, later),
+				ids(service.NotAcceptedAppointmentsForRequest(941, "Not Accepted")));
+		assertEquals(ids(todayEarly, todayLate, accepted, tomorrow, later),
+				ids(service.findUpcomingByPatientId(79)));
+		assertEquals(ids(later, tomorrow, accepted),
+				ids(service.getAppointmentsInWindow(new AppointmentWindow(941L, null,
+						Set.of("Accepted", "Not Accepted"), "General", today.plusDays(1), null, Sort.Direction.DESC))));
+	}
+
+	private static List<Long> ids(Appointment... appointments) {
+		return ids(List.of(appointments));
+	}
+
+	private static List<Long> ids(List<Appointment> appointments) {
+		return appointments.stream().map(Appointment::getAppointment_id).toList();
+	}
+
+	private static Appointment appointment(LocalDate date, LocalTime time, String status) {
+		return AppointmentFixture.appointment(941, 79, date, time).status(status).build();
+	}
+}
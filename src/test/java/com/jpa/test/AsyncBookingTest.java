@@ -0,0 +1,123 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.notification.NotificationOutboxService;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+
+/**
+ * POST /saveappointment with Prefer: respond-async answers 202 with a booking
+ * status URL, and the booking is finished in the background, or rejected if
+ * the patient turns out not to exist.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H" })
+@AutoConfigureMockMvc
+class AsyncBookingTest {
+
+	private static final String URL = "/api/doctors/appointment/saveappointment";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private AppointmentRepository appointmentRepo;
+
+	@Autowired
+	private StubGateway gateway;
+
+	@Test
+	void acceptedBookingIsConfirmedInTheBackground() throws Exception {
+		String location = mvc.perform(post(URL).header("Prefer", "respond-async")
+				.contentType(MediaType.APPLICATION_JSON).content(appointment(511, "09:00:00")))
+				.andExpect(status().isAccepted()).andReturn().getResponse().getHeader("Location");
+		assertTrue(location.contains("/api/doctors/appointment/booking-status/"), location);
+		long appointmentId = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+
+		MvcResult waiting = mvc.perform(get(location).param("waitMs", "5000")).andExpect(request().asyncStarted())
+				.andReturn();
+		mvc.perform(asyncDispatch(waiting)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("CONFIRMED"));
+
+		List<NotificationOutbox> rows = outboxRepo.findByAppointmentIdAndPath(appointmentId,
+				NotificationOutboxService.APPOINTMENT_EMAIL);
+		assertTrue(rows.stream().anyMatch(row -> NotificationOutbox.STATUS_ENRICHED.equals(row.getStatus())));
+		assertTrue(rows.stream().anyMatch(row -> NotificationOutbox.STATUS_PENDING.equals(row.getStatus())
+				&& row.getPayload().contains("patient@example.com")));
+	}
+
+	@Test
+	void bookingOfAnUnknownPatientIsRejectedAndFreesTheSlot() throws Exception {
+		gateway.unknownPatients.add("4399");
+		String location = mvc.perform(post(URL).header("Prefer", "respond-async")
+				.contentType(MediaType.APPLICATION_JSON).content(appointment(513, 4399, "11:00:00")))
+				.andExpect(status().isAccepted()).andReturn().getResponse().getHeader("Location");
+		long appointmentId = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+
+		MvcResult waiting = mvc.perform(get(location).param("waitMs", "5000")).andExpect(request().asyncStarted())
+				.andReturn();
+		mvc.perform(asyncDispatch(waiting)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("REJECTED"));
+
+		assertFalse(appointmentRepo.existsById(appointmentId));
+		assertTrue(outboxRepo.findByAppointmentIdAndPath(appointmentId, NotificationOutboxService.APPOINTMENT_EMAIL)
+				.stream().allMatch(row -> NotificationOutbox.STATUS_REJECTED.equals(row.getStatus())));
+		// The slot can be booked again
+		mvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(appointment(513, "11:00:00")))
+				.andExpect(status().isCreated());
+	}
+
+	@Test
+	void secondAsyncBookingOfTheSameSlotConflicts() throws Exception {
+		String body = appointment(512, "10:00:00");
+		mvc.perform(post(URL).header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isAccepted());
+		mvc.perform(post(URL).header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isConflict());
+	}
+
+	@Test
+	void statusOfUnknownBookingIsNotFound() throws Exception {
+		MvcResult result = mvc.perform(get("/api/doctors/appointment/booking-status/987654321"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+		assertEquals(0, outboxRepo.findByAppointmentIdAndPath(987654321, NotificationOutboxService.APPOINTMENT_EMAIL)
+				.size());
+	}
+
+	private static String appointment(long doctorId, String time) {
+		return appointment(doctorId, 42, time);
+	}
+
+	private static String appointment(long doctorId, long patientId, String time) {
+		return "{\"doctorId\":" + doctorId + ",\"patientId\":" + patientId + ",\"patient_name\":\"Ravi\",\"date\":\""
+				+ LocalDate.now().plusDays(2) + "\",\"appointmentTime\":\"" + time
+				+ "\",\"status\":\"Not Accepted\",\"type\":\"General\"}";
+	}
+}
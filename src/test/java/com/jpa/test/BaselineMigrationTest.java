@@ -0,0 +1,84 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * A database created by Hibernate before migrations existed is baselined at
+ * V1 and brought up to date by the later migrations, as
+ * {@code spring.flyway.baseline-on-migrate} does on the first start. Slots it
+ * holds twice are set aside in appointment_slot_conflict before the slot
+ * constraint is added: the earliest booking of the slot stays.
+ */
+class BaselineMigrationTest {
+
+	@Test
+	void existingDatabaseIsBaselinedAndMigrated() {
+		String url = url("baseline");
+		JdbcTemplate jdbc = originalSchema(url);
+		insert(jdbc, 1, 701, "09:00:00");
+
+		migrate(url);
+
+		assertEquals(List.of(1L), jdbc.queryForList("select appointment_id from appointment", Long.class));
+		assertEquals(0, jdbc.queryForObject("select count(*) from notification_outbox", Integer.class));
+		assertEquals(1, jdbc.queryForObject("select next value for notification_outbox_seq", Integer.class));
+		assertEquals(1, jdbc.queryForObject("select count(*) from information_schema.table_constraints "
+				+ "where constraint_name = 'UK_APPOINTMENT_DOCTOR_DATE_TIME'", Integer.class));
+		// V1 is only recorded as the baseline; everything after it runs
+		assertEquals(List.of("1.1", "2", "3"), jdbc.queryForList("select \"version\" from \"flyway_schema_history\" "
+				+ "where \"type\" = 'SQL' order by \"installed_rank\"", String.class));
+	}
+
+	@Test
+	void duplicateSlotsAreSetAsideBeforeTheConstraintIsAdded() {
+		String url = url("slots");
+		JdbcTemplate jdbc = originalSchema(url);
+		insert(jdbc, 1, 701, "09:00:00");
+		insert(jdbc, 2, 701, "09:00:00");
+		insert(jdbc, 3, 701, "09:30:00");
+		insert(jdbc, 4, 701, "09:00:00");
+
+		migrate(url);
+
+		assertEquals(List.of(1L, 3L),
+				jdbc.queryForList("select appointment_id from appointment order by appointment_id", Long.class));
+		assertEquals(List.of(2L, 4L), jdbc.queryForList(
+				"select appointment_id from appointment_slot_conflict order by appointment_id", Long.class));
+	}
+
+	private static String url(String name) {
+		return "jdbc:h2:mem:onehealth-migration-" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+	}
+
+	private static void migrate(String url) {
+		Flyway.configure().dataSource(url, "sa", "").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+	}
+
+	/**
+	 * The schema Hibernate (ddl-auto=update) created for the original entity.
+	 */
+	private static JdbcTemplate originalSchema(String url) {
+		JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+		jdbc.execute("create sequence appointment_seq start with 1 increment by 50");
+		jdbc.execute("create table appointment (age integer not null, amount_paid integer not null, "
+				+ "appointment_time time(6), date date, appointment_id bigint not null, doctor_id bigint not null, "
+				+ "patient_id bigint not null, address varchar(255), description varchar(255), "
+				+ "doctor_name varchar(255), gender varchar(255), patient_name varchar(255), "
+				+ "payment_mode varchar(255), status varchar(255), transaction_id varchar(255), "
+				+ "type varchar(255), primary key (appointment_id))");
+		return jdbc;
+	}
+
+	private static void insert(JdbcTemplate jdbc, long id, long doctorId, String time) {
+		jdbc.update("insert into appointment (appointment_id, doctor_id, patient_id, age, amount_paid, date, "
+				+ "appointment_time, status) values (?, ?, 42, 30, 0, date '2030-01-07', cast(? as time), 'Accepted')",
+				id, doctorId, time);
+	}
+}
@@ -0,0 +1,94 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.gateway.ProfileClient;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compares the outbound I/O of the old two-call booking flow
+ * (saveDoctorAppointment followed by savePatientAppointment) with the
+ * single-pass bookAppointment, as exact counts per booking. The profile caches
+ * are cleared before every pass over the profiles, so that every lookup
+ * reaches the stub gateway whatever the cache settings and timing.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H" })
+class BookingIoBenchmarkTest {
+
+	private static final int BOOKINGS = 20;
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private StubGateway gateway;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void singlePassBookingHalvesOutboundIo() throws Exception {
+		Result twoPass = measure(1, appointment -> {
+			profileClient.invalidateAll();
+			service.saveDoctorAppointment(appointment);
+			profileClient.invalidateAll();
+			service.savePatientAppointment(appointment);
+		});
+		Result singlePass = measure(2, appointment -> {
+			profileClient.invalidateAll();
+			service.bookAppointment(appointment);
+		});
+
+		// Patient and doctor profile, one mapping and one queued email per pass
+		assertEquals(new Result(4 * BOOKINGS, 2 * BOOKINGS, 2 * BOOKINGS), twoPass);
+		assertEquals(new Result(2 * BOOKINGS, BOOKINGS, BOOKINGS), singlePass);
+	}
+
+	private Result measure(long doctorId, Booking booking) throws Exception {
+		long gets = gateway.gets.get();
+		long emails = outboxRepo.count();
+		long mappings = mappings();
+		for (int i = 0; i < BOOKINGS; i++) {
+			booking.book(appointment(doctorId, i));
+		}
+		return new Result(gateway.gets.get() - gets, mappings() - mappings, outboxRepo.count() - emails);
+	}
+
+	private long mappings() {
+		var timer = meterRegistry.find("booking.pipeline").tag("stage", "mapping").timer();
+		return timer == null ? 0 : timer.count();
+	}
+
+	private static Appointment appointment(long doctorId, int slot) {
+		return AppointmentFixture.appointment(doctorId, 100 + slot, LocalDate.now().plusDays(1),
+				LocalTime.of(8, 0).plusMinutes(15L * slot)).patientName("Patient " + slot).build();
+	}
+
+	private interface Booking {
+		void book(Appointment appointment) throws Exception;
+	}
+
+	private record Result(long gets, long mappings, long emails) {
+	}
+}
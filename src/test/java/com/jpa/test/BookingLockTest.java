@@ -0,0 +1,148 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.booking.BookingLockManager;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * Bookings and reschedules of the same doctor-day take turns on its lock, and
+ * a request that cannot get the lock within {@code booking.lock.timeout} is
+ * answered with 503 instead of waiting on.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H", "booking.lock.timeout=PT0.2S" })
+@AutoConfigureMockMvc
+class BookingLockTest {
+
+	private static final String BASE = "/api/doctors/appointment";
+
+	private static final Date DAY = Date.valueOf(LocalDate.now().plusDays(4));
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private BookingLockManager locks;
+
+	@Autowired
+	private AppointmentService service;
+
+	@Test
+	void bookingsOfOneDoctorDayRunOneAtATime() throws Exception {
+		int bookings = 4;
+		AtomicInteger inside = new AtomicInteger();
+		AtomicInteger mostInside = new AtomicInteger();
+		ExecutorService threads = Executors.newFixedThreadPool(bookings);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> runs = new ArrayList<>();
+			for (int i = 0; i < bookings; i++) {
+				runs.add(threads.submit(() -> {
+					start.await();
+					return locks.withLock(6201, DAY, () -> {
+						mostInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+						Thread.sleep(20);
+						inside.decrementAndGet();
+						return null;
+					});
+				}));
+			}
+			start.countDown();
+			for (Future<?> run : runs) {
+				run.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			threads.shutdownNow();
+		}
+		assertEquals(1, mostInside.get());
+	}
+
+	@Test
+	void bookingThatCannotGetTheLockIsAnswered503() throws Exception {
+		whileLocked(6202, DAY, () -> mvc
+				.perform(post(BASE + "/saveappointment").contentType(MediaType.APPLICATION_JSON)
+						.content(appointmentJson(6202, "09:00:00")))
+				.andExpect(status().isServiceUnavailable()));
+
+		// Free again once the lock is released
+		mvc.perform(post(BASE + "/saveappointment").contentType(MediaType.APPLICATION_JSON)
+				.content(appointmentJson(6202, "09:00:00"))).andExpect(status().isCreated());
+	}
+
+	@Test
+	void rescheduleTakesTheLocksOfBothDays() throws Exception {
+		Appointment appointment = service.bookAppointment(appointment(6203, DAY, 9));
+		Date nextDay = Date.valueOf(DAY.toLocalDate().plusDays(1));
+		String move = BASE + "/update-date-time/" + appointment.getAppointment_id() + "?newDate=" + nextDay
+				+ "&newTime=10:00:00";
+
+		// Held up by a booking of the day it leaves, and of the day it moves to
+		whileLocked(6203, DAY, () -> mvc.perform(put(move)).andExpect(status().isServiceUnavailable()));
+		whileLocked(6203, nextDay, () -> mvc.perform(put(move)).andExpect(status().isServiceUnavailable()));
+
+		mvc.perform(put(move)).andExpect(status().isOk());
+	}
+
+	/**
+	 * Runs the request while another thread holds the lock of the doctor-day.
+	 */
+	private void whileLocked(long doctorId, Date date, Request request) throws Exception {
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		ExecutorService holder = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> holding = holder.submit(() -> locks.withLock(doctorId, date, () -> {
+				locked.countDown();
+				return done.await(10, TimeUnit.SECONDS);
+			}));
+			locked.await(10, TimeUnit.SECONDS);
+			try {
+				request.perform();
+			} finally {
+				done.countDown();
+			}
+			holding.get(10, TimeUnit.SECONDS);
+		} finally {
+			holder.shutdownNow();
+		}
+	}
+
+	private interface Request {
+		void perform() throws Exception;
+	}
+
+	private static Appointment appointment(long doctorId, Date date, int hour) {
+		return AppointmentFixture.appointment(doctorId, 62, date.toLocalDate(), LocalTime.of(hour, 0)).build();
+	}
+
+	private static String appointmentJson(long doctorId, String time) {
+		return "{\"doctorId\":" + doctorId + ",\"patientId\":62,\"patient_name\":\"Ravi\",\"date\":\"" + DAY
+				+ "\",\"appointmentTime\":\"" + time + "\",\"status\":\"Not Accepted\",\"type\":\"General\"}";
+	}
+}
@@ -0,0 +1,75 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * Doctor and patient listings carry an ETag and answer a matching
+ * If-None-Match with 304 until an appointment of theirs changes.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = {
+		"notification.outbox.poll-interval=PT1H", "appointments.etag.max-staleness=PT1H" })
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+	private static final String DOCTOR_URL = "/api/doctors/appointment/doctor/961/Accepted";
+	private static final String PATIENT_URL = "/api/doctors/appointment/upcoming-appointments/patient/81";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Test
+	void unchangedListingsAreNotModified() throws Exception {
+		Appointment appointment = repo.save(appointment(LocalDate.now().plusDays(1)));
+
+		String doctorTag = mvc.perform(get(DOCTOR_URL)).andExpect(status().isOk()).andReturn().getResponse()
+				.getHeader("ETag");
+		String patientTag = mvc.perform(get(PATIENT_URL)).andExpect(status().isOk()).andReturn().getResponse()
+				.getHeader("ETag");
+		assertNotNull(doctorTag);
+		assertNotNull(patientTag);
+		mvc.perform(get(DOCTOR_URL).header("If-None-Match", doctorTag)).andExpect(status().isNotModified());
+		mvc.perform(get(PATIENT_URL).header("If-None-Match", patientTag)).andExpect(status().isNotModified());
+
+		// Another doctor's appointment leaves the tags alone
+		mvc.perform(get("/api/doctors/appointment/doctor/962/Accepted").header("If-None-Match", doctorTag))
+				.andExpect(status().isNoContent());
+		mvc.perform(get(DOCTOR_URL).header("If-None-Match", doctorTag)).andExpect(status().isNotModified());
+
+		service.updateAppointmentStatus(appointment.getAppointment_id(), "Completed");
+
+		String newDoctorTag = mvc.perform(get(DOCTOR_URL).header("If-None-Match", doctorTag))
+				.andExpect(status().isNoContent()).andExpect(header().exists("ETag")).andReturn().getResponse()
+				.getHeader("ETag");
+		assertNotEquals(doctorTag, newDoctorTag);
+		mvc.perform(get(PATIENT_URL).header("If-None-Match", patientTag)).andExpect(status().isNoContent());
+		mvc.perform(get(DOCTOR_URL).header("If-None-Match", newDoctorTag)).andExpect(status().isNotModified());
+	}
+
+	private static Appointment appointment(LocalDate date) {
+		return AppointmentFixture.appointment(961, 81, date, LocalTime.of(9, 0)).status("Accepted").build();
+	}
+}
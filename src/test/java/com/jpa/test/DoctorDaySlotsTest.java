@@ -0,0 +1,77 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.oneHealth.Appointments.booking.DoctorDaySlots;
+
+/**
+ * Checks that concurrent reservations of one minute have exactly one winner
+ * and that the occupancy lists booked minutes in order.
+ */
+class DoctorDaySlotsTest {
+
+	@Test
+	void concurrentReservationsOfOneSlotHaveOneWinner() throws Exception {
+		DoctorDaySlots slots = new DoctorDaySlots();
+		int minute = DoctorDaySlots.minuteOf(Time.valueOf(LocalTime.of(10, 30)));
+		int threads = 16;
+		AtomicInteger winners = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				if (slots.tryReserve(minute)) {
+					winners.incrementAndGet();
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertEquals(1, winners.get());
+		assertTrue(slots.isReserved(minute));
+	}
+
+	@Test
+	void releasedSlotCanBeReservedAgain() {
+		DoctorDaySlots slots = new DoctorDaySlots();
+		int last = DoctorDaySlots.MINUTES_PER_DAY - 1;
+
+		assertTrue(slots.tryReserve(last));
+		assertFalse(slots.tryReserve(last));
+		slots.release(last);
+		assertFalse(slots.isReserved(last));
+		assertTrue(slots.tryReserve(last));
+	}
+
+	@Test
+	void reservedTimesAreListedEarliestFirst() {
+		DoctorDaySlots slots = new DoctorDaySlots();
+		slots.markReserved(DoctorDaySlots.minuteOf(Time.valueOf("16:45:00")));
+		slots.markReserved(DoctorDaySlots.minuteOf(Time.valueOf("09:00:00")));
+		slots.markReserved(DoctorDaySlots.minuteOf(Time.valueOf("00:00:00")));
+
+		assertEquals(List.of(Time.valueOf("00:00:00"), Time.valueOf("09:00:00"), Time.valueOf("16:45:00")),
+				slots.reservedTimes());
+	}
+}
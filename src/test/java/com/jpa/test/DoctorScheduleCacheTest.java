@@ -0,0 +1,117 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.exception.RecordNotFoundException;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent;
+import com.oneHealth.Appointments.schedule.AppointmentChangedEvent.Change;
+import com.oneHealth.Appointments.schedule.DoctorScheduleCache;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * Cached doctor schedules are loaded once until a write touches the doctor and
+ * date, and are only dropped once that write commits. Every reader gets its own
+ * copies of the cached appointments.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = "notification.outbox.poll-interval=PT1H")
+class DoctorScheduleCacheTest {
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private DoctorScheduleCache schedules;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void writesDropTheSchedulesTheyTouch() throws Exception {
+		LocalDate today = LocalDate.now();
+		LocalDate tomorrow = today.plusDays(1);
+		Appointment first = repo.save(appointment(today, LocalTime.of(9, 0)));
+		AtomicInteger loads = new AtomicInteger();
+
+		List<Appointment> cached = schedules.get(951, today, "Accepted", () -> load(loads, first));
+		assertEquals(List.of(first.getAppointment_id()),
+				ids(schedules.get(951, today, "Accepted", () -> load(loads, first))));
+		assertEquals(1, loads.get());
+		assertThrows(UnsupportedOperationException.class, () -> cached.add(first));
+
+		// Another doctor's write leaves the cache alone
+		events.publishEvent(new AppointmentChangedEvent(Change.CREATED, 0, 952, 80, "Accepted", Set.of(today)));
+		schedules.get(951, today, "Accepted", () -> load(loads, first));
+		assertEquals(1, loads.get());
+
+		// A reschedule to tomorrow drops today's list and the all-dates list
+		service.getAppointmentsForTodayByDoctorIdAndStatus(951, "Accepted");
+		assertEquals(1, service.findByDoctorIdAndStatus(951, "Accepted").size());
+		service.updateAppointmentDateTime(first.getAppointment_id(), Date.valueOf(tomorrow),
+				Time.valueOf(LocalTime.of(9, 0)));
+		assertThrows(RecordNotFoundException.class,
+				() -> service.getAppointmentsForTodayByDoctorIdAndStatus(951, "Accepted"));
+		assertEquals(Date.valueOf(tomorrow), service.findByDoctorIdAndStatus(951, "Accepted").get(0).getDate());
+
+		// Inside a transaction the list is only dropped on commit
+		schedules.get(951, tomorrow, "Accepted", () -> List.of(first));
+		transactionTemplate.executeWithoutResult(status -> {
+			events.publishEvent(new AppointmentChangedEvent(Change.CREATED, 0, 951, 80, "Accepted", Set.of(tomorrow)));
+			assertEquals(1, schedules.get(951, tomorrow, "Accepted", List::of).size());
+		});
+		assertEquals(List.of(), schedules.get(951, tomorrow, "Accepted", List::of));
+	}
+
+	@Test
+	void readersCannotChangeEachOthersSchedules() {
+		LocalDate today = LocalDate.now();
+		Appointment loaded = appointment(today, LocalTime.of(10, 0));
+		loaded.setDoctorId(953);
+
+		Appointment mine = schedules.get(953, today, "Accepted", () -> List.of(loaded)).get(0);
+		mine.setPatient_name("Changed");
+		mine.getAppointmentTime().setTime(0);
+		loaded.setStatus("Rejected");
+
+		Appointment theirs = schedules.get(953, today, "Accepted", List::of).get(0);
+		assertEquals("Ravi", theirs.getPatient_name());
+		assertEquals("Accepted", theirs.getStatus());
+		assertEquals(Time.valueOf(LocalTime.of(10, 0)), theirs.getAppointmentTime());
+	}
+
+	private static List<Appointment> load(AtomicInteger loads, Appointment appointment) {
+		loads.incrementAndGet();
+		return List.of(appointment);
+	}
+
+	private static List<Long> ids(List<Appointment> appointments) {
+		return appointments.stream().map(Appointment::getAppointment_id).toList();
+	}
+
+	private static Appointment appointment(LocalDate date, LocalTime time) {
+		return AppointmentFixture.appointment(951, 80, date, time).status("Accepted").build();
+	}
+}
@@ -0,0 +1,53 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.oneHealth.Appointments.DTO.DoctorSummaryDTO;
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * The dashboard summary counts a doctor's appointments per status for today,
+ * upcoming and overall, and agrees with the single-status count.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = "notification.outbox.poll-interval=PT1H")
+class DoctorSummaryTest {
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Test
+	void summaryCountsPerStatusAndPeriod() {
+		LocalDate today = LocalDate.now();
+		repo.save(appointment(today.minusDays(3), LocalTime.of(9, 0), "Accepted"));
+		repo.save(appointment(today, LocalTime.of(9, 0), "Accepted"));
+		repo.save(appointment(today, LocalTime.of(10, 0), "Not Accepted"));
+		repo.save(appointment(today.plusDays(1), LocalTime.of(9, 0), "Accepted"));
+		repo.save(appointment(today.plusDays(2), LocalTime.of(9, 0), "Accepted"));
+
+		DoctorSummaryDTO summary = service.getDoctorSummary(931);
+
+		assertEquals(Map.of("Accepted", 1L, "Not Accepted", 1L), summary.getToday());
+		assertEquals(Map.of("Accepted", 2L), summary.getUpcoming());
+		assertEquals(Map.of("Accepted", 4L, "Not Accepted", 1L), summary.getTotal());
+		assertEquals(2L, service.getCountOfUpcomingAppointmentsByDoctorIdAndStatus(931L, "Accepted"));
+		assertEquals(Map.of(), service.getDoctorSummary(932).getTotal());
+	}
+
+	private static Appointment appointment(LocalDate date, LocalTime time, String status) {
+		return AppointmentFixture.appointment(931, 78, date, time).status(status).build();
+	}
+}
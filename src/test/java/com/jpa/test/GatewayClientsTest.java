@@ -0,0 +1,49 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.gateway.GatewayClients;
+import com.oneHealth.Appointments.gateway.GatewayResilience;
+import com.oneHealth.Appointments.gateway.ProfileClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Gateway calls share one client per downstream and are timed per route.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H" })
+class GatewayClientsTest {
+
+	@Autowired
+	private GatewayClients clients;
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void callsAreTimedPerRouteOnASharedClient() {
+		assertSame(clients.client(GatewayResilience.DOCTOR_PROFILE), clients.client(GatewayResilience.DOCTOR_PROFILE));
+
+		profileClient.doctor(7001).block();
+		profileClient.doctor(7002).block();
+
+		Timer timer = meterRegistry.get("gateway.client.requests").tag("downstream", GatewayResilience.DOCTOR_PROFILE)
+				.tag("route", ProfileClient.DOCTOR_PROFILE_PATH).tag("method", "GET").tag("status", "200").timer();
+		assertTrue(timer.count() >= 2);
+		assertEquals(1, meterRegistry.find("gateway.client.requests").tag("downstream", GatewayResilience.DOCTOR_PROFILE)
+				.timers().stream().map(t -> t.getId().getTag("route")).distinct().count());
+	}
+}
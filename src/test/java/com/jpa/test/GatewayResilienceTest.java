@@ -0,0 +1,196 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.exception.GatewayUnavailableException;
+import com.oneHealth.Appointments.gateway.GatewayResilience;
+import com.oneHealth.Appointments.gateway.ProfileClient;
+import com.oneHealth.Appointments.notification.BookingEnricher;
+import com.oneHealth.Appointments.notification.NotificationOutboxService;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs against a stub gateway that can be switched to fail: bookings still go
+ * through and are enriched later, repeated failures open the circuit so the
+ * gateway stops being called, and profiles loaded earlier are served stale.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, GatewayResilienceTest.FlakyGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H", "gateway.default.sliding-window-size=4",
+				"gateway.default.minimum-number-of-calls=4", "gateway.default.wait-in-open-state=PT1S",
+				"gateway.default.permitted-calls-in-half-open-state=1" })
+class GatewayResilienceTest {
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private GatewayResilience resilience;
+
+	@Autowired
+	private BookingEnricher enricher;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private FlakyGateway gateway;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void recover() throws Exception {
+		gateway.failing = false;
+		if (resilience.state(GatewayResilience.PATIENT_PROFILE) != CircuitBreaker.State.CLOSED
+				|| resilience.state(GatewayResilience.DOCTOR_PROFILE) != CircuitBreaker.State.CLOSED) {
+			Thread.sleep(1100);
+			// A successful trial call closes the circuit again
+			profileClient.patient(ProfileClient.PATIENT_PROFILE_BY_ID_PATH, 1).block();
+			profileClient.doctor(1).block();
+		}
+	}
+
+	@Test
+	void bookingWhileGatewayIsDownIsEnrichedLater() throws Exception {
+		gateway.failing = true;
+		Appointment saved = service.bookAppointment(appointment(901, 9001));
+
+		assertEquals(List.of(NotificationOutbox.STATUS_ENRICH), statuses(saved.getAppointment_id()));
+
+		recover();
+		enricher.enrich();
+
+		List<NotificationOutbox> rows = rows(saved.getAppointment_id());
+		assertTrue(rows.stream().anyMatch(row -> NotificationOutbox.STATUS_ENRICHED.equals(row.getStatus())));
+		NotificationOutbox email = rows.stream()
+				.filter(row -> NotificationOutbox.STATUS_PENDING.equals(row.getStatus())).findFirst().orElseThrow();
+		assertEquals(NotificationOutboxService.APPOINTMENT_EMAIL, email.getPath());
+		assertTrue(email.getPayload().contains("patient@example.com"));
+		assertTrue(email.getPayload().contains("doctor@example.com"));
+	}
+
+	@Test
+	void repeatedFailuresOpenTheCircuit() {
+		gateway.failing = true;
+		for (long id = 9101; id < 9105; id++) {
+			Throwable e = failure(id);
+			assertInstanceOf(GatewayUnavailableException.class, e);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, resilience.state(GatewayResilience.DOCTOR_PROFILE));
+
+		long gets = gateway.gets.get();
+		for (long id = 9105; id < 9110; id++) {
+			assertInstanceOf(GatewayUnavailableException.class, failure(id));
+		}
+		assertEquals(gets, gateway.gets.get());
+		assertTrue(meterRegistry.get("gateway.rejected").tag("downstream", GatewayResilience.DOCTOR_PROFILE)
+				.tag("reason", "circuit_open").counter().count() >= 5);
+	}
+
+	@Test
+	void lastKnownProfileIsServedWhileGatewayIsDown() throws Exception {
+		assertTrue(profileClient.doctor(9201).block().isPresent());
+
+		gateway.failing = true;
+		// The zero-TTL entry of the first lookup is only dropped once Caffeine sees its load complete
+		for (int i = 0; i < 50 && staleFallbacks() == 0; i++) {
+			assertEquals("doctor@example.com", profileClient.doctor(9201).block().orElseThrow().getEmail());
+			Thread.sleep(10);
+		}
+		assertTrue(staleFallbacks() >= 1);
+	}
+
+	private double staleFallbacks() {
+		Counter counter = meterRegistry.find("profile.fallback").tag("result", "stale").counter();
+		return counter == null ? 0 : counter.count();
+	}
+
+	private Throwable failure(long doctorId) {
+		return Exceptions.unwrap(assertThrows(RuntimeException.class, () -> profileClient.doctor(doctorId).block()));
+	}
+
+	private List<NotificationOutbox> rows(long appointmentId) {
+		return outboxRepo.findAll().stream().filter(row -> row.getAppointmentId() == appointmentId).toList();
+	}
+
+	private List<String> statuses(long appointmentId) {
+		return rows(appointmentId).stream().map(NotificationOutbox::getStatus).toList();
+	}
+
+	private static Appointment appointment(long doctorId, long patientId) {
+		return AppointmentFixture.appointment(doctorId, patientId, LocalDate.now().plusDays(3), LocalTime.of(9, 30))
+				.build();
+	}
+
+	/**
+	 * Stands in for the API gateway: answers like the stub of
+	 * {@link BookingIoBenchmarkTest}, or with 503 to every profile GET while
+	 * {@link #failing} is set.
+	 */
+	@TestConfiguration
+	static class FlakyGateway {
+		final AtomicLong gets = new AtomicLong();
+
+		volatile boolean failing;
+
+		@Bean
+		@Primary
+		WebClient.Builder flakyGatewayBuilder() {
+			return WebClient.builder().exchangeFunction(request -> {
+				String path = request.url().getPath();
+				String body = "";
+				HttpStatus status = HttpStatus.OK;
+				if (request.method() == HttpMethod.GET) {
+					gets.incrementAndGet();
+					if (failing) {
+						status = HttpStatus.SERVICE_UNAVAILABLE;
+					} else {
+						body = path.contains("getdoctorprofile")
+								? "{\"first_name\":\"Asha\",\"last_name\":\"Rao\",\"email\":\"doctor@example.com\"}"
+								: "{\"firstName\":\"Ravi\",\"emailId\":\"patient@example.com\"}";
+					}
+				}
+				ClientResponse response = ClientResponse.create(status)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(body).build();
+				return Mono.delay(Duration.ofMillis(5)).thenReturn(response);
+			});
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.deadline.DeadlineFilter;
+import com.oneHealth.Appointments.gateway.GatewayHedging;
+import com.oneHealth.Appointments.gateway.GatewayResilience;
+import com.oneHealth.Appointments.gateway.ProfileClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A doctor profile lookup whose first attempt stalls is answered by the hedge,
+ * hedges stay near 5% of calls when a few answers are slow, and a booking whose deadline budget is already spent fails fast with 504.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, HedgedLookupTest.StallingGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H", "gateway.doctorProfile.hedge-enabled=true",
+				"gateway.doctorProfile.hedge-initial-delay=PT0.05S", "gateway.doctorProfile.hedge-min-samples=1000",
+				"gateway.skewed.hedge-enabled=true", "gateway.skewed.hedge-min-delay=PT0.001S",
+				"gateway.skewed.hedge-min-samples=100" })
+@AutoConfigureMockMvc
+class HedgedLookupTest {
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private StallingGateway gateway;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private GatewayHedging hedging;
+
+	@Test
+	void stalledLookupIsAnsweredByTheHedge() {
+		long start = System.nanoTime();
+		assertTrue(profileClient.doctor(8001).block().isPresent());
+		long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+		assertTrue(millis < 1000, "took " + millis + " ms");
+		assertEquals(2, gateway.attempts("8001"));
+		assertTrue(meterRegistry.get("gateway.hedge").tag("downstream", GatewayResilience.DOCTOR_PROFILE)
+				.tag("result", "won").counter().count() >= 1);
+	}
+
+	@Test
+	void hedgesStayNearFivePercentOfCallsUnderASkewedTail() {
+		// Four in five calls answer within 3 ms, the rest anywhere up to 60 ms
+		run(300);
+		double sentBefore = hedges("sent");
+
+		int calls = 2000;
+		run(calls);
+
+		double rate = (hedges("sent") - sentBefore) / calls;
+		assertTrue(rate > 0.02 && rate < 0.08, "hedged " + rate + " of calls");
+	}
+
+	@Test
+	void bookingWithSpentBudgetFailsFast() throws Exception {
+		String body = "{\"doctorId\":8002,\"patientId\":42,\"patient_name\":\"Ravi\",\"date\":\""
+				+ LocalDate.now().plusDays(2) + "\",\"appointmentTime\":\"09:00:00\",\"status\":\"Not Accepted\"}";
+
+		mvc.perform(post("/api/doctors/appointment/saveappointment").header(DeadlineFilter.HEADER, "1")
+				.contentType(MediaType.APPLICATION_JSON).content(body)).andExpect(status().isGatewayTimeout());
+		assertEquals(0, gateway.attempts("8002"));
+	}
+
+	private void run(int calls) {
+		Flux.range(0, calls).flatMap(i -> hedging.hedge("skewed", () -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			long micros = random.nextInt(5) > 0 ? random.nextLong(1_000, 3_000) : random.nextLong(5_000, 60_000);
+			return Mono.delay(Duration.ofNanos(micros * 1000)).thenReturn(i);
+		}), 20).blockLast(Duration.ofMinutes(1));
+	}
+
+	private double hedges(String result) {
+		Counter counter = meterRegistry.find("gateway.hedge").tag("downstream", "skewed").tag("result", result)
+				.counter();
+		return counter == null ? 0 : counter.count();
+	}
+
+	/**
+	 * Stands in for the API gateway: the first GET of every doctor profile stalls
+	 * for five seconds, every other request answers after 10 ms.
+	 */
+	@TestConfiguration
+	static class StallingGateway {
+		private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+		int attempts(String doctorId) {
+			AtomicInteger count = attempts.get(doctorId);
+			return count == null ? 0 : count.get();
+		}
+
+		@Bean
+		@Primary
+		WebClient.Builder stallingGatewayBuilder() {
+			return WebClient.builder().exchangeFunction(request -> {
+				String path = request.url().getPath();
+				String body = "";
+				Duration delay = Duration.ofMillis(10);
+				if (request.method() == HttpMethod.GET && path.contains("getdoctorprofile")) {
+					String doctorId = path.substring(path.lastIndexOf('/') + 1);
+					if (attempts.computeIfAbsent(doctorId, id -> new AtomicInteger()).incrementAndGet() == 1) {
+						delay = Duration.ofSeconds(5);
+					}
+					body = "{\"first_name\":\"Asha\",\"last_name\":\"Rao\",\"email\":\"doctor@example.com\"}";
+				} else if (request.method() == HttpMethod.GET) {
+					body = "{\"firstName\":\"Ravi\",\"emailId\":\"patient@example.com\"}";
+				}
+				ClientResponse response = ClientResponse.create(HttpStatus.OK)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(body).build();
+				return Mono.delay(delay).thenReturn(response);
+			});
+		}
+	}
+}
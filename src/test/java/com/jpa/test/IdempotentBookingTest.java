@@ -0,0 +1,124 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.idempotency.IdempotencyStore;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+
+/**
+ * Retries of POST /saveappointment with the same Idempotency-Key get the
+ * original response back without another gateway lookup or booking.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H" })
+@AutoConfigureMockMvc
+class IdempotentBookingTest {
+
+	private static final String URL = "/api/doctors/appointment/saveappointment";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private StubGateway gateway;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Test
+	void retryWithSameKeyReplaysFirstResponse() throws Exception {
+		String body = appointment(501, "09:00:00");
+		long appointments = repo.count();
+
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "retry-1").contentType(MediaType.APPLICATION_JSON)
+				.content(body)).andExpect(status().isCreated());
+		long gets = gateway.gets.get();
+
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "retry-1").contentType(MediaType.APPLICATION_JSON)
+				.content(body)).andExpect(status().isCreated())
+				.andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"));
+
+		assertEquals(gets, gateway.gets.get());
+		assertEquals(appointments + 1, repo.count());
+	}
+
+	@Test
+	void keyReusedForDifferentRequestIsRejected() throws Exception {
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "reuse-1").contentType(MediaType.APPLICATION_JSON)
+				.content(appointment(502, "10:00:00"))).andExpect(status().isCreated());
+
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "reuse-1").contentType(MediaType.APPLICATION_JSON)
+				.content(appointment(502, "11:00:00"))).andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	void requestsWithoutKeyAreNotDeduplicated() throws Exception {
+		String body = appointment(503, "12:00:00");
+
+		mvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated());
+		mvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isConflict());
+	}
+
+	@Test
+	void onlyATakenSlotIsAConflict() throws Exception {
+		gateway.unknownPatients.add("4299");
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "unknown-1").contentType(MediaType.APPLICATION_JSON)
+				.content(appointment(504, 4299, "09:00:00", ""))).andExpect(status().isUnprocessableEntity());
+
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "invalid-1").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"doctorId\":504,\"patientId\":42,\"status\":\"Not Accepted\"}"))
+				.andExpect(status().isBadRequest());
+
+		// The slot the unknown patient asked for was never taken
+		mvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(appointment(504, "09:00:00")))
+				.andExpect(status().isCreated());
+	}
+
+	@Test
+	void unexpectedFailureIsAServerErrorAndRunsAgainOnRetry() throws Exception {
+		// Longer than the description column, so the insert fails
+		String body = appointment(505, 42, "09:00:00", "x".repeat(300));
+		long appointments = repo.count();
+
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "broken-1").contentType(MediaType.APPLICATION_JSON)
+				.content(body)).andExpect(status().isInternalServerError());
+		long gets = gateway.gets.get();
+
+		mvc.perform(post(URL).header(IdempotencyStore.HEADER, "broken-1").contentType(MediaType.APPLICATION_JSON)
+				.content(body)).andExpect(status().isInternalServerError())
+				.andExpect(header().doesNotExist(IdempotencyStore.REPLAYED_HEADER));
+
+		assertTrue(gateway.gets.get() > gets);
+		assertEquals(appointments, repo.count());
+		// The failed insert left the slot free
+		mvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(appointment(505, "09:00:00")))
+				.andExpect(status().isCreated());
+	}
+
+	private static String appointment(long doctorId, String time) {
+		return appointment(doctorId, 42, time, "");
+	}
+
+	private static String appointment(long doctorId, long patientId, String time, String description) {
+		return "{\"doctorId\":" + doctorId + ",\"patientId\":" + patientId + ",\"patient_name\":\"Ravi\",\"date\":\""
+				+ LocalDate.now().plusDays(2) + "\",\"appointmentTime\":\"" + time + "\",\"description\":\""
+				+ description + "\",\"status\":\"Not Accepted\",\"type\":\"General\"}";
+	}
+}
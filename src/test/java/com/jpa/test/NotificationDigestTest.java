@@ -0,0 +1,102 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.DTO.AppointmentDTO;
+import com.oneHealth.Appointments.DTO.AppointmentDigestDTO;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.notification.NotificationDigester;
+import com.oneHealth.Appointments.notification.NotificationOutboxService;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * In digest mode each patient is emailed about their booking right away,
+ * while the doctor gets one summary covering all of their new bookings.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "notification.outbox.poll-interval=PT1H", "notification.digest.enabled=true",
+				"notification.digest.window=PT0S", "notification.digest.poll-interval=PT1H" })
+class NotificationDigestTest {
+
+	private static final long DOCTOR_ID = 7601;
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private NotificationDigester digester;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void bookingsOfADoctorAreSummarisedInOneDigest() throws Exception {
+		List<Long> booked = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			booked.add(service.bookAppointment(appointment(i)).getAppointment_id());
+		}
+
+		// Patients are emailed at once, without the doctor's address
+		for (long id : booked) {
+			List<NotificationOutbox> emails = outboxRepo.findByAppointmentIdAndPath(id,
+					NotificationOutboxService.APPOINTMENT_EMAIL);
+			assertEquals(1, emails.size());
+			assertNull(objectMapper.readValue(emails.get(0).getPayload(), AppointmentDTO.class).getDoctor_email());
+		}
+
+		digester.flush();
+
+		List<NotificationOutbox> doctorCopies = digestRows().stream()
+				.filter(row -> booked.contains(row.getAppointmentId()) && row.getDigestKey() != null).toList();
+		assertEquals(3, doctorCopies.size());
+		doctorCopies.forEach(row -> assertEquals(NotificationOutbox.STATUS_DIGESTED, row.getStatus()));
+
+		List<AppointmentDigestDTO> digests = new ArrayList<>();
+		for (NotificationOutbox row : digestRows()) {
+			if (NotificationOutbox.STATUS_PENDING.equals(row.getStatus())) {
+				AppointmentDigestDTO digest = objectMapper.readValue(row.getPayload(), AppointmentDigestDTO.class);
+				if (digest.getDoctorId() == DOCTOR_ID) {
+					digests.add(digest);
+				}
+			}
+		}
+		assertEquals(1, digests.size());
+		assertEquals("doctor@example.com", digests.get(0).getDoctor_email());
+		assertEquals(Set.copyOf(booked), digests.get(0).getAppointments().stream()
+				.map(AppointmentDTO::getAppointment_id).collect(Collectors.toSet()));
+
+		// Nothing is left to summarise
+		digester.flush();
+		assertEquals(1, digestRows().stream().filter(row -> NotificationOutbox.STATUS_PENDING.equals(row.getStatus()))
+				.count());
+	}
+
+	private List<NotificationOutbox> digestRows() {
+		return outboxRepo.findAll().stream()
+				.filter(row -> NotificationOutboxService.APPOINTMENT_DIGEST_EMAIL.equals(row.getPath())).toList();
+	}
+
+	private static Appointment appointment(int slot) {
+		return AppointmentFixture.appointment(DOCTOR_ID, 760 + slot, LocalDate.now().plusDays(2),
+				LocalTime.of(10, 0).plusMinutes(30L * slot)).patientName("Patient " + slot).build();
+	}
+}
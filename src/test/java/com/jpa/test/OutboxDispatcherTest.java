@@ -0,0 +1,248 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.notification.NotificationOutboxService;
+import com.oneHealth.Appointments.notification.OutboxDispatcher;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Notifications are written with the change they are about and delivered at
+ * least once by the dispatcher: a rolled back booking leaves no row behind,
+ * failed deliveries back off exponentially until they are given up, and
+ * dispatchers running side by side never deliver a row twice.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, OutboxDispatcherTest.EmailService.class },
+		properties = { "notification.outbox.poll-interval=PT1H", "notification.outbox.batch-size=5",
+				"notification.outbox.max-attempts=3", "notification.outbox.initial-backoff=PT10S",
+				"notification.outbox.max-backoff=PT30M", "gateway.default.minimum-number-of-calls=1000" })
+class OutboxDispatcherTest {
+
+	@Autowired
+	private OutboxDispatcher dispatcher;
+
+	@Autowired
+	private NotificationOutboxService outbox;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private AppointmentRepository appointmentRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EmailService emailService;
+
+	@BeforeEach
+	void reset() {
+		// Leftovers of other tests would be delivered along with the rows under test
+		dispatcher.dispatch();
+		emailService.failing = false;
+		emailService.posts.clear();
+	}
+
+	@Test
+	void notificationIsWrittenOnlyIfTheBookingCommits() {
+		Appointment rolledBack = appointment(7301);
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			Appointment saved = appointmentRepo.save(rolledBack);
+			outbox.enqueue(saved.getAppointment_id(), NotificationOutboxService.APPOINTMENT_EMAIL, Map.of("n", 1));
+			assertEquals(1, outboxRepo
+					.findByAppointmentIdAndPath(saved.getAppointment_id(), NotificationOutboxService.APPOINTMENT_EMAIL)
+					.size());
+			throw new IllegalStateException("Booking failed after the email was queued");
+		}));
+		assertTrue(outboxRepo.findAll().stream().noneMatch(row -> row.getPayload().equals("{\"n\":1}")));
+		assertTrue(appointmentRepo.findByDoctorId(7301L).isEmpty());
+
+		Appointment committed = transactionTemplate.execute(status -> {
+			Appointment saved = appointmentRepo.save(appointment(7302));
+			outbox.enqueue(saved.getAppointment_id(), NotificationOutboxService.APPOINTMENT_EMAIL, Map.of("n", 2));
+			return saved;
+		});
+		assertEquals(1, outboxRepo
+				.findByAppointmentIdAndPath(committed.getAppointment_id(), NotificationOutboxService.APPOINTMENT_EMAIL)
+				.size());
+
+		// Outside of a transaction there is no change to tie the notification to
+		assertThrows(IllegalTransactionStateException.class,
+				() -> outbox.enqueue(7303, NotificationOutboxService.APPOINTMENT_EMAIL, Map.of("n", 3)));
+	}
+
+	@Test
+	void failedDeliveryBacksOffUntilItIsGivenUp() {
+		NotificationOutbox row = enqueue(7401, "/retry");
+		emailService.failing = true;
+
+		long before = System.currentTimeMillis();
+		dispatcher.dispatch();
+		row = outboxRepo.findById(row.getId()).orElseThrow();
+		assertEquals(NotificationOutbox.STATUS_PENDING, row.getStatus());
+		assertEquals(1, row.getAttempts());
+		assertDelay(row, before, Duration.ofSeconds(10));
+
+		// Not due yet: the next poll leaves it alone
+		dispatcher.dispatch();
+		assertEquals(1, emailService.posts("/retry"));
+
+		before = makeDue(row);
+		dispatcher.dispatch();
+		row = outboxRepo.findById(row.getId()).orElseThrow();
+		assertEquals(NotificationOutbox.STATUS_PENDING, row.getStatus());
+		assertEquals(2, row.getAttempts());
+		assertDelay(row, before, Duration.ofSeconds(20));
+
+		makeDue(row);
+		dispatcher.dispatch();
+		row = outboxRepo.findById(row.getId()).orElseThrow();
+		assertEquals(NotificationOutbox.STATUS_FAILED, row.getStatus());
+		assertEquals(3, row.getAttempts());
+		assertEquals(3, emailService.posts("/retry"));
+		assertFalse(row.getLastError().isEmpty());
+
+		makeDue(row);
+		dispatcher.dispatch();
+		assertEquals(3, emailService.posts("/retry"));
+	}
+
+	@Test
+	void concurrentDispatchersDeliverEachRowOnce() throws Exception {
+		int rows = 30;
+		for (int i = 0; i < rows; i++) {
+			enqueue(7500 + i, "/once/" + i);
+		}
+
+		ExecutorService dispatchers = Executors.newFixedThreadPool(2);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> runs = List.of(dispatchers.submit(() -> drain(start)),
+					dispatchers.submit(() -> drain(start)));
+			start.countDown();
+			for (Future<?> run : runs) {
+				run.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			dispatchers.shutdownNow();
+		}
+
+		for (int i = 0; i < rows; i++) {
+			assertEquals(1, emailService.posts("/once/" + i), "deliveries of row " + i);
+		}
+		assertEquals(0, pendingOnce());
+	}
+
+	private Void drain(CountDownLatch start) throws InterruptedException {
+		start.await();
+		while (pendingOnce() > 0) {
+			dispatcher.dispatch();
+		}
+		return null;
+	}
+
+	private long pendingOnce() {
+		return outboxRepo.findAll().stream().filter(row -> row.getPath().startsWith("/once/"))
+				.filter(row -> NotificationOutbox.STATUS_PENDING.equals(row.getStatus())).count();
+	}
+
+	private NotificationOutbox enqueue(long appointmentId, String path) {
+		return transactionTemplate.execute(status -> outbox.enqueue(appointmentId, path, Map.of("n", appointmentId)));
+	}
+
+	/**
+	 * Moves the next attempt of a row to now, as if its backoff had passed.
+	 *
+	 * @return The time the row became due.
+	 */
+	private long makeDue(NotificationOutbox row) {
+		long now = System.currentTimeMillis();
+		NotificationOutbox current = outboxRepo.findById(row.getId()).orElseThrow();
+		current.setNextAttemptAt(new Timestamp(now));
+		outboxRepo.save(current);
+		return now;
+	}
+
+	/**
+	 * The next attempt is the backoff after the failed one, give or take the
+	 * 20% jitter.
+	 */
+	private static void assertDelay(NotificationOutbox row, long before, Duration backoff) {
+		long delay = row.getNextAttemptAt().getTime() - before;
+		assertTrue(delay >= backoff.toMillis() * 0.8, "delay " + delay + " ms");
+		assertTrue(delay <= backoff.toMillis() * 1.2 + 1000, "delay " + delay + " ms");
+	}
+
+	private static Appointment appointment(long doctorId) {
+		return AppointmentFixture.appointment(doctorId, 73, LocalDate.now().plusDays(1), LocalTime.of(9, 0)).build();
+	}
+
+	/**
+	 * Stands in for the email service behind the gateway: counts POSTs per
+	 * path and answers them after 5 ms, with 500 while {@link #failing} is set.
+	 */
+	@TestConfiguration
+	static class EmailService {
+		final Map<String, AtomicInteger> posts = new ConcurrentHashMap<>();
+
+		volatile boolean failing;
+
+		int posts(String path) {
+			return posts.getOrDefault(path, new AtomicInteger()).get();
+		}
+
+		@Bean
+		@Primary
+		WebClient.Builder emailServiceBuilder() {
+			return WebClient.builder().exchangeFunction(request -> {
+				HttpStatus status = HttpStatus.OK;
+				if (request.method() == HttpMethod.POST) {
+					String path = request.url().getPath().replaceFirst("^/emailService", "");
+					posts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+					if (failing) {
+						status = HttpStatus.INTERNAL_SERVER_ERROR;
+					}
+				}
+				return Mono.delay(Duration.ofMillis(5)).thenReturn(ClientResponse.create(status).build());
+			});
+		}
+	}
+}
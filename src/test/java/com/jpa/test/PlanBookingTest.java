@@ -0,0 +1,94 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.entity.NotificationOutbox;
+import com.oneHealth.Appointments.exception.DuplicateAppointmentException;
+import com.oneHealth.Appointments.notification.NotificationOutboxService;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.NotificationOutboxRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * Treatment plans are booked all or none, with one profile lookup per
+ * distinct profile and one combined notification.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H" })
+class PlanBookingTest {
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepo;
+
+	@Autowired
+	private StubGateway gateway;
+
+	@Test
+	void planIsBookedWithOneLookupPerProfileAndOneNotification() throws Exception {
+		long appointments = repo.count();
+		long gets = gateway.gets.get();
+
+		List<Appointment> saved = service.bookAppointments(plan(601, 8));
+
+		assertEquals(8, saved.size());
+		assertEquals(appointments + 8, repo.count());
+		assertEquals(gets + 2, gateway.gets.get());
+		List<NotificationOutbox> planEmails = outboxRepo.findAll().stream()
+				.filter(row -> NotificationOutboxService.APPOINTMENT_PLAN_EMAIL.equals(row.getPath())).toList();
+		assertEquals(1, planEmails.size());
+	}
+
+	@Test
+	void planWithOneTakenSlotBooksNothing() throws Exception {
+		List<Appointment> plan = plan(602, 6);
+		service.bookAppointment(copy(plan.get(3)));
+		long appointments = repo.count();
+
+		assertThrows(DuplicateAppointmentException.class, () -> service.bookAppointments(plan));
+
+		assertEquals(appointments, repo.count());
+		// The free slots of the rejected plan can still be booked
+		service.bookAppointment(copy(plan.get(0)));
+	}
+
+	private static List<Appointment> plan(long doctorId, int sessions) {
+		List<Appointment> plan = new ArrayList<>();
+		for (int i = 0; i < sessions; i++) {
+			Appointment appointment = AppointmentFixture
+					.appointment(doctorId, 77, LocalDate.now().plusWeeks(i + 1), LocalTime.of(9, 30))
+					.type("Physiotherapy").build();
+			plan.add(appointment);
+		}
+		return plan;
+	}
+
+	private static Appointment copy(Appointment source) {
+		Appointment appointment = new Appointment();
+		appointment.setDoctorId(source.getDoctorId());
+		appointment.setPatientId(source.getPatientId());
+		appointment.setDate(source.getDate());
+		appointment.setAppointmentTime(source.getAppointmentTime());
+		appointment.setStatus(source.getStatus());
+		appointment.setType(source.getType());
+		return appointment;
+	}
+}
@@ -0,0 +1,206 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.exception.GatewayUnavailableException;
+import com.oneHealth.Appointments.gateway.ProfileClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * The profile cache on a clock the test moves: entries expire after the TTL,
+ * are served stale while a refresh runs, 404s are remembered only for the
+ * negative TTL, and the last known profile stands in while the gateway is
+ * down.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, ProfileCacheTest.ProfileGateway.class },
+		properties = { "profile.cache.ttl=PT10M", "profile.cache.negative-ttl=PT30S",
+				"profile.cache.refresh-after=PT2M", "profile.cache.stale-ttl=PT24H",
+				"notification.outbox.poll-interval=PT1H", "gateway.default.minimum-number-of-calls=1000" })
+class ProfileCacheTest {
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private ProfileGateway gateway;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void reset() {
+		gateway.failing = false;
+		gateway.held = null;
+		gateway.version.set(1);
+	}
+
+	@Test
+	void entriesExpireAfterTheTtl() {
+		assertEquals("v1@example.com", email(6001));
+		gateway.version.set(2);
+
+		gateway.ticker.advance(Duration.ofMinutes(1));
+		assertEquals("v1@example.com", email(6001));
+		assertEquals(1, gateway.gets("6001"));
+
+		gateway.ticker.advance(Duration.ofMinutes(10));
+		assertEquals("v2@example.com", email(6001));
+		assertEquals(2, gateway.gets("6001"));
+	}
+
+	@Test
+	void staleEntryIsServedWhileItRefreshes() throws Exception {
+		assertEquals("v1@example.com", email(6002));
+		gateway.version.set(2);
+		gateway.held = new CompletableFuture<>();
+
+		gateway.ticker.advance(Duration.ofMinutes(3));
+		// Past refresh-after: answered from the cache at once, the reload waits on the gateway
+		assertEquals("v1@example.com", email(6002));
+		assertEquals("v1@example.com", email(6002));
+
+		gateway.held.complete(null);
+		for (int i = 0; i < 100 && !"v2@example.com".equals(email(6002)); i++) {
+			Thread.sleep(10);
+		}
+		assertEquals("v2@example.com", email(6002));
+		assertEquals(2, gateway.gets("6002"));
+	}
+
+	@Test
+	void notFoundIsCachedForTheNegativeTtlOnly() {
+		gateway.unknown.add("6003");
+		assertFalse(profileClient.doctor(6003).block().isPresent());
+		assertFalse(profileClient.doctor(6003).block().isPresent());
+		assertEquals(1, gateway.gets("6003"));
+
+		gateway.unknown.remove("6003");
+		gateway.ticker.advance(Duration.ofSeconds(20));
+		assertFalse(profileClient.doctor(6003).block().isPresent());
+		assertEquals(1, gateway.gets("6003"));
+
+		gateway.ticker.advance(Duration.ofSeconds(15));
+		assertTrue(profileClient.doctor(6003).block().isPresent());
+		assertEquals(2, gateway.gets("6003"));
+	}
+
+	@Test
+	void lastKnownProfileIsServedWhileGatewayIsDown() {
+		assertEquals("v1@example.com", email(6004));
+
+		gateway.failing = true;
+		gateway.ticker.advance(Duration.ofMinutes(11));
+		assertEquals("v1@example.com", email(6004));
+		assertEquals(2, gateway.gets("6004"));
+		assertTrue(meterRegistry.get("profile.fallback").tag("result", "stale").counter().count() >= 1);
+
+		// Never loaded, so there is nothing to fall back to
+		Throwable e = Exceptions
+				.unwrap(assertThrows(RuntimeException.class, () -> profileClient.doctor(6005).block()));
+		assertInstanceOf(GatewayUnavailableException.class, e);
+	}
+
+	private String email(long doctorId) {
+		return profileClient.doctor(doctorId).block().orElseThrow().getEmail();
+	}
+
+	/**
+	 * Stands in for the API gateway: doctor profiles carry the current
+	 * {@link #version} in their email, IDs in {@link #unknown} are answered
+	 * with 404, and every GET answers 503 while {@link #failing} is set or
+	 * waits for {@link #held} while that is set. Also supplies the cache
+	 * clock.
+	 */
+	@TestConfiguration
+	static class ProfileGateway {
+		final FakeTicker ticker = new FakeTicker();
+
+		final AtomicInteger version = new AtomicInteger(1);
+
+		final Set<String> unknown = ConcurrentHashMap.newKeySet();
+
+		final Map<String, AtomicInteger> gets = new ConcurrentHashMap<>();
+
+		volatile boolean failing;
+
+		volatile CompletableFuture<Void> held;
+
+		int gets(String id) {
+			return gets.getOrDefault(id, new AtomicInteger()).get();
+		}
+
+		@Bean
+		Ticker profileCacheTicker() {
+			return ticker;
+		}
+
+		@Bean
+		@Primary
+		WebClient.Builder profileGatewayBuilder() {
+			return WebClient.builder().exchangeFunction(request -> {
+				String path = request.url().getPath();
+				String id = path.substring(path.lastIndexOf('/') + 1);
+				HttpStatus status = HttpStatus.OK;
+				String body = "";
+				if (request.method() == HttpMethod.GET) {
+					gets.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+					if (failing) {
+						status = HttpStatus.SERVICE_UNAVAILABLE;
+					} else if (unknown.contains(id)) {
+						status = HttpStatus.NOT_FOUND;
+					} else {
+						body = "{\"first_name\":\"Asha\",\"email\":\"v" + version.get() + "@example.com\"}";
+					}
+				}
+				ClientResponse response = ClientResponse.create(status)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(body).build();
+				CompletableFuture<Void> gate = held;
+				return gate == null ? Mono.just(response) : Mono.fromFuture(gate).thenReturn(response);
+			});
+		}
+	}
+
+	static class FakeTicker implements Ticker {
+		private final AtomicLong nanos = new AtomicLong();
+
+		@Override
+		public long read() {
+			return nanos.get();
+		}
+
+		void advance(Duration duration) {
+			nanos.addAndGet(duration.toNanos());
+		}
+	}
+}
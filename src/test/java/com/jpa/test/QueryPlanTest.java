@@ -0,0 +1,150 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.AppointmentWindow;
+
+/**
+ * Every query method of {@link AppointmentRepository}, and the time-window
+ * query in the shapes the service uses, runs as an index lookup on a seeded,
+ * analysed table with the migrated schema: the SQL each query sends is
+ * captured and explained. The seeded rows are removed again afterwards.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = {
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.jpa.test.QueryPlanTest$Recorder",
+		"notification.outbox.poll-interval=PT1H" })
+class QueryPlanTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private List<Appointment> seeded = List.of();
+
+	@AfterEach
+	void removeSeed() {
+		repo.deleteAllInBatch(seeded);
+	}
+
+	@Test
+	void everyRepositoryQueryUsesAnIndex() throws Exception {
+		seed();
+		jdbc.execute("analyze");
+
+		Map<String, String> scans = new TreeMap<>();
+		for (Method method : AppointmentRepository.class.getDeclaredMethods()) {
+			if (method.isDefault() || Modifier.isStatic(method.getModifiers()) || method.isSynthetic()) {
+				continue;
+			}
+			Object[] args = new Object[method.getParameterCount()];
+			for (int i = 0; i < args.length; i++) {
+				args[i] = sample(method.getParameterTypes()[i], method.getGenericParameterTypes()[i]);
+			}
+			explain(method.getName(), () -> method.invoke(repo, args), scans);
+		}
+		for (AppointmentWindow window : List.of(AppointmentWindow.ofDoctor(910, "Accepted", TODAY, null),
+				AppointmentWindow.ofDoctor(910, "Accepted", TODAY, TODAY),
+				AppointmentWindow.ofPatient(5010, null, TODAY, null),
+				AppointmentWindow.ofPatient(5010, "Accepted", TODAY.plusDays(1), null),
+				new AppointmentWindow(null, null, null, null, TODAY, TODAY, null),
+				new AppointmentWindow(null, null, Set.of("Accepted"), null, TODAY.plusDays(1), null, null),
+				new AppointmentWindow(910L, null, Set.of("Accepted"), "General", TODAY, TODAY, null))) {
+			explain("findWindow " + window, () -> repo.findWindow(window), scans);
+		}
+		assertTrue(scans.isEmpty(), "Queries without an index: " + scans);
+	}
+
+	private void explain(String name, Callable<?> query, Map<String, String> scans) throws Exception {
+		Recorder.statements.clear();
+		query.call();
+		assertFalse(Recorder.statements.isEmpty(), "No SQL captured for " + name);
+		for (String sql : new ArrayList<>(Recorder.statements)) {
+			String plan = String.join("\n", jdbc.queryForList("explain " + sql, String.class));
+			if (plan.contains("tableScan")) {
+				scans.put(name, plan);
+			}
+		}
+	}
+
+	private void seed() {
+		String[] statuses = { "Accepted", "Not Accepted", "Completed", "Rejected" };
+		String[] types = { "General", "Online", "Follow-up" };
+		List<Appointment> rows = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			rows.add(AppointmentFixture.appointment(900 + i % 50, 5000 + i % 400, TODAY.plusDays(i % 61 - 30),
+					LocalTime.of(8, 0).plusMinutes(15 * (i % 40))).patientName("Patient " + i)
+					.status(statuses[i % statuses.length]).type(types[i % types.length]).build());
+		}
+		seeded = repo.saveAll(rows);
+	}
+
+	private static Object sample(Class<?> type, Type generic) {
+		if (type == long.class || type == Long.class) {
+			return 910L;
+		}
+		if (type == String.class) {
+			return "Accepted";
+		}
+		if (type == LocalDate.class) {
+			return TODAY;
+		}
+		if (type == Date.class) {
+			return Date.valueOf(TODAY);
+		}
+		if (type == Time.class) {
+			return Time.valueOf(LocalTime.of(9, 0));
+		}
+		if (Collection.class.isAssignableFrom(type) && generic instanceof ParameterizedType parameterized) {
+			Class<?> element = (Class<?>) parameterized.getActualTypeArguments()[0];
+			return List.of(sample(element, element));
+		}
+		throw new IllegalArgumentException("No sample value for " + generic);
+	}
+
+	/**
+	 * Records the SQL of the appointment queries.
+	 */
+	public static class Recorder implements StatementInspector {
+		static final List<String> statements = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			if (sql.startsWith("select") && sql.contains(" from appointment ")) {
+				statements.add(sql);
+			}
+			return sql;
+		}
+	}
+}
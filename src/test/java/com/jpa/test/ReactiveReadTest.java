@@ -0,0 +1,64 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.repository.ReactiveAppointmentRepository;
+
+/**
+ * Rows written through JPA are read back through R2DBC from the same database.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = {
+		"spring.datasource.url=jdbc:h2:mem:reactive-reads;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"reactive.datasource.url=r2dbc:h2:mem:///reactive-reads?options=MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"notification.outbox.poll-interval=PT1H" })
+class ReactiveReadTest {
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private ReactiveAppointmentRepository reactiveRepo;
+
+	@Test
+	void reactiveReadsMatchTheJpaRows() {
+		LocalDate today = LocalDate.now();
+		repo.save(appointment(701, 1, today, LocalTime.of(11, 0), "Accepted"));
+		repo.save(appointment(701, 2, today, LocalTime.of(9, 30), "Accepted"));
+		repo.save(appointment(701, 3, today.plusDays(2), LocalTime.of(10, 0), "Accepted"));
+		repo.save(appointment(701, 4, today.plusDays(3), LocalTime.of(10, 0), "Rejected"));
+
+		List<Appointment> todays = reactiveRepo.findByDateAndDoctorIdAndStatus(today, 701, "Accepted").collectList()
+				.block();
+		assertEquals(2, todays.size());
+		assertEquals(Time.valueOf(LocalTime.of(9, 30)), todays.get(0).getAppointmentTime());
+		assertEquals(Date.valueOf(today), todays.get(0).getDate());
+		assertEquals("Patient 2", todays.get(0).getPatient_name());
+
+		assertEquals(3, reactiveRepo.findByDoctorIdAndStatus(701, "Accepted").count().block());
+		assertEquals(1, reactiveRepo.findByDateAfterAndDoctorIdAndStatus(today, 701, "Accepted").count().block());
+		assertEquals(2, reactiveRepo.countByDateAndDoctorIdAndStatus(today, 701, "Accepted").block());
+		assertEquals(1, reactiveRepo.countByDateAfterAndDoctorIdAndStatus(today, 701, "Accepted").block());
+		assertEquals(1, reactiveRepo.findByPatientIdAndStatus(4, "Rejected").count().block());
+		assertEquals(List.of(Time.valueOf(LocalTime.of(9, 30)), Time.valueOf(LocalTime.of(11, 0))),
+				reactiveRepo.findAppointmentTimesByDoctorIdAndDate(701, today).collectList().block());
+	}
+
+	private static Appointment appointment(long doctorId, long patientId, LocalDate date, LocalTime time,
+			String status) {
+		return AppointmentFixture.appointment(doctorId, patientId, date, time).patientName("Patient " + patientId)
+				.status(status).type("Online").build();
+	}
+}
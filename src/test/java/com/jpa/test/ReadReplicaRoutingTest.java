@@ -0,0 +1,148 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.routing.ReadRoute;
+import com.oneHealth.Appointments.routing.ReadYourWritesInterceptor;
+import com.oneHealth.Appointments.routing.ReplicaLagProbe;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-only transactions read the replica, writes and reads that must see
+ * them the primary. Two separate in-memory databases stand in for primary and
+ * replica; nothing is replicated between them unless a test copies it, so a
+ * row written through the application is only visible where it was read from
+ * the primary.
+ */
+@SpringBootTest(classes = OneHealthDoctorAppointmentApplication.class, properties = {
+		"notification.outbox.poll-interval=PT1H", "spring.datasource.url=" + ReadReplicaRoutingTest.PRIMARY_URL,
+		"replica.datasource.url=" + ReadReplicaRoutingTest.REPLICA_URL, "replica.datasource.username=sa",
+		"replica.lag.probe-interval=PT1H", "replica.max-lag=PT0.5S", "replica.read-your-writes.window=PT1M" })
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:onehealth-routing-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL = "jdbc:h2:mem:onehealth-routing-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+	private static final String BASE = "/api/doctors/appointment";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Autowired
+	private ReplicaLagProbe probe;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeAll
+	static void migrateReplica() {
+		Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+	}
+
+	@Test
+	void readOnlyTransactionsReadTheReplica() {
+		catchUp();
+		repo.save(appointment(9101, 8101));
+
+		assertTrue(service.findByPatientId(8101).isEmpty());
+		assertEquals(1, ReadRoute.onPrimary(() -> service.findByPatientId(8101)).size());
+		assertTrue(routed("replica", "read_only") > 0);
+		assertTrue(routed("primary", "pinned") > 0);
+	}
+
+	@Test
+	void laggingReplicaIsBypassed() throws Exception {
+		catchUp();
+		repo.save(appointment(9102, 8102));
+
+		// The replica does not take the heartbeat, so it falls further behind with every probe
+		Thread.sleep(600);
+		probe.probe();
+		assertFalse(probe.replicaUsable());
+		assertTrue(meterRegistry.get("datasource.replica.lag").timeGauge().value(TimeUnit.MILLISECONDS) >= 500);
+		assertEquals(1, service.findByPatientId(8102).size());
+		assertTrue(routed("primary", "replica_unusable") > 0);
+
+		catchUp();
+		assertTrue(service.findByPatientId(8102).isEmpty());
+	}
+
+	@Test
+	void sessionsAndOwnersReadTheirWrites() throws Exception {
+		catchUp();
+		Appointment appointment = repo.save(appointment(9103, 8103));
+		String page = BASE + "/appointments?patientId=8103";
+		String listing = BASE + "/upcoming-appointments/patient/8103";
+
+		mvc.perform(get(listing)).andExpect(status().isNoContent());
+
+		// The update looks the appointment up on the primary, although the replica lacks it
+		mvc.perform(put(BASE + "/updateappointment/" + appointment.getAppointment_id() + "/update/Accepted")
+				.header(ReadYourWritesInterceptor.SESSION_HEADER, "s-1")).andExpect(status().isOk());
+
+		mvc.perform(get(page).header(ReadYourWritesInterceptor.SESSION_HEADER, "s-1"))
+				.andExpect(content().string(Matchers.containsString("Routing")));
+		mvc.perform(get(page).header(ReadYourWritesInterceptor.SESSION_HEADER, "s-2"))
+				.andExpect(content().string(Matchers.not(Matchers.containsString("Routing"))));
+		mvc.perform(get(page)).andExpect(content().string(Matchers.not(Matchers.containsString("Routing"))));
+
+		// The patient's own listing changed, so everyone reads it from the primary for a while
+		mvc.perform(get(listing)).andExpect(status().isOk());
+	}
+
+	/**
+	 * Lets the replica catch up with the heartbeat, as replication would, and
+	 * probes it.
+	 */
+	private void catchUp() {
+		JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+		JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+		Long beat = primary.queryForObject("select beat_millis from replication_heartbeat where id = 1", Long.class);
+		replica.update("update replication_heartbeat set beat_millis = ? where id = 1", beat);
+		probe.probe();
+		assertTrue(probe.replicaUsable());
+	}
+
+	private double routed(String target, String reason) {
+		return meterRegistry.get("datasource.connections.routed").tag("target", target).tag("reason", reason)
+				.counter().count();
+	}
+
+	private static Appointment appointment(long doctorId, long patientId) {
+		return AppointmentFixture.appointment(doctorId, patientId, LocalDate.now().plusDays(1), LocalTime.of(10, 0))
+				.patientName("Routing").status("Pending").build();
+	}
+}
@@ -0,0 +1,89 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.entity.Appointment;
+import com.oneHealth.Appointments.exception.DuplicateAppointmentException;
+import com.oneHealth.Appointments.repository.AppointmentRepository;
+import com.oneHealth.Appointments.service.AppointmentService;
+
+/**
+ * Rescheduling takes the new slot the way a booking does: a slot that is
+ * already booked, here or through another replica, is refused and leaves the
+ * appointment where it was, and the old slot only becomes free once the move
+ * has committed.
+ */
+@SpringBootTest(classes = { OneHealthDoctorAppointmentApplication.class, StubGateway.class },
+		properties = { "profile.cache.maximum-size=0", "profile.cache.ttl=PT0S", "profile.cache.negative-ttl=PT0S",
+				"notification.outbox.poll-interval=PT1H" })
+class RescheduleTest {
+
+	private static final Date DAY = Date.valueOf(LocalDate.now().plusDays(3));
+
+	@Autowired
+	private AppointmentService service;
+
+	@Autowired
+	private AppointmentRepository repo;
+
+	@Test
+	void rescheduleIntoBookedSlotIsRefused() throws Exception {
+		service.bookAppointment(appointment(6101, 10, 0));
+		Appointment moving = service.bookAppointment(appointment(6101, 11, 0));
+
+		assertThrows(DuplicateAppointmentException.class,
+				() -> service.updateAppointmentDateTime(moving.getAppointment_id(), DAY, time(10, 0)));
+
+		Appointment unchanged = repo.findById(moving.getAppointment_id()).orElseThrow();
+		assertEquals(time(11, 0), unchanged.getAppointmentTime());
+		assertEquals(2, repo.findByDoctorIdAndDate(6101, DAY).size());
+		// Both slots are still taken
+		assertThrows(DuplicateAppointmentException.class, () -> service.bookAppointment(appointment(6101, 10, 0)));
+		assertThrows(DuplicateAppointmentException.class, () -> service.bookAppointment(appointment(6101, 11, 0)));
+	}
+
+	@Test
+	void rescheduleFreesTheOldSlot() throws Exception {
+		Appointment moving = service.bookAppointment(appointment(6102, 10, 0));
+
+		service.updateAppointmentDateTime(moving.getAppointment_id(), DAY, time(12, 0));
+
+		assertThrows(DuplicateAppointmentException.class, () -> service.bookAppointment(appointment(6102, 12, 0)));
+		service.bookAppointment(appointment(6102, 10, 0));
+	}
+
+	@Test
+	void slotTakenThroughAnotherReplicaIsReportedAsDuplicate() throws Exception {
+		Appointment moving = service.bookAppointment(appointment(6103, 10, 0));
+		// Written past this node's slot occupancy, as another replica would
+		repo.save(appointment(6103, 15, 0));
+
+		Appointment update = appointment(6103, 15, 0);
+		update.setPatient_name("Moved");
+		assertThrows(DuplicateAppointmentException.class,
+				() -> service.updateAppointment(moving.getAppointment_id(), update));
+
+		assertEquals(time(10, 0), repo.findById(moving.getAppointment_id()).orElseThrow().getAppointmentTime());
+		assertThrows(DuplicateAppointmentException.class, () -> service.bookAppointment(appointment(6103, 15, 0)));
+		assertThrows(DuplicateAppointmentException.class, () -> service.bookAppointment(appointment(6103, 10, 0)));
+	}
+
+	private static Appointment appointment(long doctorId, int hour, int minute) {
+		return AppointmentFixture.appointment(doctorId, 61, DAY.toLocalDate(), LocalTime.of(hour, minute)).build();
+	}
+
+	private static Time time(int hour, int minute) {
+		return Time.valueOf(LocalTime.of(hour, minute));
+	}
+}
@@ -0,0 +1,54 @@
+package com.jpa.test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stands in for the API gateway in booking tests: profile GETs answer after
+ * 20 ms with a minimal profile, or with 404 for the patient IDs in
+ * {@link #unknownPatients}; everything else with an empty 200. GETs are
+ * counted in {@link #gets}.
+ */
+@TestConfiguration
+class StubGateway {
+	final AtomicLong gets = new AtomicLong();
+
+	final Set<String> unknownPatients = ConcurrentHashMap.newKeySet();
+
+	@Bean
+	@Primary
+	WebClient.Builder stubGatewayBuilder() {
+		return WebClient.builder().exchangeFunction(request -> {
+			String path = request.url().getPath();
+			HttpStatus status = HttpStatus.OK;
+			String body = "";
+			if (request.method() == HttpMethod.GET) {
+				gets.incrementAndGet();
+				if (path.contains("getdoctorprofile")) {
+					body = "{\"first_name\":\"Asha\",\"last_name\":\"Rao\",\"email\":\"doctor@example.com\"}";
+				} else if (unknownPatients.contains(path.substring(path.lastIndexOf('/') + 1))) {
+					status = HttpStatus.NOT_FOUND;
+				} else {
+					body = "{\"firstName\":\"Ravi\",\"emailId\":\"patient@example.com\"}";
+				}
+			}
+			ClientResponse response = ClientResponse.create(status)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(body).build();
+			return Mono.delay(Duration.ofMillis(20)).thenReturn(response);
+		});
+	}
+}
@@ -0,0 +1,80 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.NestedExceptionUtils;
+
+import com.oneHealth.Appointments.OneHealthDoctorAppointmentApplication;
+import com.oneHealth.Appointments.id.AppointmentIdGenerator;
+import com.oneHealth.Appointments.id.TimeOrderedIdGenerator;
+
+/**
+ * Time-ordered IDs are unique across threads and nodes, increase per node and
+ * survive bursts and a clock that stands still. A replica in time mode does
+ * not start without a node of its own.
+ */
+class TimeOrderedIdGeneratorTest {
+
+	@Test
+	void idsOfTwoNodesAreUniqueUnderConcurrency() throws Exception {
+		TimeOrderedIdGenerator first = new TimeOrderedIdGenerator(1);
+		TimeOrderedIdGenerator second = new TimeOrderedIdGenerator(2);
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		int threads = 8;
+		int perThread = 20_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			TimeOrderedIdGenerator generator = i % 2 == 0 ? first : second;
+			executor.execute(() -> {
+				for (int n = 0; n < perThread; n++) {
+					ids.add(generator.next());
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(threads * perThread, ids.size());
+	}
+
+	@Test
+	void idsKeepIncreasingWhenTheClockStandsStill() {
+		Instant now = Instant.parse("2024-05-01T10:00:00Z");
+		TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7, Clock.fixed(now, ZoneOffset.UTC));
+
+		long previous = generator.next();
+		assertEquals(now, TimeOrderedIdGenerator.timestampOf(previous));
+		assertEquals(7, TimeOrderedIdGenerator.nodeOf(previous));
+		for (int i = 0; i < 10_000; i++) {
+			long id = generator.next();
+			assertTrue(id > previous);
+			assertEquals(7, TimeOrderedIdGenerator.nodeOf(id));
+			previous = id;
+		}
+	}
+
+	@Test
+	void timeModeWithoutNodeFailsAtStartup() {
+		Exception e = assertThrows(Exception.class,
+				() -> new SpringApplicationBuilder(OneHealthDoctorAppointmentApplication.class)
+						.properties("server.port=0", "spring.jpa.properties.appointment.id.mode=time").run().close());
+
+		Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+		assertInstanceOf(IllegalStateException.class, cause);
+		assertTrue(cause.getMessage().contains(AppointmentIdGenerator.NODE_SETTING), cause.getMessage());
+	}
+}
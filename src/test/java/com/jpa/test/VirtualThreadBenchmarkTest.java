@@ -0,0 +1,77 @@
+package com.jpa.test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.oneHealth.Appointments.config.VirtualThreads;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares request throughput on Tomcat's default pool of 200 platform threads
+ * with one virtual thread per request, when every request blocks on two
+ * gateway calls of 20 ms, as a booking does. Runs on Java 21 and later only.
+ */
+class VirtualThreadBenchmarkTest {
+
+	private static final int REQUESTS = 4000;
+
+	private static final int TOMCAT_MAX_THREADS = 200;
+
+	private static final Duration GATEWAY_LATENCY = Duration.ofMillis(20);
+
+	@Test
+	@EnabledIf("virtualThreadsAvailable")
+	void virtualThreadsServeMoreBlockingRequests() throws Exception {
+		// Warm up both paths first, so neither measurement pays for class loading and JIT
+		throughput(Executors.newFixedThreadPool(TOMCAT_MAX_THREADS));
+		throughput(VirtualThreads.newExecutor("benchmark-"));
+
+		double platform = throughput(Executors.newFixedThreadPool(TOMCAT_MAX_THREADS));
+		double virtual = throughput(VirtualThreads.newExecutor("benchmark-"));
+
+		assertTrue(virtual > platform * 2, "requests/s with " + GATEWAY_LATENCY.toMillis() + " ms gateway latency: "
+				+ platform + " on " + TOMCAT_MAX_THREADS + " platform threads, " + virtual + " on virtual threads");
+	}
+
+	@Test
+	@DisabledIf("virtualThreadsAvailable")
+	void virtualModeNeedsJava21() {
+		assertThrows(IllegalStateException.class, () -> VirtualThreads.newExecutor("benchmark-"));
+	}
+
+	static boolean virtualThreadsAvailable() {
+		return VirtualThreads.available();
+	}
+
+	private static double throughput(ExecutorService executor) throws Exception {
+		try {
+			long start = System.nanoTime();
+			List<Future<?>> requests = new ArrayList<>(REQUESTS);
+			for (int i = 0; i < REQUESTS; i++) {
+				requests.add(executor.submit(() -> {
+					// Patient and doctor profile lookups, blocking like the booking pipeline
+					Mono.delay(GATEWAY_LATENCY).block();
+					Mono.delay(GATEWAY_LATENCY).block();
+				}));
+			}
+			for (Future<?> request : requests) {
+				request.get();
+			}
+			return REQUESTS / (Duration.ofNanos(System.nanoTime() - start).toMillis() / 1000.0);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}